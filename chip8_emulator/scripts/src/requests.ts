@@ -153,9 +153,8 @@ export async function deleteRoms(roms: { userId: string; romName: string }[], to
             body: JSON.stringify(roms)
         });
 
-        const message = await response.text();
-
         if (!response.ok) {
+            const message = await response.text();
             Swal.fire({
                 icon: "error",
                 title: "Error",
@@ -165,10 +164,26 @@ export async function deleteRoms(roms: { userId: string; romName: string }[], to
             return;
         }
 
+        // The server reports the outcome of every ROM in the batch
+        const results: { romName: string; status: string; message: string }[] = await response.json();
+        const failed = results.filter((result) => result.status !== "DELETED");
+
+        if (failed.length > 0) {
+            Swal.fire({
+                icon: "error",
+                title: "Error",
+                text: failed.map((result) => `${result.romName}: ${result.message}`).join("\n"),
+                confirmButtonColor: "#d33",
+            }).then(() => {
+                window.location.reload();
+            });
+            return;
+        }
+
         Swal.fire({
             icon: "success",
             title: "Deleted",
-            text: message,
+            text: "ROMs deleted successfully.",
             confirmButtonColor: "#3085d6",
         }).then(() => {
             window.location.reload();
@@ -193,7 +208,7 @@ export async function readPublicRom(
     email: string
 ) {
     try {
-        const response = await fetch(`${API_BASE_URL}/rom/public/get?userId=${id}&romName=${encodeURIComponent(name)}`, {
+        const response = await fetch(`${API_BASE_URL}/rom/public/content?userId=${id}&romName=${encodeURIComponent(name)}`, {
             method: "GET"
         });
 
@@ -208,14 +223,7 @@ export async function readPublicRom(
             return;
         }
 
-        const presignedUrl = await response.text();
-
-        const romResponse = await fetch(presignedUrl);
-        if (!romResponse.ok) {
-            throw new Error("Failed to download ROM from S3.");
-        }
-
-        const arrayBuffer = await romResponse.arrayBuffer();
+        const arrayBuffer = await response.arrayBuffer();
 
         if (arrayBuffer.byteLength === 0) {
             Swal.fire({
@@ -264,7 +272,7 @@ export async function readPersonalRom(
     email: string
 ) {
     try {
-        const response = await fetch(`${API_BASE_URL}/rom/personal/get?userId=${id}&romName=${encodeURIComponent(name)}`, {
+        const response = await fetch(`${API_BASE_URL}/rom/personal/content?userId=${id}&romName=${encodeURIComponent(name)}`, {
             method: "GET",
             headers: {
                 'Authorization': `Bearer ${token}`
@@ -282,14 +290,7 @@ export async function readPersonalRom(
             return;
         }
 
-        const presignedUrl = await response.text();
-
-        const romResponse = await fetch(presignedUrl);
-        if (!romResponse.ok) {
-            throw new Error("Failed to download ROM from S3.");
-        }
-
-        const arrayBuffer = await romResponse.arrayBuffer();
+        const arrayBuffer = await response.arrayBuffer();
 
         if (arrayBuffer.byteLength === 0) {
             Swal.fire({
@@ -0,0 +1,50 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.repository.RomBlobRepository;
+import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, implementing only what the benchmarked paths call.
+ */
+final class InMemoryRepositories {
+    private InMemoryRepositories() {}
+
+    static RomRepository roms(Map<RomId, Rom> rows) {
+        return (RomRepository) Proxy.newProxyInstance(RomRepository.class.getClassLoader(),
+                new Class<?>[]{RomRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "existsById" -> rows.containsKey((RomId) args[0]);
+                    case "findById" -> Optional.ofNullable(rows.get((RomId) args[0]));
+                    case "save" -> {
+                        Rom rom = (Rom) args[0];
+                        rows.put(rom.getId(), rom);
+                        yield rom;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static RomBlobRepository blobs(Map<String, Integer> references) {
+        return (RomBlobRepository) Proxy.newProxyInstance(RomBlobRepository.class.getClassLoader(),
+                new Class<?>[]{RomBlobRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "addReferences" ->
+                            references.computeIfPresent((String) args[0], (hash, count) -> count + (int) args[1]) != null
+                                    ? 1 : 0;
+                    case "upsertReferences" -> {
+                        references.merge((String) args[0], (int) args[2], Integer::sum);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Map<RomId, Rom> newRomTable() {
+        return new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,78 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.rayhanp1402.chip8_rom_server.config.SecurityConfiguration;
+import com.rayhanp1402.chip8_rom_server.security.CachingJwtDecoder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and verifying a Supabase-style HS256 access token, done on every authenticated request.
+ * The {@code authenticate} variants go through JwtAuthenticationProvider, the part of the security filter chain
+ * that turns a bearer token into an Authentication, with the plain and the caching decoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+    private static final String SECRET = "benchmark-secret-that-is-at-least-256-bits-long";
+
+    private JwtDecoder decoder;
+    private CachingJwtDecoder cachingDecoder;
+    private JwtAuthenticationProvider provider;
+    private JwtAuthenticationProvider cachingProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        decoder = SecurityConfiguration.jwtDecoder(SECRET);
+        cachingDecoder = new CachingJwtDecoder(SecurityConfiguration.jwtDecoder(SECRET), 10_000);
+        provider = new JwtAuthenticationProvider(decoder);
+        cachingProvider = new JwtAuthenticationProvider(cachingDecoder);
+
+        Instant now = Instant.now();
+        token = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .audience().add("authenticated").and()
+                .claim("role", "authenticated")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofDays(1))))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cachingDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return provider.authenticate(new BearerTokenAuthenticationToken(token));
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() {
+        return cachingProvider.authenticate(new BearerTokenAuthenticationToken(token));
+    }
+}
@@ -0,0 +1,75 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PresignedUrlCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomThumbnailCache;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.service.RomService;
+import com.rayhanp1402.chip8_rom_server.storage.S3RomStorage;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RomService's download URL path, with a real S3Presigner (signing needs no network) and in-memory rows.
+ * {@code signed} evicts the URL cache first so every call signs, {@code cached} measures the cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PresignBenchmark {
+    private S3Presigner presigner;
+    private PresignedUrlCache presignedUrlCache;
+    private RomService romService;
+    private UUID userId;
+    private RomId romId;
+
+    @Setup
+    public void setup() {
+        presigner = S3Presigner.builder()
+                .region(Region.AP_SOUTHEAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create("AKIDBENCHMARK", "benchmark-secret")))
+                .build();
+        presignedUrlCache = new PresignedUrlCache(10_000, Duration.ofMinutes(2));
+
+        userId = UUID.randomUUID();
+        romId = new RomId(userId, "Pong.ch8");
+        Map<RomId, Rom> rows = InMemoryRepositories.newRomTable();
+        rows.put(romId, new Rom(romId, false, "0".repeat(64)));
+
+        S3RomStorage romStorage = new S3RomStorage(null, presigner);
+        romStorage.setBucketName("chip8-benchmark");
+        romService = new RomService(InMemoryRepositories.roms(rows), romStorage, new ObjectMapper(),
+                presignedUrlCache, new RomContentCache(1024 * 1024, 4096), null, new RomThumbnailCache(100));
+    }
+
+    @TearDown
+    public void tearDown() {
+        presigner.close();
+    }
+
+    @Benchmark
+    public URL signed() {
+        presignedUrlCache.evict(romId);
+        return romService.getPersonalRomDownloadUrl(userId, "Pong.ch8");
+    }
+
+    @Benchmark
+    public URL cached() {
+        return romService.getPersonalRomDownloadUrl(userId, "Pong.ch8");
+    }
+}
@@ -0,0 +1,87 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.rayhanp1402.chip8_rom_server.security.RateLimitFilter;
+import com.rayhanp1402.chip8_rom_server.security.TokenBucketRateLimiter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limit on /rom/public/get, from 8 threads at once. {@code passThrough} is the same request
+ * without the filter; {@code filter} minus passThrough is what every limited request pays. {@code spreadKeys} is
+ * the usual case of many clients, {@code hotKey} has all threads compete for one bucket's compare-and-set.
+ * Limits are high enough that nothing is rejected, so every call takes the full path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitBenchmark {
+    private static final int CLIENTS = 10_000;
+    private static final long CAPACITY = 1_000_000_000L;
+    private static final double REFILL_PER_SECOND = 1e9;
+
+    private TokenBucketRateLimiter limiter;
+    private RateLimitFilter filter;
+    private final FilterChain chain = (request, response) -> {};
+
+    @State(Scope.Thread)
+    public static class Client {
+        private final String[] addresses = new String[CLIENTS];
+        private final MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENTS];
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private int next;
+
+        @Setup
+        public void setup() {
+            for (int i = 0; i < CLIENTS; i++) {
+                addresses[i] = "10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+                requests[i] = new MockHttpServletRequest("GET", "/rom/public/get");
+                requests[i].setRemoteAddr(addresses[i]);
+            }
+        }
+
+        private int nextClient() {
+            int client = next;
+            next = client + 1 == CLIENTS ? 0 : client + 1;
+            return client;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        limiter = new TokenBucketRateLimiter(CAPACITY, REFILL_PER_SECOND, 100_000);
+        filter = new RateLimitFilter(List.of(new RateLimitFilter.Group("public",
+                List.of("/rom/public/get", "/rom/public/list"),
+                new TokenBucketRateLimiter(CAPACITY, REFILL_PER_SECOND, 100_000))));
+    }
+
+    @Benchmark
+    public long spreadKeys(Client client) {
+        return limiter.tryAcquire(client.addresses[client.nextClient()]);
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire("10.0.0.1");
+    }
+
+    @Benchmark
+    public int filter(Client client) throws Exception {
+        filter.doFilter(client.requests[client.nextClient()], client.response, chain);
+        return client.response.getStatus();
+    }
+
+    @Benchmark
+    public int passThrough(Client client) throws Exception {
+        chain.doFilter(client.requests[client.nextClient()], client.response);
+        return client.response.getStatus();
+    }
+}
@@ -0,0 +1,52 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RomId is the key of every ROM cache, so its hashCode and equals run on each cached lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RomIdBenchmark {
+    private RomId romId;
+    private RomId equalRomId;
+    private Map<RomId, Integer> map;
+
+    @Setup
+    public void setup() {
+        UUID userId = UUID.randomUUID();
+        romId = new RomId(userId, "Space Invaders [David Winter].ch8");
+        equalRomId = new RomId(UUID.fromString(userId.toString()), new String("Space Invaders [David Winter].ch8"));
+
+        map = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map.put(new RomId(UUID.randomUUID(), "rom-" + i + ".ch8"), i);
+        }
+        map.put(romId, -1);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return romId.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOf() {
+        return romId.equals(equalRomId);
+    }
+
+    @Benchmark
+    public Integer mapLookup() {
+        return map.get(equalRomId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the public ROM list, which is what rebuilding the /rom/public/list catalog costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RomListSerializationBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Rom> roms;
+
+    @Setup
+    public void setup() {
+        roms = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // A few users own most public ROMs
+            UUID userId = new UUID(0, i % 50);
+            roms.add(new Rom(new RomId(userId, "rom-" + i + ".ch8"), true, null));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(roms);
+    }
+}
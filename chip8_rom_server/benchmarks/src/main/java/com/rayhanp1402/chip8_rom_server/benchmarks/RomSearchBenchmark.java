@@ -0,0 +1,55 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.search.RomNameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /rom/public/search against public libraries of different sizes: a prefix query, a typo and a miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RomSearchBenchmark {
+    private static final String[] TITLES = {"Space Invaders", "Tetris", "Pong", "Breakout", "Brix", "Tank", "UFO",
+            "Missile Command", "Blinky", "Connect 4", "Tic-Tac-Toe", "Hidden", "Kaleidoscope", "Maze", "Merlin"};
+
+    @Param({"1000", "100000"})
+    private int roms;
+
+    private RomNameIndex index;
+
+    @Setup
+    public void setup() {
+        List<Rom> catalog = new ArrayList<>(roms);
+        for (int i = 0; i < roms; i++) {
+            String name = TITLES[i % TITLES.length] + " [Author " + i / TITLES.length + "].ch8";
+            catalog.add(new Rom(new RomId(UUID.randomUUID(), name), true));
+        }
+        index = RomNameIndex.of(catalog);
+    }
+
+    @Benchmark
+    public List<Rom> prefix() {
+        return index.search("space inv", 20);
+    }
+
+    @Benchmark
+    public List<Rom> typo() {
+        return index.search("invdaers", 20);
+    }
+
+    @Benchmark
+    public List<Rom> miss() {
+        return index.search("zelda", 20);
+    }
+}
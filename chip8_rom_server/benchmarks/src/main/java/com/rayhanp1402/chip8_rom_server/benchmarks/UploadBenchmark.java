@@ -0,0 +1,127 @@
+package com.rayhanp1402.chip8_rom_server.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PresignedUrlCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomThumbnailCache;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
+import com.rayhanp1402.chip8_rom_server.service.RomService;
+import com.rayhanp1402.chip8_rom_server.storage.S3RomStorage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RomService.saveRom end to end against in-memory S3 and database stand-ins, so the measurement is the
+ * server's own work: hashing, decoding, thumbnail rendering, bookkeeping and request building.
+ * {@code duplicate} uploads the same bytes every time, which skips the put after the first call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UploadBenchmark {
+    @Param({"false", "true"})
+    private boolean duplicate;
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private RomService romService;
+    private UUID userId;
+    private byte[] content;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        objects.clear();
+        userId = UUID.randomUUID();
+
+        S3Client s3Client = (S3Client) Proxy.newProxyInstance(S3Client.class.getClassLoader(),
+                new Class<?>[]{S3Client.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("putObject") && args.length == 2
+                            && args[1] instanceof RequestBody body) {
+                        try (InputStream in = body.contentStreamProvider().newStream()) {
+                            objects.put(((PutObjectRequest) args[0]).key(), in.readAllBytes());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return PutObjectResponse.builder().build();
+                    }
+                    if (method.getName().equals("headObject") && args.length == 1
+                            && args[0] instanceof HeadObjectRequest request) {
+                        if (!objects.containsKey(request.key())) {
+                            throw NoSuchKeyException.builder().statusCode(404).build();
+                        }
+                        return HeadObjectResponse.builder().build();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        S3RomStorage romStorage = new S3RomStorage(s3Client, null);
+        romStorage.setBucketName("chip8-benchmark");
+
+        Map<RomId, Rom> rows = InMemoryRepositories.newRomTable();
+        RomBlobService romBlobService = new RomBlobService(
+                InMemoryRepositories.blobs(new ConcurrentHashMap<>()), romStorage);
+        romService = new RomService(InMemoryRepositories.roms(rows), romStorage, new ObjectMapper(),
+                new PresignedUrlCache(100, Duration.ofMinutes(2)), new RomContentCache(1024 * 1024, 4096),
+                romBlobService, new RomThumbnailCache(100));
+
+        content = randomRom(new Random(42));
+    }
+
+    @Benchmark
+    public Rom saveRom() {
+        long n = uploads.incrementAndGet();
+        byte[] bytes = content;
+        if (!duplicate) {
+            // Change the LD V0/V1 operands so the content hash is new but the ROM stays valid
+            bytes = content.clone();
+            bytes[bytes.length - 3] = (byte) n;
+            bytes[bytes.length - 5] = (byte) (n >>> 8);
+        }
+
+        String romName = "rom-" + n + ".ch8";
+        return romService.saveRom(userId, romName, false, new MockMultipartFile(romName, bytes));
+    }
+
+    // A 1 KB ROM of straight-line register and draw instructions, ending in LD V0/V1 and a halt loop
+    private static byte[] randomRom(Random random) {
+        byte[] rom = new byte[1024];
+        int[] opcodes = {0x6000, 0x7000, 0x8000, 0x8004, 0xA000, 0xC000, 0xD000};
+        for (int i = 0; i < rom.length - 6; i += 2) {
+            int opcode = opcodes[random.nextInt(opcodes.length)] | (random.nextInt(0x10) << 8)
+                    | (random.nextInt(0x10) << 4);
+            rom[i] = (byte) (opcode >>> 8);
+            rom[i + 1] = (byte) opcode;
+        }
+        int end = rom.length - 6;
+        rom[end] = 0x60;
+        rom[end + 2] = 0x61;
+        int halt = 0x1000 | (0x200 + rom.length - 2);
+        rom[rom.length - 2] = (byte) (halt >>> 8);
+        rom[rom.length - 1] = (byte) halt;
+        return rom;
+    }
+}
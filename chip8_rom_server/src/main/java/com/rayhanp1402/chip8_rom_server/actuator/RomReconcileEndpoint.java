@@ -0,0 +1,49 @@
+package com.rayhanp1402.chip8_rom_server.actuator;
+
+import com.rayhanp1402.chip8_rom_server.service.RomReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Checks storage against the database, see {@link RomReconciliationService}. A run over millions of keys takes
+ * a while, so it runs in the background and is followed through the status and the rom.reconcile.* metrics.
+ * <ul>
+ *   <li>{@code POST /actuator/romreconcile} starts a report-only run; {@code {"repair": true}} also deletes
+ *       orphaned objects, {@code {"verify": true}} downloads every blob to check its SHA-256</li>
+ *   <li>{@code GET /actuator/romreconcile} returns the progress of the current run or the result of the last</li>
+ *   <li>{@code DELETE /actuator/romreconcile} stops the current run</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "romreconcile")
+public class RomReconcileEndpoint {
+    private final RomReconciliationService romReconciliationService;
+
+    @Autowired
+    public RomReconcileEndpoint(RomReconciliationService romReconciliationService) {
+        this.romReconciliationService = romReconciliationService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return romReconciliationService.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable Boolean repair, @Nullable Boolean verify) {
+        return romReconciliationService.start(Boolean.TRUE.equals(repair), Boolean.TRUE.equals(verify));
+    }
+
+    @DeleteOperation
+    public Map<String, Object> cancel() {
+        romReconciliationService.cancel();
+        return romReconciliationService.status();
+    }
+}
@@ -0,0 +1,138 @@
+package com.rayhanp1402.chip8_rom_server.actuator;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Interpreter;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Thumbnail;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders thumbnails for stored ROM content that has none yet, e.g. content uploaded before thumbnails existed.
+ * Works through the content in batches of 256 so only one batch is held in memory. Downloads run on virtual
+ * threads, rendering runs on a fork-join pool sized to the CPU count, with one interpreter per worker thread.
+ * One backfill runs at a time; a second request while it runs only gets {@code {"state": "running"}}.
+ * <p>
+ * {@code POST /actuator/romthumbnails}
+ */
+@Component
+@Endpoint(id = "romthumbnails")
+public class RomThumbnailEndpoint {
+    private static final Logger log = LoggerFactory.getLogger(RomThumbnailEndpoint.class);
+    private static final int MAX_CONCURRENT_DOWNLOADS = 32;
+    private static final int BATCH_SIZE = 256;
+
+    private final RomBlobService romBlobService;
+    private final ThreadLocal<Chip8Interpreter> interpreters = ThreadLocal.withInitial(Chip8Interpreter::new);
+    // Shared by all runs; its workers keep their interpreter between batches
+    private final ForkJoinPool renderPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public RomThumbnailEndpoint(RomBlobService romBlobService) {
+        this.romBlobService = romBlobService;
+    }
+
+    @WriteOperation
+    public Map<String, Object> backfill() throws InterruptedException, ExecutionException {
+        if (!running.compareAndSet(false, true)) {
+            return Map.of("state", "running");
+        }
+        try {
+            return runBackfill();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private Map<String, Object> runBackfill() throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<String> contentHashes = romBlobService.findContentHashesWithoutThumbnail();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+        long downloadNanos = 0;
+        long renderNanos = 0;
+
+        // One batch of ROMs in memory at a time
+        for (int from = 0; from < contentHashes.size(); from += BATCH_SIZE) {
+            List<String> batch = contentHashes.subList(from, Math.min(from + BATCH_SIZE, contentHashes.size()));
+
+            long batchStart = System.nanoTime();
+            Map<String, byte[]> roms = download(batch, failed);
+            long downloaded = System.nanoTime();
+            Map<String, byte[]> thumbnails = render(roms, failed);
+            renderNanos += System.nanoTime() - downloaded;
+            downloadNanos += downloaded - batchStart;
+
+            thumbnails.forEach(romBlobService::saveThumbnail);
+            rendered.addAndGet(thumbnails.size());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("missing", contentHashes.size());
+        result.put("rendered", rendered.get());
+        result.put("failed", failed.get());
+        result.put("downloadMillis", downloadNanos / 1_000_000);
+        result.put("renderMillis", renderNanos / 1_000_000);
+        result.put("totalMillis", (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private Map<String, byte[]> download(List<String> contentHashes, AtomicInteger failed) {
+        Map<String, byte[]> roms = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_DOWNLOADS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String contentHash : contentHashes) {
+                executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        roms.put(contentHash, romBlobService.readBlob(contentHash));
+                    } catch (RuntimeException e) {
+                        log.warn("Could not download blob {} for its thumbnail", contentHash, e);
+                        failed.incrementAndGet();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        return roms;
+    }
+
+    private Map<String, byte[]> render(Map<String, byte[]> roms, AtomicInteger failed)
+            throws InterruptedException, ExecutionException {
+        Map<String, byte[]> thumbnails = new ConcurrentHashMap<>();
+        renderPool.submit(() -> roms.entrySet().parallelStream().forEach(rom -> {
+            try {
+                long[] frame = Chip8Thumbnail.run(interpreters.get(), rom.getValue());
+                thumbnails.put(rom.getKey(), Chip8Thumbnail.toPng(frame));
+            } catch (RuntimeException e) {
+                log.warn("Could not render a thumbnail for blob {}", rom.getKey(), e);
+                failed.incrementAndGet();
+            }
+        })).get();
+        return thumbnails;
+    }
+}
@@ -0,0 +1,146 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A concurrent map of values that each have a deadline, kept near maxEntries. Deadlines and the clock are compared
+ * by subtraction, so any monotonic long clock works, {@link System#nanoTime} included.
+ * <p>
+ * Once an insert takes the map past maxEntries, the inserting thread trims it: entries past their deadline go
+ * first, then those with the nearest deadlines until the map is back at about 90%. Which deadlines are nearest is
+ * estimated from a random sample, so a trim is two passes over the map and no sort of it. A thread that finds
+ * another one already trimming goes on without waiting.
+ */
+public class BoundedExpiringMap<K, V> {
+    private static final int SAMPLE_SIZE = 256;
+
+    private final int maxEntries;
+    private final ToLongFunction<V> deadline;
+    private final LongSupplier clock;
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock trimLock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedExpiringMap(int maxEntries, ToLongFunction<V> deadline, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.deadline = deadline;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        return entries.get(key);
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, value);
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+    }
+
+    /**
+     * @return the value already mapped to key, or null when value was added
+     */
+    public V putIfAbsent(K key, V value) {
+        V existing = entries.putIfAbsent(key, value);
+        if (existing == null && entries.size() > maxEntries) {
+            trim();
+        }
+        return existing;
+    }
+
+    public boolean evict(K key) {
+        if (entries.remove(key) != null) {
+            evictions.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // Only if key still maps to value, for callers that found it expired
+    public boolean evict(K key, V value) {
+        if (entries.remove(key, value)) {
+            evictions.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            if (entries.size() <= maxEntries) {
+                return;
+            }
+
+            long now = clock.getAsLong();
+            removeUpTo(now, 0);
+
+            int target = maxEntries - maxEntries / 10;
+            int excess = entries.size() - target;
+            if (excess > 0) {
+                removeUpTo(now, sampleRemaining(now, excess));
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    // Removes entries whose deadline is at most remaining after now
+    private void removeUpTo(long now, long remaining) {
+        entries.entrySet().removeIf(e -> {
+            boolean remove = deadline.applyAsLong(e.getValue()) - now <= remaining;
+            if (remove) {
+                evictions.increment();
+            }
+            return remove;
+        });
+    }
+
+    /**
+     * The time left before a deadline such that about excess entries have at most that much left, from a reservoir
+     * sample of the entries. Exact while the map holds no more than the sample size.
+     */
+    private long sampleRemaining(long now, int excess) {
+        long[] sample = new long[SAMPLE_SIZE];
+        int seen = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (V value : entries.values()) {
+            long remaining = deadline.applyAsLong(value) - now;
+            if (seen < SAMPLE_SIZE) {
+                sample[seen] = remaining;
+            } else {
+                int slot = random.nextInt(seen + 1);
+                if (slot < SAMPLE_SIZE) {
+                    sample[slot] = remaining;
+                }
+            }
+            seen++;
+        }
+        if (seen == 0) {
+            return 0;
+        }
+
+        int sampled = Math.min(seen, SAMPLE_SIZE);
+        Arrays.sort(sample, 0, sampled);
+        int rank = (int) Math.ceil((double) excess * sampled / seen) - 1;
+        return sample[Math.clamp(rank, 0, sampled - 1)];
+    }
+}
@@ -0,0 +1,108 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of presigned download URLs keyed by {@link RomId}.
+ * An entry is served until {@code safetyMargin} before its signature expires,
+ * so a client never receives a URL that is about to stop working.
+ */
+@Component
+public class PresignedUrlCache implements MeterBinder {
+    public record Entry(URL url, boolean isPublic, Instant refreshAt) {}
+
+    private final Duration safetyMargin;
+    private final Clock clock;
+    // Past maxEntries, stale URLs are dropped first, then those closest to expiry
+    private final BoundedExpiringMap<RomId, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public PresignedUrlCache(@Value("${rom.presign.cache.max-entries:10000}") int maxEntries,
+                             @Value("${rom.presign.cache.safety-margin:PT2M}") Duration safetyMargin) {
+        this(maxEntries, safetyMargin, Clock.systemUTC());
+    }
+
+    public PresignedUrlCache(int maxEntries, Duration safetyMargin, Clock clock) {
+        this.safetyMargin = safetyMargin;
+        this.clock = clock;
+        this.entries = new BoundedExpiringMap<>(maxEntries, entry -> entry.refreshAt().toEpochMilli(), clock::millis);
+    }
+
+    public Entry get(RomId romId) {
+        Entry entry = entries.get(romId);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (!clock.instant().isBefore(entry.refreshAt())) {
+            // Too close to expiry, let the caller sign a fresh one
+            entries.evict(romId, entry);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry;
+    }
+
+    public void put(RomId romId, URL url, boolean isPublic, Instant expiresAt) {
+        Instant refreshAt = expiresAt.minus(safetyMargin);
+        if (!clock.instant().isBefore(refreshAt)) {
+            return;
+        }
+
+        entries.put(romId, new Entry(url, isPublic, refreshAt));
+    }
+
+    public void evict(RomId romId) {
+        entries.evict(romId);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return entries.getEvictions();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.presign.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("rom.presign.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("rom.presign.cache.evictions", entries, BoundedExpiringMap::getEvictions)
+                .register(registry);
+        Gauge.builder("rom.presign.cache.size", entries, BoundedExpiringMap::size)
+                .register(registry);
+    }
+}
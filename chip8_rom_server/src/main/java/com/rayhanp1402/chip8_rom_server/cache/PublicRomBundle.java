@@ -0,0 +1,20 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import java.nio.file.Path;
+
+/**
+ * A gzip-compressed bundle of every public ROM, written to disk so it can be sent with sendfile.
+ * {@code id} is derived from the compressed bytes, so it is the same on every instance that built the same bundle
+ * and doubles as the immutable URL of this bundle and, with the content encoding, as its strong ETags.
+ */
+public record PublicRomBundle(long version, Path file, long size, String id, int romCount) {
+
+    public String eTag() {
+        return "\"" + id + "\"";
+    }
+
+    // The compressed bytes are a different representation and need their own strong validator
+    public String gzipETag() {
+        return "\"" + id + "-gzip\"";
+    }
+}
@@ -0,0 +1,44 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the public ROM list, pre-serialized to JSON.
+ * ROMs are sorted by owner and name before serializing, and the ETag is derived from the serialized bytes, so it
+ * stays stable across reloads and server instances as long as the catalog content is unchanged, whatever order
+ * the database returned the rows in.
+ */
+public record PublicRomCatalog(long version, List<Rom> roms, byte[] json, String eTag) {
+
+    // Owner UUIDs compare as their lower-case hex strings, the same unsigned order as the public pages
+    private static final Comparator<Rom> ORDER = Comparator
+            .comparing((Rom rom) -> rom.getId().getUserId().toString())
+            .thenComparing(rom -> rom.getId().getRomName());
+
+    public static PublicRomCatalog of(long version, List<Rom> roms, ObjectMapper objectMapper) {
+        List<Rom> sorted = roms.stream().sorted(ORDER).toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(sorted);
+            return new PublicRomCatalog(version, sorted, json, strongETag(json));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing public ROM catalog", e);
+        }
+    }
+
+    private static String strongETag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Raw bytes of a ROM together with the metadata needed to serve them over HTTP.
+ */
+public record RomContent(byte[] bytes, String eTag, boolean isPublic) {
+
+    public static RomContent of(byte[] bytes, boolean isPublic) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return new RomContent(bytes, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"", isPublic);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+}
@@ -0,0 +1,179 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * LRU cache of ROM bytes bounded by the total number of cached bytes.
+ * Concurrent misses for the same ROM share a single load. {@link #evict} also detaches a load in flight, so content
+ * read before the eviction is returned to its callers but never cached.
+ */
+@Component
+public class RomContentCache implements MeterBinder {
+    // Rough per-entry bookkeeping cost on top of the ROM bytes themselves
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+
+    private final LinkedHashMap<RomId, RomContent> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<RomId, CompletableFuture<RomContent>> inFlight = new ConcurrentHashMap<>();
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RomContentCache(@Value("${rom.content.cache.max-bytes:67108864}") long maxBytes,
+                           @Value("${rom.content.cache.max-entry-bytes:65536}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public RomContent get(RomId romId, Function<RomId, RomContent> loader) {
+        RomContent content = getIfPresent(romId);
+        if (content != null) {
+            hits.increment();
+            return content;
+        }
+        misses.increment();
+
+        CompletableFuture<RomContent> load = new CompletableFuture<>();
+        CompletableFuture<RomContent> existing = inFlight.putIfAbsent(romId, load);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            content = loader.apply(romId);
+            putIfCurrent(romId, content, load);
+            load.complete(content);
+            return content;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(romId, load);
+        }
+    }
+
+    public RomContent getIfPresent(RomId romId) {
+        lock.lock();
+        try {
+            return entries.get(romId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(RomId romId, RomContent content) {
+        if (content.size() > maxEntryBytes) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            putLocked(romId, content);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(RomId romId) {
+        lock.lock();
+        try {
+            // A load that started before this must not cache what it read
+            inFlight.remove(romId);
+            RomContent removed = entries.remove(romId);
+            if (removed != null) {
+                usedBytes -= weigh(removed);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.content.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("rom.content.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("rom.content.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("rom.content.cache.bytes", this, RomContentCache::usedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // Checked under the lock that evict holds, so either the put lands first and is evicted, or it is dropped
+    private void putIfCurrent(RomId romId, RomContent content, CompletableFuture<RomContent> load) {
+        if (content.size() > maxEntryBytes) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (inFlight.get(romId) == load) {
+                putLocked(romId, content);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putLocked(RomId romId, RomContent content) {
+        RomContent previous = entries.put(romId, content);
+        if (previous != null) {
+            usedBytes -= weigh(previous);
+        }
+        usedBytes += weigh(content);
+
+        Iterator<RomContent> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= weigh(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long weigh(RomContent content) {
+        return (long) content.size() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+}
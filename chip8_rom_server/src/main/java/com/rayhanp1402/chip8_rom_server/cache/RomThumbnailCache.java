@@ -0,0 +1,90 @@
+package com.rayhanp1402.chip8_rom_server.cache;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * LRU cache of rendered ROM thumbnails, keyed like the ROM content cache. Thumbnails are a few hundred bytes,
+ * so the cache is bounded by entry count. A concurrent miss may render the same thumbnail twice, which is cheap.
+ */
+@Component
+public class RomThumbnailCache implements MeterBinder {
+    private final LinkedHashMap<RomId, RomContent> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RomThumbnailCache(@Value("${rom.thumbnail.cache.max-entries:20000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RomId, RomContent> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public RomContent get(RomId romId, Function<RomId, RomContent> loader) {
+        lock.lock();
+        try {
+            RomContent thumbnail = entries.get(romId);
+            if (thumbnail != null) {
+                hits.increment();
+                return thumbnail;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        RomContent thumbnail = loader.apply(romId);
+        lock.lock();
+        try {
+            entries.put(romId, thumbnail);
+        } finally {
+            lock.unlock();
+        }
+        return thumbnail;
+    }
+
+    public void evict(RomId romId) {
+        lock.lock();
+        try {
+            entries.remove(romId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.thumbnail.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("rom.thumbnail.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("rom.thumbnail.cache.size", this, RomThumbnailCache::size)
+                .register(registry);
+    }
+}
@@ -0,0 +1,97 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import java.util.*;
+
+/**
+ * Decodes CHIP-8 ROMs without running them. Code is traced from the entry point at 0x200, following jumps,
+ * calls and skips, so data embedded in the ROM (sprites, tables) is not mistaken for instructions.
+ */
+public final class Chip8Decoder {
+    public static final int PROGRAM_START = 0x200;
+    // Everything between the program start and the end of the 4 KB address space
+    public static final int MAX_ROM_BYTES = 0x1000 - PROGRAM_START;
+
+    private Chip8Decoder() {}
+
+    public static RomAnalysis analyze(byte[] rom) {
+        if (rom.length > MAX_ROM_BYTES) {
+            throw new IllegalArgumentException("ROM file is too large.");
+        }
+
+        BitSet reachable = new BitSet(rom.length);
+        // Also holds illegal instructions, so each one is reported once
+        BitSet visited = new BitSet(rom.length);
+        int[] histogram = new int[Opcode.values().length];
+        Set<Quirk> quirks = EnumSet.noneOf(Quirk.class);
+        List<String> problems = new ArrayList<>();
+
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(0);
+
+        while (!pending.isEmpty()) {
+            int offset = pending.pop();
+
+            // Follow one path until it ends, leaves the ROM or meets code that was already traced
+            trace:
+            while (offset + 1 < rom.length && !visited.get(offset)) {
+                int instruction = ((rom[offset] & 0xFF) << 8) | (rom[offset + 1] & 0xFF);
+                int address = PROGRAM_START + offset;
+                Opcode opcode = Opcode.decode(instruction);
+                visited.set(offset);
+
+                if (opcode == null) {
+                    problems.add(String.format("illegal opcode 0x%04X at 0x%03X", instruction, address));
+                    break;
+                }
+
+                reachable.set(offset);
+                histogram[opcode.ordinal()]++;
+                if (opcode.getQuirk() != null) {
+                    quirks.add(opcode.getQuirk());
+                }
+
+                switch (opcode.getFlow()) {
+                    case NEXT -> offset += 2;
+                    case SKIP -> {
+                        pending.push(offset + 4);
+                        offset += 2;
+                    }
+                    case JUMP, CALL -> {
+                        int target = instruction & 0x0FFF;
+                        if (target < PROGRAM_START || target >= PROGRAM_START + rom.length) {
+                            problems.add(String.format("%s to 0x%03X outside the ROM at 0x%03X",
+                                    opcode.name(), target, address));
+                            break trace;
+                        }
+
+                        if (opcode == Opcode.CALL) {
+                            pending.push(offset + 2);
+                        }
+                        offset = target - PROGRAM_START;
+                    }
+                    case STOP -> {
+                        break trace;
+                    }
+                }
+            }
+        }
+
+        Map<String, Integer> opcodeHistogram = new LinkedHashMap<>();
+        for (Opcode opcode : Opcode.values()) {
+            if (histogram[opcode.ordinal()] > 0) {
+                opcodeHistogram.put(opcode.getPattern(), histogram[opcode.ordinal()]);
+            }
+        }
+
+        List<String> disassembly = new ArrayList<>(reachable.cardinality());
+        for (int offset = reachable.nextSetBit(0); offset >= 0; offset = reachable.nextSetBit(offset + 1)) {
+            int instruction = ((rom[offset] & 0xFF) << 8) | (rom[offset + 1] & 0xFF);
+            disassembly.add(String.format("%03X %04X %s", PROGRAM_START + offset, instruction,
+                    Opcode.decode(instruction).disassemble(instruction)));
+        }
+
+        return new RomAnalysis(rom.length, disassembly.size(),
+                Base64.getEncoder().encodeToString(reachable.toByteArray()),
+                opcodeHistogram, quirks, disassembly, problems);
+    }
+}
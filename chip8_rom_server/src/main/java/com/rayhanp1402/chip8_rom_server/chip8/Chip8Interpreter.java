@@ -0,0 +1,315 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import java.util.Arrays;
+
+/**
+ * Headless CHIP-8 interpreter with the same behaviour as the browser emulator (chip8.ts), used to run ROMs
+ * on the server. All state lives in primitive fields and arrays allocated once, so running instructions never
+ * allocates. The display is one long per row with column 0 in the most significant bit, which turns sprite
+ * drawing into a rotate, an AND for collisions and an XOR.
+ * <p>
+ * Runs are deterministic: timers tick every {@link #CYCLES_PER_FRAME} instructions instead of on a wall clock,
+ * random numbers come from a fixed-seed xorshift generator, and keys only change through {@link #setKeys}.
+ * Instances are not thread-safe.
+ */
+public final class Chip8Interpreter {
+    public static final int WIDTH = 64;
+    public static final int HEIGHT = 32;
+    // The browser emulator runs one instruction every 2 ms, about 8 per 60 Hz timer tick
+    public static final int CYCLES_PER_FRAME = 8;
+
+    private static final int MEMORY_SIZE = 4096;
+    private static final int ADDRESS_MASK = MEMORY_SIZE - 1;
+    private static final int FONT_START = 0x50;
+    private static final long RANDOM_SEED = 0x9E3779B97F4A7C15L;
+    private static final byte[] FONT = {
+            (byte) 0xF0, (byte) 0x90, (byte) 0x90, (byte) 0x90, (byte) 0xF0, // 0
+            (byte) 0x20, (byte) 0x60, (byte) 0x20, (byte) 0x20, (byte) 0x70, // 1
+            (byte) 0xF0, (byte) 0x10, (byte) 0xF0, (byte) 0x80, (byte) 0xF0, // 2
+            (byte) 0xF0, (byte) 0x10, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 3
+            (byte) 0x90, (byte) 0x90, (byte) 0xF0, (byte) 0x10, (byte) 0x10, // 4
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 5
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x90, (byte) 0xF0, // 6
+            (byte) 0xF0, (byte) 0x10, (byte) 0x20, (byte) 0x40, (byte) 0x40, // 7
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x90, (byte) 0xF0, // 8
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x10, (byte) 0xF0, // 9
+            (byte) 0xF0, (byte) 0x90, (byte) 0xF0, (byte) 0x90, (byte) 0x90, // A
+            (byte) 0xE0, (byte) 0x90, (byte) 0xE0, (byte) 0x90, (byte) 0xE0, // B
+            (byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0xF0, // C
+            (byte) 0xE0, (byte) 0x90, (byte) 0x90, (byte) 0x90, (byte) 0xE0, // D
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x80, (byte) 0xF0, // E
+            (byte) 0xF0, (byte) 0x80, (byte) 0xF0, (byte) 0x80, (byte) 0x80  // F
+    };
+
+    private final byte[] memory = new byte[MEMORY_SIZE];
+    private final int[] v = new int[16];
+    private final int[] stack = new int[16];
+    private final long[] display = new long[HEIGHT];
+
+    private int pc;
+    private int index;
+    private int sp;
+    private int delay;
+    private int sound;
+    private int frameCycles;
+    private int keys;
+    private long random;
+    private boolean halted;
+
+    /**
+     * Resets the machine and loads a ROM at 0x200.
+     */
+    public void load(byte[] rom) {
+        if (rom.length > Chip8Decoder.MAX_ROM_BYTES) {
+            throw new IllegalArgumentException("ROM file is too large.");
+        }
+
+        Arrays.fill(memory, (byte) 0);
+        Arrays.fill(v, 0);
+        Arrays.fill(stack, 0);
+        Arrays.fill(display, 0L);
+        System.arraycopy(FONT, 0, memory, FONT_START, FONT.length);
+        System.arraycopy(rom, 0, memory, Chip8Decoder.PROGRAM_START, rom.length);
+
+        pc = Chip8Decoder.PROGRAM_START;
+        index = 0;
+        sp = 0;
+        delay = 0;
+        sound = 0;
+        frameCycles = 0;
+        keys = 0;
+        random = RANDOM_SEED;
+        halted = false;
+    }
+
+    /**
+     * Sets the pressed keys, bit {@code k} for key {@code k}.
+     */
+    public void setKeys(int keys) {
+        this.keys = keys & 0xFFFF;
+    }
+
+    /**
+     * Runs up to {@code cycles} instructions and returns how many ran. Fewer run only if the ROM halts,
+     * by executing an unknown opcode, overflowing the stack or leaving memory.
+     */
+    public int run(int cycles) {
+        int executed = 0;
+        while (executed < cycles && !halted) {
+            step();
+            executed++;
+        }
+        return executed;
+    }
+
+    private void step() {
+        if (pc > MEMORY_SIZE - 2) {
+            halted = true;
+            return;
+        }
+
+        int opcode = ((memory[pc] & 0xFF) << 8) | (memory[pc + 1] & 0xFF);
+        pc += 2;
+
+        int x = (opcode >>> 8) & 0xF;
+        int y = (opcode >>> 4) & 0xF;
+        int nn = opcode & 0xFF;
+        int nnn = opcode & 0xFFF;
+
+        switch (opcode >>> 12) {
+            case 0x0 -> {
+                if (opcode == 0x00E0) {
+                    Arrays.fill(display, 0L);
+                } else if (opcode == 0x00EE && sp > 0) {
+                    pc = stack[--sp];
+                } else {
+                    halted = true;
+                }
+            }
+            case 0x1 -> pc = nnn;
+            case 0x2 -> {
+                if (sp == stack.length) {
+                    halted = true;
+                } else {
+                    stack[sp++] = pc;
+                    pc = nnn;
+                }
+            }
+            case 0x3 -> {
+                if (v[x] == nn) pc += 2;
+            }
+            case 0x4 -> {
+                if (v[x] != nn) pc += 2;
+            }
+            case 0x5 -> {
+                if (v[x] == v[y]) pc += 2;
+            }
+            case 0x6 -> v[x] = nn;
+            case 0x7 -> v[x] = (v[x] + nn) & 0xFF;
+            case 0x8 -> arithmetic(opcode & 0xF, x, y);
+            case 0x9 -> {
+                if (v[x] != v[y]) pc += 2;
+            }
+            case 0xA -> index = nnn;
+            case 0xB -> pc = nnn + v[0];
+            case 0xC -> v[x] = nextRandom() & nn;
+            case 0xD -> draw(v[x] % WIDTH, v[y] % HEIGHT, opcode & 0xF);
+            case 0xE -> {
+                boolean pressed = (keys & (1 << (v[x] & 0xF))) != 0;
+                if ((nn == 0x9E && pressed) || (nn == 0xA1 && !pressed)) pc += 2;
+            }
+            default -> misc(nn, x);
+        }
+
+        if (++frameCycles == CYCLES_PER_FRAME) {
+            frameCycles = 0;
+            if (delay > 0) delay--;
+            if (sound > 0) sound--;
+        }
+    }
+
+    private void arithmetic(int operation, int x, int y) {
+        int vx = v[x];
+        int vy = v[y];
+
+        // Like the browser emulator, VF is written after VX, so it wins when X is F
+        switch (operation) {
+            case 0x0 -> v[x] = vy;
+            case 0x1 -> v[x] = vx | vy;
+            case 0x2 -> v[x] = vx & vy;
+            case 0x3 -> v[x] = vx ^ vy;
+            case 0x4 -> {
+                v[x] = (vx + vy) & 0xFF;
+                v[0xF] = vx + vy > 0xFF ? 1 : 0;
+            }
+            case 0x5 -> {
+                v[x] = (vx - vy) & 0xFF;
+                v[0xF] = vx >= vy ? 1 : 0;
+            }
+            case 0x6 -> {
+                v[0xF] = vx & 0x1;
+                v[x] = vx >>> 1;
+            }
+            case 0x7 -> {
+                v[x] = (vy - vx) & 0xFF;
+                v[0xF] = vy >= vx ? 1 : 0;
+            }
+            case 0xE -> {
+                v[0xF] = vx >>> 7;
+                v[x] = (vx << 1) & 0xFF;
+            }
+            default -> {
+                // Ignored by the browser emulator as well
+            }
+        }
+    }
+
+    private void misc(int operation, int x) {
+        switch (operation) {
+            case 0x07 -> v[x] = delay;
+            case 0x0A -> {
+                if (keys == 0) {
+                    pc -= 2;
+                } else {
+                    v[x] = Integer.numberOfTrailingZeros(keys);
+                }
+            }
+            case 0x15 -> delay = v[x];
+            case 0x18 -> sound = v[x];
+            case 0x1E -> index = (index + v[x]) & 0xFFFF;
+            case 0x29 -> index = FONT_START + 5 * v[x];
+            case 0x33 -> {
+                memory[index & ADDRESS_MASK] = (byte) (v[x] / 100);
+                memory[(index + 1) & ADDRESS_MASK] = (byte) (v[x] / 10 % 10);
+                memory[(index + 2) & ADDRESS_MASK] = (byte) (v[x] % 10);
+            }
+            case 0x55 -> {
+                for (int r = 0; r <= x; r++) {
+                    memory[(index + r) & ADDRESS_MASK] = (byte) v[r];
+                }
+            }
+            case 0x65 -> {
+                for (int r = 0; r <= x; r++) {
+                    v[r] = memory[(index + r) & ADDRESS_MASK] & 0xFF;
+                }
+            }
+            default -> {
+                // Ignored by the browser emulator as well
+            }
+        }
+    }
+
+    private void draw(int column, int row, int height) {
+        v[0xF] = 0;
+        for (int line = 0; line < height; line++) {
+            // Place the sprite byte at the leftmost columns, then rotate it to its column, wrapping at the edge
+            long sprite = Long.rotateRight((memory[(index + line) & ADDRESS_MASK] & 0xFFL) << 56, column);
+            int y = (row + line) % HEIGHT;
+
+            if ((display[y] & sprite) != 0) {
+                v[0xF] = 1;
+            }
+            display[y] ^= sprite;
+        }
+    }
+
+    private int nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 56);
+    }
+
+    /**
+     * Captures the state the browser emulator also has. Keys, the random generator and the timer phase are not
+     * part of it and are reset by {@link #restore}.
+     */
+    public Chip8State snapshot() {
+        return new Chip8State(memory.clone(), v.clone(), index, pc, sp, stack.clone(), delay, sound,
+                display.clone());
+    }
+
+    public void restore(Chip8State state) {
+        System.arraycopy(state.memory(), 0, memory, 0, MEMORY_SIZE);
+        for (int r = 0; r < v.length; r++) {
+            v[r] = state.v()[r] & 0xFF;
+        }
+        for (int s = 0; s < stack.length; s++) {
+            stack[s] = state.stack()[s] & 0xFFFF;
+        }
+        System.arraycopy(state.display(), 0, display, 0, HEIGHT);
+
+        pc = state.pc() & 0xFFFF;
+        index = state.index() & 0xFFFF;
+        sp = state.sp();
+        delay = state.delay() & 0xFF;
+        sound = state.sound() & 0xFF;
+        frameCycles = 0;
+        keys = 0;
+        random = RANDOM_SEED;
+        halted = false;
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+
+    public boolean isPixelOn(int x, int y) {
+        return (display[y] & (1L << (WIDTH - 1 - x))) != 0;
+    }
+
+    /**
+     * Copies the display into {@code rows}, one long per row with column 0 in the most significant bit.
+     */
+    public void copyDisplay(long[] rows) {
+        System.arraycopy(display, 0, rows, 0, HEIGHT);
+    }
+
+    public int litPixels() {
+        int lit = 0;
+        for (long row : display) {
+            lit += Long.bitCount(row);
+        }
+        return lit;
+    }
+}
@@ -0,0 +1,35 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+/**
+ * Machine state of a running ROM, everything the browser emulator needs to resume it.
+ *
+ * @param memory  the 4 KB address space, including the font and the ROM image
+ * @param v       registers V0 to VF, each 0-255
+ * @param index   the I register, 16 bits
+ * @param pc      program counter, 16 bits
+ * @param sp      stack pointer, 0-16
+ * @param stack   16 return addresses, 16 bits each
+ * @param delay   delay timer, 0-255
+ * @param sound   sound timer, 0-255
+ * @param display one long per row with column 0 in the most significant bit
+ */
+public record Chip8State(byte[] memory,
+                         int[] v,
+                         int index,
+                         int pc,
+                         int sp,
+                         int[] stack,
+                         int delay,
+                         int sound,
+                         long[] display) {
+
+    public Chip8State {
+        if (memory.length != 4096 || v.length != 16 || stack.length != 16
+                || display.length != Chip8Interpreter.HEIGHT) {
+            throw new IllegalArgumentException("Invalid save state: wrong memory, register, stack or display size.");
+        }
+        if (sp < 0 || sp > stack.length) {
+            throw new IllegalArgumentException("Invalid save state: stack pointer out of range.");
+        }
+    }
+}
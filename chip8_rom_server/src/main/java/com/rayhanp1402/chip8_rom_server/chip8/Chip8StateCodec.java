@@ -0,0 +1,219 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary save-state format. The state is first laid out as a fixed 4407-byte block:
+ * <pre>
+ *   0     4096  memory XOR the ROM's initial image (font at 0x050, ROM at 0x200, zeros elsewhere)
+ *   4096  256   display, 8 bytes per row, column 0 in the most significant bit of the first byte
+ *   4352  16    V0 to VF
+ *   4368  2     I, big-endian
+ *   4370  2     PC, big-endian
+ *   4372  1     SP
+ *   4373  32    stack, 16 big-endian u16
+ *   4405  1     delay timer
+ *   4406  1     sound timer
+ * </pre>
+ * Most of a running game's memory is still its initial image, so the XOR leaves the block almost all zeros.
+ * The encoded state is:
+ * <pre>
+ *   "C8S"   magic
+ *   u8      format version (1)
+ *   u32     CRC-32 of the ROM the memory is relative to, big-endian
+ *   runs    until the block is complete: varint count of zero bytes, varint count of literal bytes, the literals
+ * </pre>
+ * Varints are unsigned LEB128. A typical state is a few dozen bytes plus whatever is on screen.
+ * <p>
+ * The plain form is the same block with absolute memory, for clients that leave the encoding to the server.
+ */
+public final class Chip8StateCodec {
+    public static final int RAW_SIZE = 4407;
+    public static final int MAX_ENCODED_SIZE = RAW_SIZE + 64;
+
+    private static final byte[] MAGIC = {'C', '8', 'S'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4;
+    private static final int MEMORY_SIZE = 4096;
+    private static final int DISPLAY_OFFSET = MEMORY_SIZE;
+    private static final int REGISTERS_OFFSET = DISPLAY_OFFSET + Chip8Interpreter.HEIGHT * 8;
+
+    private Chip8StateCodec() {}
+
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC[0] && bytes[1] == MAGIC[1] && bytes[2] == MAGIC[2];
+    }
+
+    public static byte[] encode(Chip8State state, byte[] rom) {
+        byte[] raw = toRaw(state, rom);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.writeBytes(MAGIC);
+        out.write(FORMAT_VERSION);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc(rom)).array());
+
+        int position = 0;
+        while (position < raw.length) {
+            int zeros = position;
+            while (zeros < raw.length && raw[zeros] == 0) {
+                zeros++;
+            }
+            // Literals run until two zeros in a row, a single zero costs less inside a literal than a new run
+            int literals = zeros;
+            while (literals < raw.length
+                    && !(raw[literals] == 0 && (literals + 1 == raw.length || raw[literals + 1] == 0))) {
+                literals++;
+            }
+
+            writeVarint(out, zeros - position);
+            writeVarint(out, literals - zeros);
+            out.write(raw, zeros, literals - zeros);
+            position = literals;
+        }
+        return out.toByteArray();
+    }
+
+    public static Chip8State decode(byte[] encoded, byte[] rom) {
+        if (!isEncoded(encoded) || encoded.length > MAX_ENCODED_SIZE) {
+            throw new IllegalArgumentException("Invalid save state.");
+        }
+        if ((encoded[3] & 0xFF) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported save state version " + (encoded[3] & 0xFF) + ".");
+        }
+        if ((ByteBuffer.wrap(encoded, 4, 4).getInt() & 0xFFFFFFFFL) != crc(rom)) {
+            throw new IllegalArgumentException("Save state belongs to a different version of this ROM.");
+        }
+
+        byte[] raw = new byte[RAW_SIZE];
+        int[] cursor = {HEADER_SIZE};
+        int position = 0;
+        while (position < RAW_SIZE) {
+            int zeros = readVarint(encoded, cursor);
+            int literals = readVarint(encoded, cursor);
+            if (zeros > RAW_SIZE - position || literals > RAW_SIZE - position - zeros
+                    || literals > encoded.length - cursor[0]) {
+                throw new IllegalArgumentException("Invalid save state: runs exceed the state size.");
+            }
+            position += zeros;
+            System.arraycopy(encoded, cursor[0], raw, position, literals);
+            cursor[0] += literals;
+            position += literals;
+        }
+        if (cursor[0] != encoded.length) {
+            throw new IllegalArgumentException("Invalid save state: trailing bytes.");
+        }
+        return fromRaw(raw, rom);
+    }
+
+    /**
+     * The fixed-size block before run-length encoding, with memory relative to the ROM's initial image.
+     */
+    public static byte[] toRaw(Chip8State state, byte[] rom) {
+        return write(state, initialImage(rom));
+    }
+
+    public static Chip8State fromRaw(byte[] raw, byte[] rom) {
+        return read(raw, initialImage(rom));
+    }
+
+    public static byte[] toPlain(Chip8State state) {
+        return write(state, new byte[MEMORY_SIZE]);
+    }
+
+    public static Chip8State fromPlain(byte[] plain) {
+        return read(plain, new byte[MEMORY_SIZE]);
+    }
+
+    private static byte[] write(Chip8State state, byte[] image) {
+        byte[] raw = new byte[RAW_SIZE];
+        for (int i = 0; i < MEMORY_SIZE; i++) {
+            raw[i] = (byte) (state.memory()[i] ^ image[i]);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(raw, DISPLAY_OFFSET, RAW_SIZE - DISPLAY_OFFSET);
+        for (long row : state.display()) {
+            buffer.putLong(row);
+        }
+        for (int register : state.v()) {
+            buffer.put((byte) register);
+        }
+        buffer.putShort((short) state.index());
+        buffer.putShort((short) state.pc());
+        buffer.put((byte) state.sp());
+        for (int address : state.stack()) {
+            buffer.putShort((short) address);
+        }
+        buffer.put((byte) state.delay());
+        buffer.put((byte) state.sound());
+        return raw;
+    }
+
+    private static Chip8State read(byte[] raw, byte[] image) {
+        if (raw.length != RAW_SIZE) {
+            throw new IllegalArgumentException("Invalid save state: expected " + RAW_SIZE + " bytes.");
+        }
+
+        byte[] memory = image.clone();
+        for (int i = 0; i < MEMORY_SIZE; i++) {
+            memory[i] ^= raw[i];
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(raw, DISPLAY_OFFSET, RAW_SIZE - DISPLAY_OFFSET);
+        long[] display = new long[Chip8Interpreter.HEIGHT];
+        for (int row = 0; row < display.length; row++) {
+            display[row] = buffer.getLong();
+        }
+        int[] v = new int[16];
+        for (int r = 0; r < v.length; r++) {
+            v[r] = buffer.get() & 0xFF;
+        }
+        int index = buffer.getShort() & 0xFFFF;
+        int pc = buffer.getShort() & 0xFFFF;
+        int sp = buffer.get() & 0xFF;
+        int[] stack = new int[16];
+        for (int s = 0; s < stack.length; s++) {
+            stack[s] = buffer.getShort() & 0xFFFF;
+        }
+        int delay = buffer.get() & 0xFF;
+        int sound = buffer.get() & 0xFF;
+        return new Chip8State(memory, v, index, pc, sp, stack, delay, sound, display);
+    }
+
+    // Memory right after the browser emulator loads the ROM
+    private static byte[] initialImage(byte[] rom) {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(rom);
+        return interpreter.snapshot().memory();
+    }
+
+    private static long crc(byte[] rom) {
+        CRC32 crc = new CRC32();
+        crc.update(rom);
+        return crc.getValue();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; shift < 21; shift += 7) {
+            if (cursor[0] >= bytes.length) {
+                throw new IllegalArgumentException("Invalid save state: truncated.");
+            }
+            int b = bytes[cursor[0]++] & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid save state: run length too large.");
+    }
+}
@@ -0,0 +1,67 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Renders a preview of a ROM by running it headless for a fixed number of frames, with no keys pressed,
+ * and encoding the busiest frame as a 64x32 two-colour PNG in the browser emulator's colours.
+ */
+public final class Chip8Thumbnail {
+    // Five seconds of emulated time, enough for most ROMs to get past their title screen
+    public static final int FRAMES = 300;
+
+    // ON_COLOR and OFF_COLOR from screen.ts
+    private static final IndexColorModel COLORS = new IndexColorModel(1, 2,
+            new byte[]{0x00, 0x00}, new byte[]{0x00, (byte) 0xFF}, new byte[]{0x00, 0x33});
+
+    private Chip8Thumbnail() {}
+
+    public static byte[] render(byte[] rom) {
+        return toPng(run(new Chip8Interpreter(), rom));
+    }
+
+    /**
+     * Runs the ROM and returns the frame with the most lit pixels. Games often clear the screen between frames,
+     * so the last frame alone is frequently blank or half drawn.
+     */
+    public static long[] run(Chip8Interpreter interpreter, byte[] rom) {
+        long[] best = new long[Chip8Interpreter.HEIGHT];
+        int bestLit = -1;
+
+        interpreter.load(rom);
+        for (int frame = 0; frame < FRAMES && !interpreter.isHalted(); frame++) {
+            interpreter.run(Chip8Interpreter.CYCLES_PER_FRAME);
+
+            int lit = interpreter.litPixels();
+            if (lit > bestLit) {
+                bestLit = lit;
+                interpreter.copyDisplay(best);
+            }
+        }
+        return best;
+    }
+
+    public static byte[] toPng(long[] rows) {
+        BufferedImage image = new BufferedImage(Chip8Interpreter.WIDTH, Chip8Interpreter.HEIGHT,
+                BufferedImage.TYPE_BYTE_BINARY, COLORS);
+        WritableRaster raster = image.getRaster();
+        for (int y = 0; y < Chip8Interpreter.HEIGHT; y++) {
+            for (int x = 0; x < Chip8Interpreter.WIDTH; x++) {
+                raster.setSample(x, y, 0, (int) (rows[y] >>> (Chip8Interpreter.WIDTH - 1 - x)) & 1);
+            }
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(256);
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode ROM thumbnail", e);
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,192 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Binary format of keypad recordings: one 16-bit key mask per 60 Hz frame, bit k set while key k is held.
+ * Consecutive equal frames form a run, stored as the change from the previous run's mask plus its length:
+ * <pre>
+ *   varint h, h &amp; 1 == 0    one key toggled: key = (h &gt;&gt; 1) &amp; 0xF, frames = (h &gt;&gt; 5) + 1
+ *   varint h, h &amp; 1 == 1    any change: frames = (h &gt;&gt; 1) + 1, followed by the u16 XOR mask, big-endian
+ * </pre>
+ * Varints are unsigned LEB128. Pressing or releasing one key, by far the most common change, costs one byte for
+ * runs of up to 4 frames and two bytes up to 512, so a recording grows with the number of key changes rather
+ * than its length. The mask before the first run is 0, all keys up.
+ * <p>
+ * A recording is a header followed by the runs:
+ * <pre>
+ *   "C8R"   magic
+ *   u8      format version (1)
+ *   32      SHA-256 of the ROM the inputs were played on
+ * </pre>
+ * Runs never span chunks, so a chunk encoded against the last mask of the recording so far can be appended to it
+ * byte for byte.
+ */
+public final class InputRecordingCodec {
+    public static final int HEADER_SIZE = 3 + 1 + 32;
+
+    private static final byte[] MAGIC = {'C', '8', 'R'};
+    private static final int FORMAT_VERSION = 1;
+    // Runs longer than this are split, which keeps every varint within 32 bits
+    private static final int MAX_RUN = 1 << 26;
+
+    /**
+     * Frame count and final key mask of an encoded chunk.
+     */
+    public record Summary(long frames, int lastMask) {}
+
+    private InputRecordingCodec() {}
+
+    public static byte[] header(byte[] romHash) {
+        if (romHash.length != 32) {
+            throw new IllegalArgumentException("ROM hash must be a SHA-256 digest.");
+        }
+
+        byte[] header = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[3] = FORMAT_VERSION;
+        System.arraycopy(romHash, 0, header, 4, romHash.length);
+        return header;
+    }
+
+    /**
+     * Encodes frames[0..frameCount) as runs following a frame whose mask was previousMask.
+     */
+    public static byte[] encode(int[] frames, int frameCount, int previousMask) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        int mask = previousMask;
+        int frame = 0;
+        while (frame < frameCount) {
+            int next = frames[frame] & 0xFFFF;
+            int end = frame + 1;
+            while (end < frameCount && (frames[end] & 0xFFFF) == next && end - frame < MAX_RUN) {
+                end++;
+            }
+            writeRun(out, mask ^ next, end - frame);
+            mask = next;
+            frame = end;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes the plain form, one big-endian u16 mask per frame.
+     */
+    public static byte[] encodePlain(byte[] plain, int previousMask) {
+        if (plain.length % 2 != 0) {
+            throw new IllegalArgumentException("Invalid recording: plain frames are 2 bytes each.");
+        }
+
+        int[] frames = new int[plain.length / 2];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = (plain[2 * i] & 0xFF) << 8 | plain[2 * i + 1] & 0xFF;
+        }
+        return encode(frames, frames.length, previousMask);
+    }
+
+    /**
+     * Checks that a chunk is made of whole runs and returns its length and final mask without expanding it.
+     */
+    public static Summary scan(byte[] chunk, int previousMask) {
+        int[] cursor = {0};
+        long frames = 0;
+        int mask = previousMask;
+        while (cursor[0] < chunk.length) {
+            int header = readVarint(chunk, cursor);
+            mask ^= readChange(chunk, cursor, header);
+            frames += runLength(header);
+        }
+        return new Summary(frames, mask);
+    }
+
+    /**
+     * Expands a whole recording, header included, to one mask per frame.
+     */
+    public static int[] decode(byte[] recording, byte[] romHash) {
+        if (!isRecording(recording)) {
+            throw new IllegalArgumentException("Invalid recording.");
+        }
+        if ((recording[3] & 0xFF) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported recording version " + (recording[3] & 0xFF) + ".");
+        }
+        if (!Arrays.equals(recording, 4, HEADER_SIZE, romHash, 0, romHash.length)) {
+            throw new IllegalArgumentException("Recording belongs to a different version of this ROM.");
+        }
+
+        byte[] chunk = Arrays.copyOfRange(recording, HEADER_SIZE, recording.length);
+        long total = scan(chunk, 0).frames();
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Recording is too long to expand.");
+        }
+
+        int[] frames = new int[(int) total];
+        int[] cursor = {0};
+        int position = 0;
+        int mask = 0;
+        while (cursor[0] < chunk.length) {
+            int header = readVarint(chunk, cursor);
+            mask ^= readChange(chunk, cursor, header);
+            int length = runLength(header);
+            Arrays.fill(frames, position, position + length, mask);
+            position += length;
+        }
+        return frames;
+    }
+
+    public static boolean isRecording(byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC[0] && bytes[1] == MAGIC[1] && bytes[2] == MAGIC[2];
+    }
+
+    private static void writeRun(ByteArrayOutputStream out, int change, int length) {
+        if (Integer.bitCount(change) == 1) {
+            writeVarint(out, (length - 1) << 5 | Integer.numberOfTrailingZeros(change) << 1);
+        } else {
+            writeVarint(out, (length - 1) << 1 | 1);
+            out.write(change >>> 8);
+            out.write(change & 0xFF);
+        }
+    }
+
+    private static int readChange(byte[] chunk, int[] cursor, int header) {
+        if ((header & 1) == 0) {
+            return 1 << ((header >>> 1) & 0xF);
+        }
+        if (chunk.length - cursor[0] < 2) {
+            throw new IllegalArgumentException("Invalid recording: truncated.");
+        }
+        int change = (chunk[cursor[0]] & 0xFF) << 8 | chunk[cursor[0] + 1] & 0xFF;
+        cursor[0] += 2;
+        return change;
+    }
+
+    private static int runLength(int header) {
+        return ((header & 1) == 0 ? header >>> 5 : header >>> 1) + 1;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (cursor[0] >= bytes.length) {
+                throw new IllegalArgumentException("Invalid recording: truncated.");
+            }
+            int b = bytes[cursor[0]++] & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid recording: run length too large.");
+    }
+}
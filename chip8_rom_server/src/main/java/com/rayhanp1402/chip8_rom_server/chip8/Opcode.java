@@ -0,0 +1,113 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+/**
+ * The CHIP-8 instruction set, as implemented by the browser emulator. Each opcode is matched by a mask and
+ * a value, and carries the control flow the decoder follows when tracing reachable code.
+ */
+public enum Opcode {
+    CLS("00E0", 0xFFFF, 0x00E0, "CLS", Flow.NEXT, null),
+    RET("00EE", 0xFFFF, 0x00EE, "RET", Flow.STOP, null),
+    JP("1NNN", 0xF000, 0x1000, "JP 0x{NNN}", Flow.JUMP, null),
+    CALL("2NNN", 0xF000, 0x2000, "CALL 0x{NNN}", Flow.CALL, null),
+    SE_BYTE("3XNN", 0xF000, 0x3000, "SE V{X}, 0x{NN}", Flow.SKIP, null),
+    SNE_BYTE("4XNN", 0xF000, 0x4000, "SNE V{X}, 0x{NN}", Flow.SKIP, null),
+    SE_REGISTER("5XY0", 0xF00F, 0x5000, "SE V{X}, V{Y}", Flow.SKIP, null),
+    LD_BYTE("6XNN", 0xF000, 0x6000, "LD V{X}, 0x{NN}", Flow.NEXT, null),
+    ADD_BYTE("7XNN", 0xF000, 0x7000, "ADD V{X}, 0x{NN}", Flow.NEXT, null),
+    LD_REGISTER("8XY0", 0xF00F, 0x8000, "LD V{X}, V{Y}", Flow.NEXT, null),
+    OR("8XY1", 0xF00F, 0x8001, "OR V{X}, V{Y}", Flow.NEXT, Quirk.VF_RESET),
+    AND("8XY2", 0xF00F, 0x8002, "AND V{X}, V{Y}", Flow.NEXT, Quirk.VF_RESET),
+    XOR("8XY3", 0xF00F, 0x8003, "XOR V{X}, V{Y}", Flow.NEXT, Quirk.VF_RESET),
+    ADD_REGISTER("8XY4", 0xF00F, 0x8004, "ADD V{X}, V{Y}", Flow.NEXT, null),
+    SUB("8XY5", 0xF00F, 0x8005, "SUB V{X}, V{Y}", Flow.NEXT, null),
+    SHR("8XY6", 0xF00F, 0x8006, "SHR V{X}, V{Y}", Flow.NEXT, Quirk.SHIFT),
+    SUBN("8XY7", 0xF00F, 0x8007, "SUBN V{X}, V{Y}", Flow.NEXT, null),
+    SHL("8XYE", 0xF00F, 0x800E, "SHL V{X}, V{Y}", Flow.NEXT, Quirk.SHIFT),
+    SNE_REGISTER("9XY0", 0xF00F, 0x9000, "SNE V{X}, V{Y}", Flow.SKIP, null),
+    LD_I("ANNN", 0xF000, 0xA000, "LD I, 0x{NNN}", Flow.NEXT, null),
+    JP_V0("BNNN", 0xF000, 0xB000, "JP V0, 0x{NNN}", Flow.STOP, Quirk.JUMP),
+    RND("CXNN", 0xF000, 0xC000, "RND V{X}, 0x{NN}", Flow.NEXT, null),
+    DRW("DXYN", 0xF000, 0xD000, "DRW V{X}, V{Y}, 0x{N}", Flow.NEXT, null),
+    SKP("EX9E", 0xF0FF, 0xE09E, "SKP V{X}", Flow.SKIP, null),
+    SKNP("EXA1", 0xF0FF, 0xE0A1, "SKNP V{X}", Flow.SKIP, null),
+    LD_VX_DT("FX07", 0xF0FF, 0xF007, "LD V{X}, DT", Flow.NEXT, null),
+    LD_VX_K("FX0A", 0xF0FF, 0xF00A, "LD V{X}, K", Flow.NEXT, null),
+    LD_DT_VX("FX15", 0xF0FF, 0xF015, "LD DT, V{X}", Flow.NEXT, null),
+    LD_ST_VX("FX18", 0xF0FF, 0xF018, "LD ST, V{X}", Flow.NEXT, null),
+    ADD_I("FX1E", 0xF0FF, 0xF01E, "ADD I, V{X}", Flow.NEXT, null),
+    LD_F("FX29", 0xF0FF, 0xF029, "LD F, V{X}", Flow.NEXT, null),
+    LD_B("FX33", 0xF0FF, 0xF033, "LD B, V{X}", Flow.NEXT, null),
+    LD_I_VX("FX55", 0xF0FF, 0xF055, "LD [I], V{X}", Flow.NEXT, Quirk.LOAD_STORE),
+    LD_VX_I("FX65", 0xF0FF, 0xF065, "LD V{X}, [I]", Flow.NEXT, Quirk.LOAD_STORE);
+
+    /**
+     * Where execution may continue after an instruction.
+     */
+    public enum Flow {
+        // The next instruction
+        NEXT,
+        // The next instruction or the one after it
+        SKIP,
+        // NNN only
+        JUMP,
+        // NNN, and the next instruction once the subroutine returns
+        CALL,
+        // Nowhere that can be known without running the ROM
+        STOP
+    }
+
+    private static final Opcode[] VALUES = values();
+
+    private final String pattern;
+    private final int mask;
+    private final int value;
+    private final String template;
+    private final Flow flow;
+    private final Quirk quirk;
+
+    Opcode(String pattern, int mask, int value, String template, Flow flow, Quirk quirk) {
+        this.pattern = pattern;
+        this.mask = mask;
+        this.value = value;
+        this.template = template;
+        this.flow = flow;
+        this.quirk = quirk;
+    }
+
+    /**
+     * Returns the opcode matching a 16-bit instruction, or null if the instruction is not part of CHIP-8.
+     */
+    public static Opcode decode(int instruction) {
+        for (Opcode opcode : VALUES) {
+            if ((instruction & opcode.mask) == opcode.value) {
+                return opcode;
+            }
+        }
+        return null;
+    }
+
+    public String disassemble(int instruction) {
+        return template
+                .replace("{NNN}", hex(instruction & 0x0FFF, 3))
+                .replace("{NN}", hex(instruction & 0x00FF, 2))
+                .replace("{N}", hex(instruction & 0x000F, 1))
+                .replace("{X}", hex((instruction & 0x0F00) >> 8, 1))
+                .replace("{Y}", hex((instruction & 0x00F0) >> 4, 1));
+    }
+
+    private static String hex(int value, int digits) {
+        return String.format("%0" + digits + "X", value);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Flow getFlow() {
+        return flow;
+    }
+
+    public Quirk getQuirk() {
+        return quirk;
+    }
+}
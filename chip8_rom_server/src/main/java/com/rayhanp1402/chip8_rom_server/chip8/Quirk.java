@@ -0,0 +1,16 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+/**
+ * Behaviours that differ between CHIP-8 interpreters. A ROM is listed with a quirk when it reaches an
+ * instruction whose result depends on it, so the emulator knows which settings the ROM is sensitive to.
+ */
+public enum Quirk {
+    // 8XY6 and 8XYE shift VX in place (CHIP-48) or shift VY into VX (COSMAC VIP)
+    SHIFT,
+    // FX55 and FX65 leave I unchanged (CHIP-48) or advance it past the last register (COSMAC VIP)
+    LOAD_STORE,
+    // BNNN jumps to NNN + V0 (COSMAC VIP) or to XNN + VX (CHIP-48)
+    JUMP,
+    // 8XY1, 8XY2 and 8XY3 reset VF (COSMAC VIP) or leave it alone
+    VF_RESET
+}
@@ -0,0 +1,39 @@
+package com.rayhanp1402.chip8_rom_server.chip8;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static analysis of a CHIP-8 ROM, computed once when its content is first stored.
+ *
+ * @param sizeBytes        length of the ROM
+ * @param instructionCount number of reachable instructions
+ * @param reachableCode    base64 bitmap with bit {@code i} set when an instruction starts at {@code 0x200 + i}
+ *                         and is reachable from the entry point, least significant bit first
+ * @param opcodeHistogram  reachable instructions per opcode pattern, such as {@code 8XY4}
+ * @param quirks           interpreter quirks the ROM's reachable code depends on
+ * @param disassembly      one line per reachable instruction: address, raw opcode and mnemonic
+ * @param problems         reasons the ROM would fail in the emulator, empty for a valid ROM
+ */
+public record RomAnalysis(int sizeBytes,
+                          int instructionCount,
+                          String reachableCode,
+                          Map<String, Integer> opcodeHistogram,
+                          Set<Quirk> quirks,
+                          List<String> disassembly,
+                          List<String> problems) {
+
+    @JsonIgnore
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    public void requireValid() {
+        if (!isValid()) {
+            throw new IllegalArgumentException("Invalid CHIP-8 ROM: " + problems.get(0));
+        }
+    }
+}
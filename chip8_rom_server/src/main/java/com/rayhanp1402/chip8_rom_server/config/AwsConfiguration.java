@@ -1,16 +1,25 @@
 package com.rayhanp1402.chip8_rom_server.config;
 
+import com.rayhanp1402.chip8_rom_server.metrics.S3MetricsInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.time.Duration;
+
 @Configuration
+@ConditionalOnProperty(name = "rom.storage.backend", havingValue = "s3", matchIfMissing = true)
 public class AwsConfiguration {
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(S3MetricsInterceptor s3MetricsInterceptor) {
         return S3Client.builder()
                 .region(Region.of(System.getenv("AWS_REGION")))
                 .credentialsProvider(StaticCredentialsProvider.create(
@@ -19,6 +28,41 @@ public class AwsConfiguration {
                                 System.getenv("AWS_SECRET_ACCESS_KEY")
                         )
                 ))
+                .overrideConfiguration(configuration -> configuration.addExecutionInterceptor(s3MetricsInterceptor))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rom.storage.mode", havingValue = "async")
+    public S3AsyncClient s3AsyncClient(@Value("${rom.storage.async.max-concurrency:256}") int maxConcurrency,
+                                       @Value("${rom.storage.async.acquire-timeout:PT10S}") Duration acquireTimeout,
+                                       S3MetricsInterceptor s3MetricsInterceptor) {
+        return S3AsyncClient.builder()
+                .region(Region.of(System.getenv("AWS_REGION")))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(
+                                System.getenv("AWS_ACCESS_KEY_ID"),
+                                System.getenv("AWS_SECRET_ACCESS_KEY")
+                        )
+                ))
+                .httpClient(asyncHttpClient(maxConcurrency, acquireTimeout))
+                .overrideConfiguration(configuration -> configuration.addExecutionInterceptor(s3MetricsInterceptor))
+                .build();
+    }
+
+    /**
+     * Netty client sized for many small concurrent requests: ROM objects are a few KB,
+     * so connection reuse matters far more than throughput per connection.
+     */
+    public static SdkAsyncHttpClient asyncHttpClient(int maxConcurrency, Duration acquireTimeout) {
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcurrency)
+                .maxPendingConnectionAcquires(maxConcurrency * 8)
+                .connectionAcquisitionTimeout(acquireTimeout)
+                .connectionTimeout(Duration.ofSeconds(2))
+                .connectionMaxIdleTime(Duration.ofSeconds(60))
+                .tcpKeepAlive(true)
+                .useIdleConnectionReaper(true)
                 .build();
     }
 }
@@ -0,0 +1,111 @@
+package com.rayhanp1402.chip8_rom_server.config;
+
+import com.rayhanp1402.chip8_rom_server.datasource.BulkheadDataSource;
+import com.rayhanp1402.chip8_rom_server.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+@Configuration
+public class DataSourceConfiguration {
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    /**
+     * Wraps each connection pool in a bulkhead sized to the pool, so waiting happens in one fair queue per pool.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rom.db.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Routing and lazy proxies hand out connections of the pools, which have their own bulkheads
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource
+                        || bean instanceof AbstractRoutingDataSource) {
+                    return bean;
+                }
+
+                Duration maxWait = environment.getProperty("rom.db.bulkhead.max-wait", Duration.class,
+                        Duration.ofSeconds(30));
+                if (REPLICA_DATA_SOURCE.equals(beanName)) {
+                    int permits = environment.getProperty("rom.db.replica.bulkhead.permits", Integer.class,
+                            environment.getProperty("rom.db.replica.hikari.maximum-pool-size", Integer.class, 10));
+                    return new BulkheadDataSource(dataSource, ReplicaRoutingDataSource.REPLICA, permits, maxWait);
+                }
+
+                int permits = environment.getProperty("rom.db.bulkhead.permits", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                return new BulkheadDataSource(dataSource, ReplicaRoutingDataSource.PRIMARY, permits, maxWait);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceBulkheadMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> {
+            // The routing DataSource unwraps to the primary's bulkhead as well, bind each bulkhead once
+            Set<BulkheadDataSource> bulkheads = Collections.newSetFromMap(new IdentityHashMap<>());
+            dataSources.orderedStream().forEach(dataSource -> {
+                try {
+                    if (dataSource.isWrapperFor(BulkheadDataSource.class)) {
+                        bulkheads.add(dataSource.unwrap(BulkheadDataSource.class));
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not inspect the DataSource for a bulkhead", e);
+                }
+            });
+            bulkheads.forEach(bulkhead -> bulkhead.bindTo(registry));
+        };
+    }
+
+    /**
+     * Primary and read replica pools, each with its own Hikari settings (spring.datasource.hikari.* and
+     * rom.db.replica.hikari.*), behind a routing DataSource that only sends
+     * {@link ReplicaRoutingDataSource#onReplica} reads to the replica. Flyway, JPA and everything else keep using
+     * the primary.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "rom.db.replica.enabled", havingValue = "true")
+    public static class ReplicaConfiguration {
+        @Bean(PRIMARY_DATA_SOURCE)
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean(REPLICA_DATA_SOURCE)
+        @ConfigurationProperties("rom.db.replica.hikari")
+        public HikariDataSource replicaDataSource() {
+            return new HikariDataSource();
+        }
+
+        // The lazy proxy takes the physical connection at the first statement, once a transaction has started and
+        // its read-only flag is known, rather than when JPA begins the transaction
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                     @Qualifier(REPLICA_DATA_SOURCE) DataSource replica) {
+            return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+        }
+    }
+}
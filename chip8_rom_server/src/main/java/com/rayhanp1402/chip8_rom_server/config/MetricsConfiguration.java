@@ -0,0 +1,52 @@
+package com.rayhanp1402.chip8_rom_server.config;
+
+import com.rayhanp1402.chip8_rom_server.metrics.EndpointRepositoryTagsProvider;
+import com.rayhanp1402.chip8_rom_server.metrics.S3MetricsInterceptor;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+public class MetricsConfiguration {
+    @Bean
+    public S3MetricsInterceptor s3MetricsInterceptor(MeterRegistry registry) {
+        return new S3MetricsInterceptor(registry);
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        return new EndpointRepositoryTagsProvider();
+    }
+
+    /**
+     * Publishes a percentile histogram and SLO buckets for the request latency of the endpoints we hold to an SLO.
+     * Other endpoints keep the plain timer, which keeps the number of Prometheus series down.
+     */
+    @Bean
+    public MeterFilter requestSloMeterFilter(@Value("${rom.metrics.slo.uris:/rom/public/get,/rom/save}") Set<String> uris,
+                                             @Value("${rom.metrics.slo.buckets:50ms,100ms,250ms,500ms,1s}") List<Duration> buckets) {
+        double[] slos = buckets.stream().mapToDouble(Duration::toNanos).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals("http.server.requests") || !uris.contains(id.getTag("uri"))) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(slos)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.rayhanp1402.chip8_rom_server.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
@@ -7,6 +8,7 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
+@ConditionalOnProperty(name = "rom.storage.backend", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
     @Bean
     public S3Presigner s3Presigner() {
@@ -1,12 +1,22 @@
 package com.rayhanp1402.chip8_rom_server.config;
 
+import com.rayhanp1402.chip8_rom_server.security.CachingJwtDecoder;
+import com.rayhanp1402.chip8_rom_server.security.RateLimitFilter;
+import com.rayhanp1402.chip8_rom_server.security.TokenBucketRateLimiter;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -14,21 +24,32 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder customJwtDecoder,
+                                                   RateLimitFilter rateLimitFilter,
+                                                   @Value("${rom.actuator.admin-role:service_role}") String adminRole)
+            throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Probes and scraping stay open; every other endpoint can start scans or delete objects
+                        .requestMatchers(EndpointRequest.to("health", "info", "prometheus")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(adminRole)
                         .requestMatchers("/rom/public/**").permitAll()
                         .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.decoder(customJwtDecoder())));
+                        .jwt(jwt -> jwt
+                                .decoder(customJwtDecoder)
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter())))
+                // After the bearer token is read, so signed-in callers are limited by subject rather than IP
+                .addFilterAfter(rateLimitFilter, BearerTokenAuthenticationFilter.class);
 
         return http.build();
     }
@@ -55,9 +76,54 @@ public class SecurityConfiguration {
         return source;
     }
 
+    /**
+     * One token bucket limiter per group listed in rom.ratelimit.groups, each configured by
+     * rom.ratelimit.&lt;group&gt;.paths, .capacity and .refill-per-second. An empty list turns rate limiting off.
+     */
     @Bean
-    public JwtDecoder customJwtDecoder() {
-        String secret = System.getenv("SUPABASE_JWT_SECRET");
+    public RateLimitFilter rateLimitFilter(Environment environment) {
+        int maxKeys = environment.getProperty("rom.ratelimit.max-keys", Integer.class, 100_000);
+
+        List<RateLimitFilter.Group> groups = new ArrayList<>();
+        for (String name : environment.getProperty("rom.ratelimit.groups", String[].class, new String[0])) {
+            String prefix = "rom.ratelimit." + name + ".";
+            TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+                    environment.getRequiredProperty(prefix + "capacity", Long.class),
+                    environment.getRequiredProperty(prefix + "refill-per-second", Double.class),
+                    maxKeys);
+            groups.add(new RateLimitFilter.Group(name,
+                    List.of(environment.getRequiredProperty(prefix + "paths", String[].class)), limiter));
+        }
+        return new RateLimitFilter(groups);
+    }
+
+    // The filter runs inside the security chain only, Boot would otherwise also register it for every request
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Verified tokens are cached until they expire, the UI sends the same token on every call of a session
+    @Bean
+    public CachingJwtDecoder customJwtDecoder(@Value("${rom.jwt.cache.max-entries:10000}") int maxEntries) {
+        return new CachingJwtDecoder(jwtDecoder(System.getenv("SUPABASE_JWT_SECRET")), maxEntries);
+    }
+
+    // Supabase puts the caller's role in the "role" claim: "authenticated" for users, "service_role" for operators
+    public static JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName("role");
+        authorities.setAuthorityPrefix("ROLE_");
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return converter;
+    }
+
+    // Builds the decoder for a given secret, so it can be used outside the application context
+    public static JwtDecoder jwtDecoder(String secret) {
         SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
 
         return NimbusJwtDecoder.withSecretKey(key).build();
@@ -0,0 +1,123 @@
+package com.rayhanp1402.chip8_rom_server.controller;
+
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.chip8.InputRecordingCodec;
+import com.rayhanp1402.chip8_rom_server.service.InputRecordingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.UUID;
+
+/**
+ * Keypad recordings, see {@link InputRecordingCodec} for the binary format. A client starts a recording, appends
+ * chunks at the offset the previous append returned, and replays are downloaded whole or by byte range.
+ * {@code ownerId} names the owner of the ROM when it is someone else's public ROM and defaults to the user.
+ */
+@RestController
+@RequestMapping("/rom")
+public class InputRecordingController {
+    private final InputRecordingService inputRecordingService;
+
+    @Autowired
+    public InputRecordingController(InputRecordingService inputRecordingService) {
+        this.inputRecordingService = inputRecordingService;
+    }
+
+    @PostMapping("/personal/recording")
+    public ResponseEntity<?> startRecording(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                            @RequestParam String romName) {
+        try {
+            return ResponseEntity.ok(inputRecordingService.startRecording(userId, ownerOrUser(ownerId, userId),
+                    romName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Answers 409 Conflict when offset is not the recording's current frame count
+    @PutMapping(value = "/personal/recording/frames", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> appendChunk(@RequestParam UUID userId, @RequestParam UUID id, @RequestParam long offset,
+                                         @RequestParam(defaultValue = "encoded") String format,
+                                         @RequestBody byte[] chunk) {
+        if (chunk.length > InputRecordingService.MAX_CHUNK_BYTES) {
+            return ResponseEntity.badRequest().body("Chunk is too large.");
+        }
+
+        try {
+            return ResponseEntity.ok(inputRecordingService.appendChunk(userId, id, offset, chunk,
+                    "plain".equals(format)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/personal/recording/info")
+    public ResponseEntity<?> getInfo(@RequestParam UUID userId, @RequestParam UUID id) {
+        try {
+            return ResponseEntity.ok(inputRecordingService.getInfo(userId, id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/personal/recordings")
+    public ResponseEntity<?> listRecordings(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                            @RequestParam String romName) {
+        return ResponseEntity.ok(inputRecordingService.listRecordings(userId, ownerOrUser(ownerId, userId), romName));
+    }
+
+    @GetMapping("/personal/recording")
+    public ResponseEntity<?> getRecording(@RequestParam UUID userId, @RequestParam UUID id, WebRequest request) {
+        try {
+            return recordingResponse(inputRecordingService.getRecording(userId, id), request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/public/recording")
+    public ResponseEntity<?> getPublicRecording(@RequestParam UUID id, WebRequest request) {
+        try {
+            return recordingResponse(inputRecordingService.getPublicRecording(id), request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/personal/recording")
+    public ResponseEntity<?> deleteRecording(@RequestParam UUID userId, @RequestParam UUID id) {
+        try {
+            inputRecordingService.deleteRecording(userId, id);
+            return ResponseEntity.ok("Recording deleted.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static UUID ownerOrUser(UUID ownerId, UUID userId) {
+        return ownerId == null ? userId : ownerId;
+    }
+
+    // A Resource body makes Spring answer Range requests with 206 and only the requested bytes. Recordings grow,
+    // so caches revalidate against the ETag, which changes with every append.
+    private static ResponseEntity<Resource> recordingResponse(RomContent recording, WebRequest request) {
+        if (request.checkNotModified(recording.eTag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .cacheControl(recording.isPublic() ? CacheControl.noCache().cachePublic() : CacheControl.noCache())
+                .eTag(recording.eTag())
+                .body(new ByteArrayResource(recording.bytes()));
+    }
+}
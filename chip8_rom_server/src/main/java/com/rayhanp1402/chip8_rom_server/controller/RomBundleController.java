@@ -0,0 +1,139 @@
+package com.rayhanp1402.chip8_rom_server.controller;
+
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomBundle;
+import com.rayhanp1402.chip8_rom_server.service.RomBundleService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The whole public library in one download, see {@link RomBundleService} for the format.
+ * {@code /rom/public/bundle} always answers with the current bundle and must be revalidated;
+ * {@code /rom/public/bundle/{id}} names one bundle and can be cached forever by browsers and CDNs.
+ */
+@RestController
+@RequestMapping("/rom/public/bundle")
+public class RomBundleController {
+    private static final CacheControl CURRENT = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic()
+            .mustRevalidate();
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic()
+            .immutable();
+
+    private final RomBundleService romBundleService;
+
+    @Autowired
+    public RomBundleController(RomBundleService romBundleService) {
+        this.romBundleService = romBundleService;
+    }
+
+    @GetMapping
+    public void getBundle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(romBundleService.getPublicBundle(), CURRENT, request, response);
+    }
+
+    @GetMapping("/{id}")
+    public void getBundleById(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        PublicRomBundle bundle = romBundleService.getPublicBundle();
+        if (!bundle.id().equals(id)) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "This bundle is no longer current.");
+            return;
+        }
+        send(bundle, IMMUTABLE, request, response);
+    }
+
+    private static void send(PublicRomBundle bundle, CacheControl cacheControl, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.CONTENT_LOCATION, "/rom/public/bundle/" + bundle.id());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // The bundle is stored compressed; practically every client takes it as is
+        boolean gzip = acceptsGzip(request.getHeaders(HttpHeaders.ACCEPT_ENCODING));
+
+        // Answers 304 Not Modified when If-None-Match still matches the current bundle in this encoding
+        if (new ServletWebRequest(request, response).checkNotModified(gzip ? bundle.gzipETag() : bundle.eTag())) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            FileResponses.send(request, response, bundle.file(), bundle.size());
+            return;
+        }
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(bundle.file()))) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: listed as gzip (or its alias x-gzip) with a non-zero weight, or covered
+     * by a non-zero "*" when it is not listed itself. Codings with a malformed weight are ignored.
+     */
+    private static boolean acceptsGzip(Enumeration<String> headers) {
+        Double gzip = null;
+        Double any = null;
+        while (headers != null && headers.hasMoreElements()) {
+            for (String element : headers.nextElement().split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                    continue;
+                }
+
+                Double weight = weight(parts);
+                if (weight == null) {
+                    continue;
+                }
+                if (coding.equals("*")) {
+                    any = any == null ? weight : Math.max(any, weight);
+                } else {
+                    gzip = gzip == null ? weight : Math.max(gzip, weight);
+                }
+            }
+        }
+
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    // The q parameter of one coding, 1 when absent, null when it is not a number from 0 to 1
+    private static Double weight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() < 2 || Character.toLowerCase(parameter.charAt(0)) != 'q'
+                    || parameter.charAt(1) != '=') {
+                continue;
+            }
+            try {
+                double weight = Double.parseDouble(parameter.substring(2).trim());
+                return weight >= 0 && weight <= 1 ? weight : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return 1.0;
+    }
+}
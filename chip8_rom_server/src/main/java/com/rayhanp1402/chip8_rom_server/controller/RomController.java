@@ -1,47 +1,164 @@
 package com.rayhanp1402.chip8_rom_server.controller;
 
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.dto.PopularRom;
+import com.rayhanp1402.chip8_rom_server.dto.RomDeleteResult;
+import com.rayhanp1402.chip8_rom_server.dto.RomPage;
 import com.rayhanp1402.chip8_rom_server.dto.RomRequest;
+import com.rayhanp1402.chip8_rom_server.dto.RomUpload;
+import com.rayhanp1402.chip8_rom_server.dto.RomUploadResult;
 import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.service.RomPopularityService;
+import com.rayhanp1402.chip8_rom_server.service.RomSearchService;
 import com.rayhanp1402.chip8_rom_server.service.RomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/rom")
 public class RomController {
     private final RomService romService;
+    private final RomPopularityService romPopularityService;
+    private final RomSearchService romSearchService;
 
     @Autowired
-    public RomController(RomService romService) {
+    public RomController(RomService romService, RomPopularityService romPopularityService,
+                         RomSearchService romSearchService) {
         this.romService = romService;
+        this.romPopularityService = romPopularityService;
+        this.romSearchService = romSearchService;
     }
 
     @GetMapping("/public/list")
-    public List<Rom> publicList() {
-        return romService.getPublicRoms(true);
+    public ResponseEntity<byte[]> publicList(WebRequest request) {
+        PublicRomCatalog catalog = romService.getPublicCatalog();
+
+        // Answers 304 Not Modified when If-None-Match still matches the cached catalog
+        if (request.checkNotModified(catalog.eTag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.eTag())
+                .body(catalog.json());
+    }
+
+    @GetMapping("/public/page")
+    public ResponseEntity<?> publicPage(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "50") int size) {
+        try {
+            RomPage page = romService.getPublicRomPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Prefix and typo-tolerant matches on ROM names, best first
+    @GetMapping("/public/search")
+    public ResponseEntity<?> searchPublicRoms(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(romSearchService.search(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/public/get")
     public ResponseEntity<?> getPublicRomDownloadUrl(@RequestParam UUID userId, @RequestParam String romName) {
         try {
             URL downloadUrl = romService.getPublicRomDownloadUrl(userId, romName);
+            romPopularityService.recordDownload(new RomId(userId, romName));
             return ResponseEntity.ok(downloadUrl.toString());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    // Ranking is refreshed when download counts are flushed, see rom.popularity.flush-interval
+    @GetMapping("/public/popular")
+    public ResponseEntity<?> popularRoms(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<PopularRom> popular = romPopularityService.getPopular(limit);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic())
+                    .body(popular);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/public/content")
+    public ResponseEntity<?> getPublicRomContent(@RequestParam UUID userId, @RequestParam String romName,
+                                                 WebRequest request) {
+        try {
+            RomContent content = romService.getPublicRomContent(userId, romName);
+            return romContentResponse(content, CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic(), request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/public/analysis")
+    public ResponseEntity<?> getPublicRomAnalysis(@RequestParam UUID userId, @RequestParam String romName,
+                                                  WebRequest request) {
+        try {
+            RomContent analysis = romService.getPublicRomAnalysis(userId, romName);
+            return romContentResponse(analysis, MediaType.APPLICATION_JSON,
+                    CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic(), request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/public/thumbnail")
+    public ResponseEntity<?> getPublicRomThumbnail(@RequestParam UUID userId, @RequestParam String romName,
+                                                   WebRequest request) {
+        try {
+            RomContent thumbnail = romService.getPublicRomThumbnail(userId, romName);
+            return romContentResponse(thumbnail, MediaType.IMAGE_PNG,
+                    CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic(), request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/personal/list")
     public List<Rom> personalList(@RequestParam UUID userId) {
         return romService.getRomsByUserIdAndIsPublic(userId, false);
     }
 
+    @GetMapping("/personal/page")
+    public ResponseEntity<?> personalPage(@RequestParam UUID userId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "50") int size) {
+        try {
+            RomPage page = romService.getPersonalRomPage(userId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/personal/get")
     public ResponseEntity<?> getPersonalRomDownloadUrl(@RequestParam UUID userId, @RequestParam String romName) {
         try {
@@ -52,29 +169,119 @@ public class RomController {
         }
     }
 
-    @PostMapping("/save")
-    public ResponseEntity<?> saveRom(@RequestParam("userId") UUID userId,
-                                     @RequestParam("romName") String romName,
-                                     @RequestParam("file") MultipartFile file) {
+    @GetMapping("/personal/content")
+    public ResponseEntity<?> getPersonalRomContent(@RequestParam UUID userId, @RequestParam String romName,
+                                                   WebRequest request) {
         try {
-            romService.saveRom(userId, romName, false, file);
-            return ResponseEntity.ok("ROM saved successfully");
-        } catch (IllegalArgumentException e) {
+            RomContent content = romService.getPersonalRomContent(userId, romName);
+            return romContentResponse(content, CacheControl.noCache().cachePrivate(), request);
+        } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    @DeleteMapping("/delete")
-    public ResponseEntity<String> deleteRoms(@RequestBody List<RomRequest> romRequests) {
+    @GetMapping("/personal/analysis")
+    public ResponseEntity<?> getPersonalRomAnalysis(@RequestParam UUID userId, @RequestParam String romName,
+                                                    WebRequest request) {
         try {
-            for (RomRequest romRequest : romRequests) {
-                UUID userId = romRequest.getUserId();
-                String romName = romRequest.getRomName();
-                romService.deleteRom(userId, romName);
+            RomContent analysis = romService.getPersonalRomAnalysis(userId, romName);
+            return romContentResponse(analysis, MediaType.APPLICATION_JSON, CacheControl.noCache().cachePrivate(),
+                    request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/personal/thumbnail")
+    public ResponseEntity<?> getPersonalRomThumbnail(@RequestParam UUID userId, @RequestParam String romName,
+                                                     WebRequest request) {
+        try {
+            RomContent thumbnail = romService.getPersonalRomThumbnail(userId, romName);
+            return romContentResponse(thumbnail, MediaType.IMAGE_PNG, CacheControl.noCache().cachePrivate(),
+                    request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/save")
+    public CompletableFuture<ResponseEntity<?>> saveRom(@RequestParam("userId") UUID userId,
+                                                        @RequestParam("romName") String romName,
+                                                        @RequestParam("file") MultipartFile file) {
+        return romService.saveRomAsync(userId, romName, false, file)
+                .<ResponseEntity<?>>thenApply(rom -> ResponseEntity.ok("ROM saved successfully"))
+                .exceptionally(RomController::badRequestOrRethrow);
+    }
+
+    @PostMapping("/save/bulk")
+    public ResponseEntity<?> saveRoms(@RequestParam("userId") UUID userId,
+                                      @RequestParam(value = "files", required = false) List<MultipartFile> files,
+                                      @RequestParam(value = "archive", required = false) MultipartFile archive) {
+        try {
+            List<RomUpload> uploads = new ArrayList<>();
+            if (files != null) {
+                for (MultipartFile file : files) {
+                    uploads.add(new RomUpload(file.getOriginalFilename(), file.getBytes()));
+                }
+            }
+            if (archive != null) {
+                uploads.addAll(romService.readRomArchive(archive));
             }
-            return ResponseEntity.ok("ROMs deleted successfully.");
+
+            if (uploads.isEmpty()) {
+                return ResponseEntity.badRequest().body("No ROM files were provided.");
+            }
+
+            List<RomUploadResult> results = romService.saveRoms(userId, uploads, false);
+
+            boolean allSaved = results.stream()
+                    .allMatch(result -> result.getStatus() == RomUploadResult.Status.SAVED);
+            return ResponseEntity.status(allSaved ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(results);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Could not read the uploaded files.");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    @DeleteMapping("/delete")
+    public CompletableFuture<ResponseEntity<List<RomDeleteResult>>> deleteRoms(@RequestBody List<RomRequest> romRequests) {
+        List<RomId> romIds = romRequests.stream()
+                .map(romRequest -> new RomId(romRequest.getUserId(), romRequest.getRomName()))
+                .toList();
+
+        return romService.deleteRomsAsync(romIds).thenApply(results -> {
+            boolean allDeleted = results.stream()
+                    .allMatch(result -> result.getStatus() == RomDeleteResult.Status.DELETED);
+            return ResponseEntity.status(allDeleted ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(results);
+        });
+    }
+
+    private ResponseEntity<byte[]> romContentResponse(RomContent content, CacheControl cacheControl,
+                                                      WebRequest request) {
+        return romContentResponse(content, MediaType.APPLICATION_OCTET_STREAM, cacheControl, request);
+    }
+
+    private ResponseEntity<byte[]> romContentResponse(RomContent content, MediaType contentType,
+                                                      CacheControl cacheControl, WebRequest request) {
+        if (request.checkNotModified(content.eTag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .contentLength(content.size())
+                .cacheControl(cacheControl)
+                .eTag(content.eTag())
+                .body(content.bytes());
+    }
+
+    private static ResponseEntity<?> badRequestOrRethrow(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        }
+        throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
 }
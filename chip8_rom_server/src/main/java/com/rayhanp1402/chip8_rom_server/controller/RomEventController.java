@@ -0,0 +1,55 @@
+package com.rayhanp1402.chip8_rom_server.controller;
+
+import com.rayhanp1402.chip8_rom_server.event.RomEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Server-sent events for ROM list changes, see {@link RomEventBroadcaster}. Events are named {@code added},
+ * {@code deleted} or {@code resync}; the first two carry the ROM as JSON, the last asks the client to reload the list.
+ */
+@RestController
+@RequestMapping("/rom")
+public class RomEventController {
+    private final RomEventBroadcaster romEventBroadcaster;
+
+    @Autowired
+    public RomEventController(RomEventBroadcaster romEventBroadcaster) {
+        this.romEventBroadcaster = romEventBroadcaster;
+    }
+
+    @GetMapping("/public/events")
+    public ResponseEntity<SseEmitter> publicEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return stream(romEventBroadcaster.subscribePublic(lastEventId));
+    }
+
+    @GetMapping("/personal/events")
+    public ResponseEntity<SseEmitter> personalEvents(
+            @RequestParam UUID userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return stream(romEventBroadcaster.subscribeUser(userId, lastEventId));
+    }
+
+    private static ResponseEntity<SseEmitter> stream(SseEmitter emitter) {
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Keeps reverse proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+}
@@ -0,0 +1,53 @@
+package com.rayhanp1402.chip8_rom_server.controller;
+
+import com.rayhanp1402.chip8_rom_server.storage.LocalRomStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Serves the download URLs handed out by {@link LocalRomStorage}, in place of S3 presigned URLs.
+ */
+@RestController
+@ConditionalOnProperty(name = "rom.storage.backend", havingValue = "local")
+public class RomObjectController {
+    private final LocalRomStorage localRomStorage;
+
+    @Autowired
+    public RomObjectController(LocalRomStorage localRomStorage) {
+        this.localRomStorage = localRomStorage;
+    }
+
+    @GetMapping(LocalRomStorage.OBJECT_PATH)
+    public void getObject(@RequestParam String key, @RequestParam long expires, @RequestParam String signature,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!localRomStorage.isValidDownload(key, expires, signature)) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Download URL is invalid or has expired.");
+            return;
+        }
+
+        Path path;
+        long size;
+        try {
+            path = localRomStorage.path(key);
+            size = Files.size(path);
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "ROM not found.");
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        FileResponses.send(request, response, path, size);
+    }
+}
@@ -0,0 +1,88 @@
+package com.rayhanp1402.chip8_rom_server.controller;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8StateCodec;
+import com.rayhanp1402.chip8_rom_server.service.SaveStateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's save states, see {@link Chip8StateCodec} for the binary format. States are uploaded encoded or as the
+ * plain block and downloaded encoded unless {@code format=plain} is asked for. {@code ownerId} names the owner of
+ * the ROM when it is someone else's public ROM and defaults to the user.
+ */
+@RestController
+@RequestMapping("/rom/personal")
+public class SaveStateController {
+    private final SaveStateService saveStateService;
+
+    @Autowired
+    public SaveStateController(SaveStateService saveStateService) {
+        this.saveStateService = saveStateService;
+    }
+
+    @PutMapping(value = "/state", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> saveState(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                       @RequestParam String romName, @RequestParam int slot,
+                                       @RequestBody byte[] state) {
+        if (state.length > Chip8StateCodec.MAX_ENCODED_SIZE) {
+            return ResponseEntity.badRequest().body("Save state is too large.");
+        }
+
+        try {
+            return ResponseEntity.ok(saveStateService.saveState(userId, ownerOrUser(ownerId, userId), romName,
+                    slot, state));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/state")
+    public ResponseEntity<?> getState(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                      @RequestParam String romName, @RequestParam int slot,
+                                      @RequestParam(defaultValue = "encoded") String format) {
+        try {
+            UUID owner = ownerOrUser(ownerId, userId);
+            byte[] state = "plain".equals(format)
+                    ? saveStateService.getPlainState(userId, owner, romName, slot)
+                    : saveStateService.getState(userId, owner, romName, slot);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .cacheControl(CacheControl.noStore())
+                    .body(state);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/state")
+    public ResponseEntity<?> deleteState(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                         @RequestParam String romName, @RequestParam int slot) {
+        try {
+            saveStateService.deleteState(userId, ownerOrUser(ownerId, userId), romName, slot);
+            return ResponseEntity.ok("Save state deleted.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Slots of several ROMs in one request: ?userId=...&romName=a.ch8&romName=b.ch8
+    @GetMapping("/states")
+    public ResponseEntity<?> listSlots(@RequestParam UUID userId, @RequestParam(required = false) UUID ownerId,
+                                       @RequestParam List<String> romName) {
+        try {
+            return ResponseEntity.ok(saveStateService.listSlots(userId, ownerOrUser(ownerId, userId), romName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static UUID ownerOrUser(UUID ownerId, UUID userId) {
+        return ownerId == null ? userId : ownerId;
+    }
+}
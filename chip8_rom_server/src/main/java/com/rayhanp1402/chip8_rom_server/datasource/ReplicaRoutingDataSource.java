@@ -0,0 +1,53 @@
+package com.rayhanp1402.chip8_rom_server.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections to a read replica only inside {@link #onReplica}, everything else goes to the primary.
+ * Opting in per query keeps writes, and reads that must see them, on the primary without having to mark them.
+ * A read-write transaction always stays on the primary, even when it is started inside onReplica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> REPLICA_READS = ThreadLocal.withInitial(() -> false);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs query with connections taken from the replica. Without a replica configured, it simply runs the query.
+     */
+    public static <T> T onReplica(Supplier<T> query) {
+        boolean previous = REPLICA_READS.get();
+        REPLICA_READS.set(true);
+        try {
+            return query.get();
+        } finally {
+            REPLICA_READS.set(previous);
+        }
+    }
+
+    public static boolean isReplicaRead() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        return REPLICA_READS.get();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isReplicaRead() ? REPLICA : PRIMARY;
+    }
+}
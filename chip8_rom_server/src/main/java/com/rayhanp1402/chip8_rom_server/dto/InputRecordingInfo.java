@@ -0,0 +1,68 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class InputRecordingInfo {
+    private final UUID id;
+    private final UUID ownerId;
+    private final String romName;
+    private final String romHash;
+    private final long frames;
+    private final int lastMask;
+    private final int sizeBytes;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+
+    public InputRecordingInfo(UUID id, UUID ownerId, String romName, String romHash, long frames, int lastMask,
+                              int sizeBytes, Instant createdAt, Instant updatedAt) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.romName = romName;
+        this.romHash = romHash;
+        this.frames = frames;
+        this.lastMask = lastMask;
+        this.sizeBytes = sizeBytes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    // Owner of the ROM the recording was played on
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public String getRomHash() {
+        return romHash;
+    }
+
+    // Frames recorded so far, the offset the next chunk is appended at
+    public long getFrames() {
+        return frames;
+    }
+
+    // Key mask of the last frame, the one the next chunk is encoded against
+    public int getLastMask() {
+        return lastMask;
+    }
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.util.UUID;
+
+public class PopularRom {
+    private final UUID userId;
+    private final String romName;
+    private final long downloads;
+
+    public PopularRom(UUID userId, String romName, long downloads) {
+        this.userId = userId;
+        this.romName = romName;
+        this.downloads = downloads;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public long getDownloads() {
+        return downloads;
+    }
+}
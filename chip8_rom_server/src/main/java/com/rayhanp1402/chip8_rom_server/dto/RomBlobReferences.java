@@ -0,0 +1,14 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+/**
+ * Read-only projection of a rom_blobs row with the number of roms rows that actually point at it.
+ */
+public interface RomBlobReferences {
+    String getContentHash();
+
+    int getSizeBytes();
+
+    int getRefCount();
+
+    long getRomCount();
+}
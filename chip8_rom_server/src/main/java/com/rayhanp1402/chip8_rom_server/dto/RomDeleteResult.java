@@ -0,0 +1,40 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.util.UUID;
+
+public class RomDeleteResult {
+    public enum Status {
+        DELETED,
+        NOT_FOUND,
+        PUBLIC,
+        STORAGE_ERROR
+    }
+
+    private final UUID userId;
+    private final String romName;
+    private final Status status;
+    private final String message;
+
+    public RomDeleteResult(UUID userId, String romName, Status status, String message) {
+        this.userId = userId;
+        this.romName = romName;
+        this.status = status;
+        this.message = message;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
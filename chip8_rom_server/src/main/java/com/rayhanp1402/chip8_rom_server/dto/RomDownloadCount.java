@@ -0,0 +1,14 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a rom_downloads row.
+ */
+public interface RomDownloadCount {
+    UUID getUserId();
+
+    String getRomName();
+
+    long getDownloads();
+}
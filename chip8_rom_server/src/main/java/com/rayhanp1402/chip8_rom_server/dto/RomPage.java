@@ -0,0 +1,22 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.util.List;
+
+public class RomPage {
+    private final List<RomSummary> items;
+    private final String nextCursor;
+
+    public RomPage(List<RomSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RomSummary> getItems() {
+        return items;
+    }
+
+    // Null on the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,14 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a ROM row. Rows fetched through it are never attached to the persistence context.
+ */
+public interface RomSummary {
+    UUID getUserId();
+
+    String getRomName();
+
+    boolean getIsPublic();
+}
@@ -0,0 +1,19 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+public class RomUpload {
+    private final String romName;
+    private final byte[] content;
+
+    public RomUpload(String romName, byte[] content) {
+        this.romName = romName;
+        this.content = content;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+}
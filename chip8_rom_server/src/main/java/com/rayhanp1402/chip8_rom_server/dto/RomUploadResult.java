@@ -0,0 +1,33 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+public class RomUploadResult {
+    public enum Status {
+        SAVED,
+        INVALID,
+        ALREADY_EXISTS,
+        STORAGE_ERROR,
+        DATABASE_ERROR
+    }
+
+    private final String romName;
+    private final Status status;
+    private final String message;
+
+    public RomUploadResult(String romName, Status status, String message) {
+        this.romName = romName;
+        this.status = status;
+        this.message = message;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
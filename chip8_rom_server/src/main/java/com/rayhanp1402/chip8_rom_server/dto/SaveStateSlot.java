@@ -0,0 +1,33 @@
+package com.rayhanp1402.chip8_rom_server.dto;
+
+import java.time.Instant;
+
+public class SaveStateSlot {
+    private final String romName;
+    private final int slot;
+    private final int sizeBytes;
+    private final Instant updatedAt;
+
+    public SaveStateSlot(String romName, int slot, int sizeBytes, Instant updatedAt) {
+        this.romName = romName;
+        this.slot = slot;
+        this.sizeBytes = sizeBytes;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
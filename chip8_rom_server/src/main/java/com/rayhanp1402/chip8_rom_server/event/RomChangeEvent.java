@@ -0,0 +1,23 @@
+package com.rayhanp1402.chip8_rom_server.event;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+
+import java.util.UUID;
+
+/**
+ * Published by RomService once a ROM row has been inserted or deleted.
+ */
+public record RomChangeEvent(Type type, UUID userId, String romName, boolean isPublic) {
+    public enum Type {
+        ADDED,
+        DELETED
+    }
+
+    public static RomChangeEvent added(RomId romId, boolean isPublic) {
+        return new RomChangeEvent(Type.ADDED, romId.getUserId(), romId.getRomName(), isPublic);
+    }
+
+    public static RomChangeEvent deleted(RomId romId, boolean isPublic) {
+        return new RomChangeEvent(Type.DELETED, romId.getUserId(), romId.getRomName(), isPublic);
+    }
+}
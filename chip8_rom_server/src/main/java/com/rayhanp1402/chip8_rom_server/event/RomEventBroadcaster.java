@@ -0,0 +1,220 @@
+package com.rayhanp1402.chip8_rom_server.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Pushes {@link RomChangeEvent}s to server-sent event subscribers. Public changes go to the public channel,
+ * every change of a user's ROMs goes to that user's channel.
+ * <p>
+ * Each subscriber has a bounded queue drained by its own virtual thread, which is parked while the connection is
+ * idle, so publishing never blocks on a slow client. A subscriber whose queue overflows loses the events it has not
+ * read and gets a single {@code resync} event instead, telling it to reload the list once. A reconnecting client
+ * that missed events, going by its Last-Event-ID, gets the same.
+ * <p>
+ * Events are only those of this node; clients of other nodes see them on their next reload.
+ */
+@Component
+public class RomEventBroadcaster implements MeterBinder {
+    private static final String RESYNC = "resync";
+
+    private record Message(long id, String name, RomChangeEvent event) {}
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration heartbeat;
+
+    private final Set<Subscriber> publicSubscribers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Subscriber>> userSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    @Autowired
+    public RomEventBroadcaster(@Value("${rom.events.buffer-size:64}") int bufferSize,
+                               @Value("${rom.events.max-subscribers:5000}") int maxSubscribers,
+                               @Value("${rom.events.timeout:PT30M}") Duration timeout,
+                               @Value("${rom.events.heartbeat:PT30S}") Duration heartbeat) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Returns null when the node already serves the maximum number of subscribers.
+     */
+    public SseEmitter subscribePublic(String lastEventId) {
+        return subscribe(lastEventId, publicSubscribers::add, publicSubscribers::remove);
+    }
+
+    // A user's channel exists only while it has subscribers
+    public SseEmitter subscribeUser(UUID userId, String lastEventId) {
+        return subscribe(lastEventId,
+                subscriber -> userSubscribers.compute(userId, (id, channel) -> {
+                    Set<Subscriber> subscribed = channel != null ? channel : ConcurrentHashMap.newKeySet();
+                    subscribed.add(subscriber);
+                    return subscribed;
+                }),
+                subscriber -> userSubscribers.computeIfPresent(userId, (id, channel) -> {
+                    channel.remove(subscriber);
+                    return channel.isEmpty() ? null : channel;
+                }));
+    }
+
+    @EventListener
+    public void onRomChange(RomChangeEvent event) {
+        Message message = new Message(sequence.incrementAndGet(), event.type().name().toLowerCase(Locale.ROOT), event);
+
+        if (event.isPublic()) {
+            publicSubscribers.forEach(subscriber -> subscriber.offer(message));
+        }
+        Set<Subscriber> owners = userSubscribers.get(event.userId());
+        if (owners != null) {
+            owners.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    // Runs before the graceful shutdown of the web server, which would otherwise wait for every open stream
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        publicSubscribers.forEach(Subscriber::complete);
+        userSubscribers.values().forEach(channel -> channel.forEach(Subscriber::complete));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    private SseEmitter subscribe(String lastEventId, Consumer<Subscriber> register, Consumer<Subscriber> unregister) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, unregister);
+        register.accept(subscriber);
+
+        if (lastEventId != null && !lastEventId.equals(String.valueOf(sequence.get()))) {
+            subscriber.offer(new Message(sequence.get(), RESYNC, null));
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::complete);
+        emitter.onError(error -> subscriber.close());
+        subscriber.writer = Thread.ofVirtual().name("rom-events").start(subscriber::run);
+        return emitter;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Consumer<Subscriber> unregister;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread writer;
+
+        private Subscriber(SseEmitter emitter, Consumer<Subscriber> unregister) {
+            this.emitter = emitter;
+            this.unregister = unregister;
+        }
+
+        private void offer(Message message) {
+            if (!queue.offer(message)) {
+                // Too slow to keep up, the list has to be reloaded anyway
+                queue.clear();
+                queue.offer(new Message(message.id(), RESYNC, null));
+                resyncs.increment();
+            }
+        }
+
+        private void run() {
+            try {
+                // Opens the stream on the client and sets how long it waits before reconnecting
+                emitter.send(SseEmitter.event().comment("connected").reconnectTime(5000));
+
+                while (!closed.get()) {
+                    Message message = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                                .id(String.valueOf(message.id()))
+                                .name(message.name());
+                        emitter.send(message.event() != null
+                                ? event.data(message.event(), MediaType.APPLICATION_JSON)
+                                : event.data(""));
+                        sent.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closed while waiting
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                complete();
+            } finally {
+                close();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+            close();
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            unregister.accept(this);
+            subscribers.decrementAndGet();
+
+            Thread thread = writer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rom.events.subscribers", subscribers, AtomicInteger::get)
+                .register(registry);
+        FunctionCounter.builder("rom.events.sent", sent, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("rom.events.resyncs", resyncs, LongAdder::sum)
+                .register(registry);
+    }
+}
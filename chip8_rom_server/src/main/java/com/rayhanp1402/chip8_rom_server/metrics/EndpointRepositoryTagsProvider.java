@@ -0,0 +1,17 @@
+package com.rayhanp1402.chip8_rom_server.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+
+/**
+ * Boot's spring.data.repository.invocations tags (repository, method, state, exception) plus the endpoint
+ * that issued the query, so a slow endpoint can be traced to the queries it runs.
+ */
+public class EndpointRepositoryTagsProvider extends DefaultRepositoryTagsProvider {
+    @Override
+    public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+        return Tags.of(super.repositoryTags(invocation)).and("endpoint", RequestEndpoint.current());
+    }
+}
@@ -0,0 +1,25 @@
+package com.rayhanp1402.chip8_rom_server.metrics;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * The mapped pattern of the request being served on the current thread, used to tag downstream metrics
+ * with the endpoint that caused them. Work handed to other threads (bulk uploads, backfills) reports "none".
+ */
+public final class RequestEndpoint {
+    public static final String NONE = "none";
+
+    private RequestEndpoint() {}
+
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NONE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rayhanp1402.chip8_rom_server.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call made through an S3 client as rom.s3.requests, tagged by S3 operation, the endpoint that
+ * made the call, and outcome. The time covers the whole execution including retries, which is what the
+ * caller waits for. The endpoint is captured before execution since async calls complete on an I/O thread.
+ */
+public class S3MetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> START = new ExecutionAttribute<>("RomMetricsStart");
+    private static final ExecutionAttribute<String> ENDPOINT = new ExecutionAttribute<>("RomMetricsEndpoint");
+
+    private final MeterRegistry registry;
+
+    public S3MetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START, System.nanoTime());
+        executionAttributes.putAttribute(ENDPOINT, RequestEndpoint.current());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, "SUCCESS", null);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, "ERROR", context.exception());
+    }
+
+    private void record(ExecutionAttributes executionAttributes, String outcome, Throwable exception) {
+        Long start = executionAttributes.getAttribute(START);
+        if (start == null) {
+            return;
+        }
+
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Timer.builder("rom.s3.requests")
+                .description("S3 calls made by the ROM server, including retries")
+                .tag("operation", operation != null ? operation : "unknown")
+                .tag("endpoint", executionAttributes.getAttribute(ENDPOINT))
+                .tag("outcome", outcome)
+                .tag("exception", exception != null ? exception.getClass().getSimpleName() : "none")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,95 @@
+package com.rayhanp1402.chip8_rom_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "rom_input_recordings")
+public class InputRecording {
+    @Id
+    @Column(name = "id")
+    private UUID id;
+
+    // The player who recorded it
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    @Column(name = "rom_name", nullable = false)
+    private String romName;
+
+    @Column(name = "rom_hash", nullable = false, length = 64)
+    private String romHash;
+
+    @Column(name = "frames", nullable = false)
+    private long frames;
+
+    @Column(name = "last_mask", nullable = false)
+    private int lastMask;
+
+    @Column(name = "size_bytes", nullable = false)
+    private int sizeBytes;
+
+    // InputRecordingCodec runs, without the header
+    @Column(name = "runs", nullable = false)
+    private byte[] runs;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public InputRecording() {}
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public String getRomHash() {
+        return romHash;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public int getLastMask() {
+        return lastMask;
+    }
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public byte[] getRuns() {
+        return runs;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,19 +1,32 @@
 package com.rayhanp1402.chip8_rom_server.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "roms")
-public class Rom {
+public class Rom implements Persistable<RomId> {
     @EmbeddedId
     private RomId id;
 
     @Column(name = "is_public", nullable = false)
     private boolean isPublic;
 
+    // SHA-256 of the ROM bytes, null for ROMs stored before deduplication
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Lets save() insert new ROMs directly instead of merging, so a duplicate name fails on the primary key
+    @Transient
+    private boolean isNew = true;
+
     public Rom() {}
 
     public Rom(RomId id, boolean isPublic) {
@@ -21,6 +34,12 @@ public class Rom {
         this.isPublic = isPublic;
     }
 
+    public Rom(RomId id, boolean isPublic, String contentHash) {
+        this.id = id;
+        this.isPublic = isPublic;
+        this.contentHash = contentHash;
+    }
+
     public RomId getId() {
         return id;
     }
@@ -36,4 +55,26 @@ public class Rom {
     public void setPublic(boolean aPublic) {
         isPublic = aPublic;
     }
+
+    // Internal storage detail, not part of the ROM lists
+    @JsonIgnore
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
 }
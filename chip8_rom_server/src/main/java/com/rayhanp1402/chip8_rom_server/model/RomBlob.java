@@ -0,0 +1,56 @@
+package com.rayhanp1402.chip8_rom_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "rom_blobs")
+public class RomBlob {
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes", nullable = false)
+    private int sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // JSON of the content's RomAnalysis
+    @Column(name = "analysis")
+    private byte[] analysis;
+
+    // PNG preview rendered from the content
+    @Column(name = "thumbnail")
+    private byte[] thumbnail;
+
+    public RomBlob() {}
+
+    public RomBlob(String contentHash, int sizeBytes, int refCount) {
+        this.contentHash = contentHash;
+        this.sizeBytes = sizeBytes;
+        this.refCount = refCount;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public byte[] getAnalysis() {
+        return analysis;
+    }
+
+    public byte[] getThumbnail() {
+        return thumbnail;
+    }
+}
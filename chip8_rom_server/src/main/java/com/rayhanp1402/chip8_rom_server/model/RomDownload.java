@@ -0,0 +1,26 @@
+package com.rayhanp1402.chip8_rom_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "rom_downloads")
+public class RomDownload {
+    @EmbeddedId
+    private RomId id;
+
+    @Column(name = "downloads", nullable = false)
+    private long downloads;
+
+    public RomDownload() {}
+
+    public RomId getId() {
+        return id;
+    }
+
+    public long getDownloads() {
+        return downloads;
+    }
+}
@@ -54,6 +54,7 @@ public class RomId implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(userId, romName);
+        // Same value as Objects.hash(userId, romName) without allocating its varargs array on every lookup
+        return 31 * (31 + Objects.hashCode(userId)) + Objects.hashCode(romName);
     }
 }
@@ -0,0 +1,43 @@
+package com.rayhanp1402.chip8_rom_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "rom_save_states")
+public class SaveState {
+    @EmbeddedId
+    private SaveStateId id;
+
+    // Chip8StateCodec encoding
+    @Column(name = "state", nullable = false)
+    private byte[] state;
+
+    @Column(name = "size_bytes", nullable = false)
+    private int sizeBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public SaveState() {}
+
+    public SaveStateId getId() {
+        return id;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
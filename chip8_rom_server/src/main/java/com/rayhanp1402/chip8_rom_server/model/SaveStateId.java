@@ -0,0 +1,63 @@
+package com.rayhanp1402.chip8_rom_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class SaveStateId implements Serializable {
+    @Column(name = "player_id")
+    private UUID playerId;
+
+    @Column(name = "owner_id")
+    private UUID ownerId;
+
+    @Column(name = "rom_name")
+    private String romName;
+
+    @Column(name = "slot")
+    private int slot;
+
+    public SaveStateId() {}
+
+    public SaveStateId(UUID playerId, UUID ownerId, String romName, int slot) {
+        this.playerId = playerId;
+        this.ownerId = ownerId;
+        this.romName = romName;
+        this.slot = slot;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public String getRomName() {
+        return romName;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SaveStateId that = (SaveStateId) o;
+        return slot == that.slot && Objects.equals(playerId, that.playerId) && Objects.equals(ownerId, that.ownerId)
+                && Objects.equals(romName, that.romName);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(playerId, ownerId, romName) + slot;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rayhanp1402.chip8_rom_server.repository;
+
+import com.rayhanp1402.chip8_rom_server.dto.InputRecordingInfo;
+import com.rayhanp1402.chip8_rom_server.model.InputRecording;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InputRecordingRepository extends JpaRepository<InputRecording, UUID> {
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO rom_input_recordings (id, user_id, owner_id, rom_name, rom_hash)
+            VALUES (:id, :userId, :ownerId, :romName, :romHash)
+            """, nativeQuery = true)
+    void create(@Param("id") UUID id,
+                @Param("userId") UUID userId,
+                @Param("ownerId") UUID ownerId,
+                @Param("romName") String romName,
+                @Param("romHash") String romHash);
+
+    // Everything but the runs
+    @Query("""
+            SELECT new com.rayhanp1402.chip8_rom_server.dto.InputRecordingInfo(r.id, r.ownerId, r.romName, r.romHash,
+                r.frames, r.lastMask, r.sizeBytes, r.createdAt, r.updatedAt)
+            FROM InputRecording r
+            WHERE r.id = :id AND r.userId = :userId
+            """)
+    Optional<InputRecordingInfo> findInfo(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    @Query("""
+            SELECT new com.rayhanp1402.chip8_rom_server.dto.InputRecordingInfo(r.id, r.ownerId, r.romName, r.romHash,
+                r.frames, r.lastMask, r.sizeBytes, r.createdAt, r.updatedAt)
+            FROM InputRecording r
+            WHERE r.userId = :userId AND r.ownerId = :ownerId AND r.romName = :romName
+            ORDER BY r.createdAt DESC
+            """)
+    List<InputRecordingInfo> findInfos(@Param("userId") UUID userId,
+                                       @Param("ownerId") UUID ownerId,
+                                       @Param("romName") String romName,
+                                       Pageable pageable);
+
+    /**
+     * Appends a chunk in place. Only matches while the recording still ends at the frame and mask the chunk was
+     * checked against, so a retried or concurrent append cannot add the same frames twice. Returns the rows updated.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE rom_input_recordings
+            SET runs = runs || :chunk, frames = frames + :frames, last_mask = :lastMask,
+                size_bytes = size_bytes + :chunkSize, updated_at = NOW()
+            WHERE id = :id AND user_id = :userId AND frames = :offset AND last_mask = :previousMask
+                AND size_bytes + :chunkSize <= :maxBytes
+            """, nativeQuery = true)
+    int append(@Param("id") UUID id,
+               @Param("userId") UUID userId,
+               @Param("offset") long offset,
+               @Param("previousMask") int previousMask,
+               @Param("chunk") byte[] chunk,
+               @Param("chunkSize") int chunkSize,
+               @Param("frames") long frames,
+               @Param("lastMask") int lastMask,
+               @Param("maxBytes") int maxBytes);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM rom_input_recordings WHERE id = :id AND user_id = :userId", nativeQuery = true)
+    int deleteRecording(@Param("id") UUID id, @Param("userId") UUID userId);
+}
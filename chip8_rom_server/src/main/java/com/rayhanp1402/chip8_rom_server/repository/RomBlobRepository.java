@@ -0,0 +1,68 @@
+package com.rayhanp1402.chip8_rom_server.repository;
+
+import com.rayhanp1402.chip8_rom_server.dto.RomBlobReferences;
+import com.rayhanp1402.chip8_rom_server.model.RomBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RomBlobRepository extends JpaRepository<RomBlob, String> {
+    @Modifying
+    @Query(value = "UPDATE rom_blobs SET ref_count = ref_count + :count WHERE content_hash = :contentHash",
+            nativeQuery = true)
+    int addReferences(@Param("contentHash") String contentHash, @Param("count") int count);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO rom_blobs (content_hash, size_bytes, ref_count, analysis)
+            VALUES (:contentHash, :sizeBytes, :count, :analysis)
+            ON CONFLICT (content_hash) DO UPDATE SET ref_count = rom_blobs.ref_count + EXCLUDED.ref_count,
+                analysis = COALESCE(rom_blobs.analysis, EXCLUDED.analysis)
+            """, nativeQuery = true)
+    void upsertReferences(@Param("contentHash") String contentHash,
+                          @Param("sizeBytes") int sizeBytes,
+                          @Param("count") int count,
+                          @Param("analysis") byte[] analysis);
+
+    @Modifying
+    @Query(value = "UPDATE rom_blobs SET analysis = :analysis WHERE content_hash = :contentHash AND analysis IS NULL",
+            nativeQuery = true)
+    int saveAnalysisIfMissing(@Param("contentHash") String contentHash, @Param("analysis") byte[] analysis);
+
+    @Modifying
+    @Query(value = "UPDATE rom_blobs SET thumbnail = :thumbnail WHERE content_hash = :contentHash AND thumbnail IS NULL",
+            nativeQuery = true)
+    int saveThumbnailIfMissing(@Param("contentHash") String contentHash, @Param("thumbnail") byte[] thumbnail);
+
+    @Query(value = "SELECT content_hash FROM rom_blobs WHERE thumbnail IS NULL", nativeQuery = true)
+    List<String> findContentHashesWithoutThumbnail();
+
+    // Keyset page in content hash order, which for lower-case hex is byte order under any collation
+    @Query(value = """
+            SELECT b.content_hash AS "contentHash", b.size_bytes AS "sizeBytes", b.ref_count AS "refCount",
+                (SELECT COUNT(*) FROM roms r WHERE r.content_hash = b.content_hash) AS "romCount"
+            FROM rom_blobs b
+            WHERE b.content_hash > :afterContentHash
+            ORDER BY b.content_hash
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RomBlobReferences> findPageAfter(@Param("afterContentHash") String afterContentHash,
+                                          @Param("limit") int limit);
+
+    @Query(value = "SELECT ref_count FROM rom_blobs WHERE content_hash = :contentHash FOR UPDATE", nativeQuery = true)
+    Integer lockReferenceCount(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query(value = "UPDATE rom_blobs SET ref_count = ref_count - :count WHERE content_hash = :contentHash",
+            nativeQuery = true)
+    int removeReferences(@Param("contentHash") String contentHash, @Param("count") int count);
+
+    @Modifying
+    @Query(value = "DELETE FROM rom_blobs WHERE content_hash = :contentHash", nativeQuery = true)
+    int deleteBlob(@Param("contentHash") String contentHash);
+}
@@ -0,0 +1,49 @@
+package com.rayhanp1402.chip8_rom_server.repository;
+
+import com.rayhanp1402.chip8_rom_server.dto.RomDownloadCount;
+import com.rayhanp1402.chip8_rom_server.model.RomDownload;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Batches are JSON arrays of {"user_id", "rom_name", "downloads"} objects, so a whole flush is one statement
+ * with one bound parameter regardless of how many ROMs it covers.
+ */
+@Repository
+public interface RomDownloadRepository extends JpaRepository<RomDownload, RomId> {
+    // Counts for ROMs deleted since they were downloaded are dropped
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO rom_downloads (user_id, rom_name, downloads)
+            SELECT b.user_id, b.rom_name, b.downloads
+            FROM jsonb_to_recordset(CAST(:batch AS jsonb)) AS b(user_id UUID, rom_name TEXT, downloads BIGINT)
+            WHERE EXISTS (SELECT 1 FROM roms r WHERE r.user_id = b.user_id AND r.rom_name = b.rom_name)
+            ON CONFLICT (user_id, rom_name) DO UPDATE SET downloads = rom_downloads.downloads + EXCLUDED.downloads,
+                updated_at = NOW()
+            """, nativeQuery = true)
+    int addDownloads(@Param("batch") String batch);
+
+    @Query(value = """
+            SELECT d.user_id AS "userId", d.rom_name AS "romName", d.downloads AS "downloads"
+            FROM rom_downloads d
+            JOIN jsonb_to_recordset(CAST(:batch AS jsonb)) AS b(user_id UUID, rom_name TEXT)
+              ON d.user_id = b.user_id AND d.rom_name = b.rom_name
+            """, nativeQuery = true)
+    List<RomDownloadCount> findDownloads(@Param("batch") String batch);
+
+    @Query(value = """
+            SELECT d.user_id AS "userId", d.rom_name AS "romName", d.downloads AS "downloads"
+            FROM rom_downloads d
+            ORDER BY d.downloads DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RomDownloadCount> findTop(@Param("limit") int limit);
+}
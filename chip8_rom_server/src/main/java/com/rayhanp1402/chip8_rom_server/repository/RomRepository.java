@@ -1,8 +1,11 @@
 package com.rayhanp1402.chip8_rom_server.repository;
 
+import com.rayhanp1402.chip8_rom_server.dto.RomSummary;
 import com.rayhanp1402.chip8_rom_server.model.Rom;
 import com.rayhanp1402.chip8_rom_server.model.RomId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +18,54 @@ public interface RomRepository extends JpaRepository<Rom, RomId> {
     List<Rom> findByIsPublic(boolean isPublic);
 
     void deleteById(RomId romId);
+
+    // Keyset pages, all served by idx_roms_public_user_name (is_public, user_id, rom_name)
+
+    @Query(value = """
+            SELECT r.user_id AS "userId", r.rom_name AS "romName", r.is_public AS "isPublic"
+            FROM roms r
+            WHERE r.is_public = TRUE
+            ORDER BY r.user_id, r.rom_name
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RomSummary> findPublicPage(@Param("limit") int limit);
+
+    @Query(value = """
+            SELECT r.user_id AS "userId", r.rom_name AS "romName", r.is_public AS "isPublic"
+            FROM roms r
+            WHERE r.is_public = TRUE
+              AND (r.user_id, r.rom_name) > (:afterUserId, :afterRomName)
+            ORDER BY r.user_id, r.rom_name
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RomSummary> findPublicPageAfter(@Param("afterUserId") UUID afterUserId,
+                                         @Param("afterRomName") String afterRomName,
+                                         @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT r.user_id AS "userId", r.rom_name AS "romName", r.is_public AS "isPublic"
+            FROM roms r
+            WHERE r.is_public = :isPublic
+              AND r.user_id = :userId
+              AND r.rom_name > :afterRomName
+            ORDER BY r.rom_name
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RomSummary> findUserPageAfter(@Param("userId") UUID userId,
+                                       @Param("isPublic") boolean isPublic,
+                                       @Param("afterRomName") String afterRomName,
+                                       @Param("limit") int limit);
+
+    // Object keys of ROMs stored before deduplication, in byte order like a storage listing,
+    // served by idx_roms_legacy_object_key
+    @Query(value = """
+            SELECT (CAST(r.user_id AS TEXT) || '/' || r.rom_name) COLLATE "C" AS object_key
+            FROM roms r
+            WHERE r.content_hash IS NULL
+              AND (CAST(r.user_id AS TEXT) || '/' || r.rom_name) COLLATE "C" > :afterObjectKey
+            ORDER BY object_key
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findLegacyObjectKeysAfter(@Param("afterObjectKey") String afterObjectKey,
+                                           @Param("limit") int limit);
 }
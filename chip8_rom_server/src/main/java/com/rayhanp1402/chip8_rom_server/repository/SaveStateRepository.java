@@ -0,0 +1,56 @@
+package com.rayhanp1402.chip8_rom_server.repository;
+
+import com.rayhanp1402.chip8_rom_server.dto.SaveStateSlot;
+import com.rayhanp1402.chip8_rom_server.model.SaveState;
+import com.rayhanp1402.chip8_rom_server.model.SaveStateId;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SaveStateRepository extends JpaRepository<SaveState, SaveStateId> {
+    // One statement per autosave, no read before the write
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO rom_save_states (player_id, owner_id, rom_name, slot, state, size_bytes)
+            VALUES (:playerId, :ownerId, :romName, :slot, :state, :sizeBytes)
+            ON CONFLICT (player_id, owner_id, rom_name, slot) DO UPDATE SET state = EXCLUDED.state,
+                size_bytes = EXCLUDED.size_bytes, updated_at = NOW()
+            """, nativeQuery = true)
+    void upsert(@Param("playerId") UUID playerId,
+                @Param("ownerId") UUID ownerId,
+                @Param("romName") String romName,
+                @Param("slot") int slot,
+                @Param("state") byte[] state,
+                @Param("sizeBytes") int sizeBytes);
+
+    // Slot metadata for several ROMs at once, without loading the states
+    @Query("""
+            SELECT new com.rayhanp1402.chip8_rom_server.dto.SaveStateSlot(s.id.romName, s.id.slot, s.sizeBytes, s.updatedAt)
+            FROM SaveState s
+            WHERE s.id.playerId = :playerId AND s.id.ownerId = :ownerId AND s.id.romName IN :romNames
+            ORDER BY s.id.romName, s.id.slot
+            """)
+    List<SaveStateSlot> findSlots(@Param("playerId") UUID playerId,
+                                  @Param("ownerId") UUID ownerId,
+                                  @Param("romNames") Collection<String> romNames);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM rom_save_states
+            WHERE player_id = :playerId AND owner_id = :ownerId AND rom_name = :romName AND slot = :slot
+            """, nativeQuery = true)
+    int deleteSlot(@Param("playerId") UUID playerId,
+                   @Param("ownerId") UUID ownerId,
+                   @Param("romName") String romName,
+                   @Param("slot") int slot);
+}
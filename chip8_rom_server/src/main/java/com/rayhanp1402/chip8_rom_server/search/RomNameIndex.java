@@ -0,0 +1,249 @@
+package com.rayhanp1402.chip8_rom_server.search;
+
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable search index over ROM names. Names are normalized to lower-case words separated by single spaces,
+ * so "Space Invaders [David Winter].ch8" is indexed as "space invaders david winter ch8".
+ * <ul>
+ *   <li>Names are kept sorted, so names starting with the query are one binary search away.</li>
+ *   <li>Every name also has a posting list per bigram, with a space marking the start of each word. A query is
+ *       matched against the text from each word start with a bounded prefix edit distance, but only for names that
+ *       share enough bigrams with it: one edit changes at most three bigrams.</li>
+ * </ul>
+ * Results are name prefix matches first, then word prefix matches, then typo matches by distance.
+ */
+public final class RomNameIndex {
+    public static final RomNameIndex EMPTY = of(List.of());
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final Rom[] roms;
+    private final String[] names;
+    private final Map<Integer, int[]> postings;
+
+    private record Match(int index, int tier, int distance) {}
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::tier)
+            .thenComparingInt(Match::distance)
+            .thenComparingInt(Match::index);
+
+    private RomNameIndex(Rom[] roms, String[] names, Map<Integer, int[]> postings) {
+        this.roms = roms;
+        this.names = names;
+        this.postings = postings;
+    }
+
+    public static RomNameIndex of(List<Rom> roms) {
+        record Entry(Rom rom, String name) {}
+
+        List<Entry> entries = new ArrayList<>(roms.size());
+        for (Rom rom : roms) {
+            entries.add(new Entry(rom, normalize(rom.getId().getRomName())));
+        }
+        entries.sort(Comparator.comparing(Entry::name));
+
+        Rom[] sortedRoms = new Rom[entries.size()];
+        String[] names = new String[entries.size()];
+        Map<Integer, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            sortedRoms[i] = entries.get(i).rom();
+            names[i] = entries.get(i).name();
+            for (int bigram : bigrams(names[i])) {
+                lists.computeIfAbsent(bigram, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<Integer, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((bigram, list) -> postings.put(bigram, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new RomNameIndex(sortedRoms, names, postings);
+    }
+
+    public int size() {
+        return roms.length;
+    }
+
+    public List<Rom> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>();
+
+        // Names starting with the query are a contiguous, already ordered range
+        int prefixStart = lowerBound(q);
+        int prefixEnd = prefixStart;
+        while (prefixEnd < names.length && names[prefixEnd].startsWith(q)) {
+            matches.add(new Match(prefixEnd++, 0, 0));
+            if (matches.size() == limit) {
+                return toRoms(matches);
+            }
+        }
+
+        int maxEdits = q.length() < 4 ? 0 : q.length() < 8 ? 1 : 2;
+        int[] queryBigrams = bigrams(q);
+        int required = Math.max(1, queryBigrams.length - 3 * maxEdits);
+
+        // A name sharing `required` of the query's bigrams appears in at least one of the shortest
+        // (lists - required + 1) posting lists, so only those are scanned; the long ones are binary searched
+        int[][] lists = new int[queryBigrams.length][];
+        for (int b = 0; b < queryBigrams.length; b++) {
+            lists[b] = postings.getOrDefault(queryBigrams[b], NO_POSTINGS);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int scanned = lists.length - required + 1;
+
+        int total = 0;
+        for (int b = 0; b < scanned; b++) {
+            total += lists[b].length;
+        }
+        int[] candidates = new int[total];
+        int offset = 0;
+        for (int b = 0; b < scanned; b++) {
+            System.arraycopy(lists[b], 0, candidates, offset, lists[b].length);
+            offset += lists[b].length;
+        }
+        Arrays.sort(candidates);
+
+        for (int c = 0; c < candidates.length; ) {
+            int i = candidates[c];
+            int shared = 0;
+            while (c < candidates.length && candidates[c] == i) {
+                shared++;
+                c++;
+            }
+            if (i >= prefixStart && i < prefixEnd) {
+                continue;
+            }
+            for (int b = scanned; b < lists.length && shared < required; b++) {
+                if (Arrays.binarySearch(lists[b], i) >= 0) {
+                    shared++;
+                }
+            }
+            if (shared < required) {
+                continue;
+            }
+
+            int distance = wordPrefixDistance(q, names[i], maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(i, distance == 0 ? 1 : 2, distance));
+            }
+        }
+
+        matches.sort(RANKING);
+        return toRoms(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct bigrams of the text with a space in front, so the first bigram of every word starts with a space
+    private static int[] bigrams(String text) {
+        int[] bigrams = new int[text.length()];
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            bigrams[i] = previous << 16 | c;
+            previous = c;
+        }
+        return Arrays.stream(bigrams).distinct().toArray();
+    }
+
+    // Smallest edit distance between the query and the beginning of any word onwards, or maxEdits + 1
+    private static int wordPrefixDistance(String query, String name, int maxEdits) {
+        int best = maxEdits + 1;
+        for (int start = 0; start < name.length() && best > 0; start++) {
+            if (start == 0 || name.charAt(start - 1) == ' ') {
+                best = Math.min(best, prefixDistance(query, name, start, maxEdits));
+            }
+        }
+        return best;
+    }
+
+    // Edit distance between the query and the closest prefix of name[start..], counting a swap of two adjacent
+    // characters as one edit, or maxEdits + 1 once it is exceeded
+    private static int prefixDistance(String query, String name, int start, int maxEdits) {
+        int columns = Math.min(name.length() - start, query.length() + maxEdits);
+        int[] beforePrevious = new int[columns + 1];
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= columns; j++) {
+                char n = name.charAt(start + j - 1);
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + (q == n ? 0 : 1));
+                if (i > 1 && j > 1 && q == name.charAt(start + j - 2) && query.charAt(i - 2) == n) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        int distance = maxEdits + 1;
+        for (int value : previous) {
+            distance = Math.min(distance, value);
+        }
+        return distance;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<Rom> toRoms(List<Match> matches) {
+        List<Rom> result = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            result.add(roms[match.index()]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+package com.rayhanp1402.chip8_rom_server.security;
+
+import com.rayhanp1402.chip8_rom_server.cache.BoundedExpiringMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers tokens the delegate has already verified, so a session's repeated calls with the same bearer token
+ * skip parsing and the HMAC check. Entries are keyed by the token's SHA-256, so raw tokens are never kept,
+ * and are served only until the token's {@code exp}. Tokens without an expiry and failed decodes are not cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+    private record Entry(Jwt jwt, Instant expiresAt) {}
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    // Past maxEntries, expired tokens are dropped first, then those closest to expiry
+    private final BoundedExpiringMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+        this(delegate, maxEntries, Clock.systemUTC());
+    }
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.entries = new BoundedExpiringMap<>(maxEntries, entry -> entry.expiresAt().toEpochMilli(), clock::millis);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+            if (clock.instant().isBefore(entry.expiresAt())) {
+                hits.increment();
+                return entry.jwt();
+            }
+            entries.evict(key, entry);
+        }
+        misses.increment();
+
+        // Expired or otherwise invalid tokens fail here, exactly as without the cache
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null && clock.instant().isBefore(expiresAt)) {
+            entries.put(key, new Entry(jwt, expiresAt));
+        }
+        return jwt;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.jwt.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("rom.jwt.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("rom.jwt.cache.evictions", entries, BoundedExpiringMap::getEvictions)
+                .register(registry);
+        Gauge.builder("rom.jwt.cache.size", entries, BoundedExpiringMap::size)
+                .register(registry);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.rayhanp1402.chip8_rom_server.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits groups of ROM endpoints with a {@link TokenBucketRateLimiter} per group. Callers are keyed by the
+ * subject of their access token, or by client IP when they have none, so signed-in users behind one NAT do not
+ * share a budget. Runs in the security filter chain after the bearer token has been read; a request over its
+ * group's limit gets 429 Too Many Requests with Retry-After in whole seconds.
+ * <p>
+ * Paths are {@link PathPattern}s matched against the decoded path within the application, the way request mappings
+ * see it, so {@code /rom/public/%67et} or a {@code ;param} segment cannot slip past the limit of
+ * {@code /rom/public/get}. A pattern ending in {@code /**} also covers its base path. Requests outside every group
+ * pass.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+    /**
+     * A named endpoint group and its limiter.
+     */
+    public record Group(String name, List<String> paths, TokenBucketRateLimiter limiter) {}
+
+    private record Route(PathPattern pattern, Group group) {}
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Group> groups;
+    // Most specific first, so /rom/public/get wins over /rom/public/**
+    private final List<Route> routes = new ArrayList<>();
+
+    public RateLimitFilter(List<Group> groups) {
+        this.groups = List.copyOf(groups);
+        Set<PathPattern> patterns = new HashSet<>();
+        for (Group group : groups) {
+            for (String path : group.paths()) {
+                PathPattern pattern = PathPatternParser.defaultInstance.parse(path);
+                if (!patterns.add(pattern)) {
+                    throw new IllegalArgumentException("Path " + path + " is in more than one rate limit group.");
+                }
+                routes.add(new Route(pattern, group));
+            }
+        }
+        routes.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = groupOf(request);
+        long waitNanos = group == null ? 0 : group.limiter().tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Rounded up, a client that waits this long finds a token
+        long retryAfterSeconds = (waitNanos + SECOND_NANOS - 1) / SECOND_NANOS;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry in " + retryAfterSeconds + " s.");
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Group group : groups) {
+            TokenBucketRateLimiter limiter = group.limiter();
+            FunctionCounter.builder("rom.ratelimit.requests", limiter, TokenBucketRateLimiter::getAllowed)
+                    .tag("group", group.name())
+                    .tag("result", "allowed")
+                    .register(registry);
+            FunctionCounter.builder("rom.ratelimit.requests", limiter, TokenBucketRateLimiter::getRejected)
+                    .tag("group", group.name())
+                    .tag("result", "rejected")
+                    .register(registry);
+            FunctionCounter.builder("rom.ratelimit.evictions", limiter, TokenBucketRateLimiter::getEvictions)
+                    .tag("group", group.name())
+                    .register(registry);
+            Gauge.builder("rom.ratelimit.keys", limiter, TokenBucketRateLimiter::size)
+                    .tag("group", group.name())
+                    .register(registry);
+        }
+    }
+
+    private Group groupOf(HttpServletRequest request) {
+        // Parsed like DispatcherServlet does: without the context path, matched per decoded segment
+        PathContainer path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication()
+                : RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+        for (Route route : routes) {
+            if (route.pattern().matches(path)) {
+                return route.group();
+            }
+        }
+        return null;
+    }
+
+    // Subjects are UUIDs and cannot be mistaken for an address
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken token) {
+            return token.getName();
+        }
+        return request.getRemoteAddr();
+    }
+}
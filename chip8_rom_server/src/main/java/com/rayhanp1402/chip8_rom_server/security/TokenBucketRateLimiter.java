@@ -0,0 +1,95 @@
+package com.rayhanp1402.chip8_rom_server.security;
+
+import com.rayhanp1402.chip8_rom_server.cache.BoundedExpiringMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per key, one {@link AtomicLong} each. A bucket holds up to capacity tokens and regains one every
+ * 1/refillPerSecond; instead of a token count it stores the time at which it will be full again, so taking a token
+ * is a single compare-and-set with no lock and no refill bookkeeping.
+ * <p>
+ * A bucket that has filled up is the same as a new one, so the time it is full again serves as its deadline in a
+ * {@link BoundedExpiringMap}: past maxKeys, full buckets are dropped first, then those closest to full. A request
+ * racing with the removal of its bucket may get one token from the dropped bucket, never more.
+ */
+public class TokenBucketRateLimiter {
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final BoundedExpiringMap<String, AtomicLong> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, int maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, int maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive.");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = Math.multiplyExact(capacity, nanosPerToken);
+        this.nanoClock = nanoClock;
+        this.buckets = new BoundedExpiringMap<>(maxKeys, AtomicLong::get, nanoClock);
+    }
+
+    /**
+     * Takes a token from key's bucket.
+     *
+     * @return 0 when the request may go ahead, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // Starts full: full again one token after now
+            bucket = buckets.putIfAbsent(key, new AtomicLong(now + nanosPerToken));
+            if (bucket == null) {
+                allowed.increment();
+                return 0;
+            }
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getEvictions() {
+        return buckets.getEvictions();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.chip8.InputRecordingCodec;
+import com.rayhanp1402.chip8_rom_server.dto.InputRecordingInfo;
+import com.rayhanp1402.chip8_rom_server.model.InputRecording;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.repository.InputRecordingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keypad recordings of ROM sessions, stored in the {@link InputRecordingCodec} encoding. A recording is started
+ * by a player for one of their ROMs or someone's public ROM, which pins the SHA-256 of its current content, and
+ * grows by chunks the client appends while playing.
+ * Each chunk names the frame offset it starts at: a chunk whose offset is not the recording's current length is
+ * refused, so retrying an append that already went through is harmless.
+ */
+@Service
+public class InputRecordingService {
+    public static final int MAX_CHUNK_BYTES = 64 * 1024;
+    public static final int MAX_LISTED = 100;
+
+    private final InputRecordingRepository inputRecordingRepository;
+    private final RomService romService;
+    private final int maxBytes;
+
+    @Autowired
+    public InputRecordingService(InputRecordingRepository inputRecordingRepository, RomService romService,
+                                 @Value("${rom.recording.max-bytes:262144}") int maxBytes) {
+        this.inputRecordingRepository = inputRecordingRepository;
+        this.romService = romService;
+        this.maxBytes = maxBytes;
+    }
+
+    public InputRecordingInfo startRecording(UUID userId, UUID ownerId, String romName) {
+        String romHash = romHash(userId, ownerId, romName);
+        UUID id = UUID.randomUUID();
+        inputRecordingRepository.create(id, userId, ownerId, romName, romHash);
+
+        Instant now = Instant.now();
+        return new InputRecordingInfo(id, ownerId, romName, romHash, 0, 0, 0, now, now);
+    }
+
+    /**
+     * Appends frames at offset, either encoded against the recording's last mask or plain, one u16 per frame.
+     *
+     * @throws IllegalStateException when offset is not where the recording currently ends
+     */
+    public InputRecordingInfo appendChunk(UUID userId, UUID id, long offset, byte[] chunk, boolean plain) {
+        InputRecordingInfo info = inputRecordingRepository.findInfo(id, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Recording not found."));
+        if (offset != info.getFrames()) {
+            throw new IllegalStateException("Recording has " + info.getFrames() + " frames, append at that offset.");
+        }
+        if (!info.getRomHash().equals(romHash(userId, info.getOwnerId(), info.getRomName()))) {
+            throw new IllegalArgumentException("The ROM changed since this recording was started.");
+        }
+
+        byte[] encoded = plain ? InputRecordingCodec.encodePlain(chunk, info.getLastMask()) : chunk;
+        InputRecordingCodec.Summary summary = InputRecordingCodec.scan(encoded, info.getLastMask());
+        if (summary.frames() == 0) {
+            throw new IllegalArgumentException("Chunk has no frames.");
+        }
+        if (info.getSizeBytes() + encoded.length > maxBytes) {
+            throw new IllegalArgumentException("Recording is full.");
+        }
+
+        int updated = inputRecordingRepository.append(id, userId, offset, info.getLastMask(), encoded,
+                encoded.length, summary.frames(), summary.lastMask(), maxBytes);
+        if (updated == 0) {
+            // Another append got there between the read and the write
+            throw new IllegalStateException("Recording changed during the append, reload it and retry.");
+        }
+
+        return new InputRecordingInfo(id, info.getOwnerId(), info.getRomName(), info.getRomHash(),
+                offset + summary.frames(), summary.lastMask(), info.getSizeBytes() + encoded.length,
+                info.getCreatedAt(), Instant.now());
+    }
+
+    public InputRecordingInfo getInfo(UUID userId, UUID id) {
+        return inputRecordingRepository.findInfo(id, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Recording not found."));
+    }
+
+    public List<InputRecordingInfo> listRecordings(UUID userId, UUID ownerId, String romName) {
+        return inputRecordingRepository.findInfos(userId, ownerId, romName, PageRequest.of(0, MAX_LISTED));
+    }
+
+    public RomContent getRecording(UUID userId, UUID id) {
+        InputRecording recording = inputRecordingRepository.findById(id)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Recording not found."));
+        return toContent(recording, false);
+    }
+
+    // Shared replays: anyone may fetch a recording of a public ROM
+    public RomContent getPublicRecording(UUID id) {
+        InputRecording recording = inputRecordingRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Recording not found."));
+        romService.getPlayableRom(null, recording.getOwnerId(), recording.getRomName());
+        return toContent(recording, true);
+    }
+
+    public void deleteRecording(UUID userId, UUID id) {
+        if (inputRecordingRepository.deleteRecording(id, userId) == 0) {
+            throw new IllegalArgumentException("Recording not found.");
+        }
+    }
+
+    // Header plus runs; every append adds at least one frame, so the frame count identifies the content
+    private static RomContent toContent(InputRecording recording, boolean isPublic) {
+        byte[] header = InputRecordingCodec.header(HexFormat.of().parseHex(recording.getRomHash()));
+        byte[] runs = recording.getRuns();
+
+        byte[] bytes = new byte[header.length + runs.length];
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        System.arraycopy(runs, 0, bytes, header.length, runs.length);
+        return new RomContent(bytes, "\"" + recording.getId() + "-" + recording.getFrames() + "\"", isPublic);
+    }
+
+    // Only ROMs stored before deduplication have no hash and are downloaded to compute it
+    private String romHash(UUID userId, UUID ownerId, String romName) {
+        Rom rom = romService.getPlayableRom(userId, ownerId, romName);
+        if (rom.getContentHash() != null) {
+            return rom.getContentHash();
+        }
+        return RomBlobService.sha256(romService.getPlayableRomContent(userId, ownerId, romName).bytes());
+    }
+}
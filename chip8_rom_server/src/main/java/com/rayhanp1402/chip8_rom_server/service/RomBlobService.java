@@ -0,0 +1,127 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.rayhanp1402.chip8_rom_server.model.RomBlob;
+import com.rayhanp1402.chip8_rom_server.repository.RomBlobRepository;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counting for content-addressed ROM objects. Identical ROM bytes are stored once under
+ * {@code blobs/<sha256>}, and the object is physically removed when the last ROM row referencing it is gone.
+ */
+@Service
+public class RomBlobService {
+    private static final String BLOB_PREFIX = "blobs/";
+
+    private final RomBlobRepository romBlobRepository;
+    private final RomStorage romStorage;
+
+    @Autowired
+    public RomBlobService(RomBlobRepository romBlobRepository, RomStorage romStorage) {
+        this.romBlobRepository = romBlobRepository;
+        this.romStorage = romStorage;
+    }
+
+    public static String objectKey(String contentHash) {
+        return BLOB_PREFIX + contentHash;
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    /**
+     * Adds references to an already stored blob. Returns false if the blob is unknown and must be uploaded first.
+     */
+    @Transactional
+    public boolean tryAddReferences(String contentHash, int count) {
+        return romBlobRepository.addReferences(contentHash, count) == 1;
+    }
+
+    /**
+     * Records references to a blob that has just been uploaded. Concurrent uploads of the same bytes
+     * write the same object, so whichever registers second simply adds to the count. The thumbnail is left empty
+     * and rendered on first request, keeping the render off the upload path.
+     * <p>
+     * Returns true if the row may have been inserted rather than added to. The object can then be missing: another
+     * upload of the same bytes may have registered first and had its last reference released after this upload's
+     * put, which deletes the object. Once this returns, the caller's references keep the row and the object alive,
+     * so the caller checks the object and puts it again if needed.
+     */
+    @Transactional
+    public boolean registerBlob(String contentHash, int sizeBytes, int count, byte[] analysis) {
+        if (romBlobRepository.addReferences(contentHash, count) == 1) {
+            return false;
+        }
+        romBlobRepository.upsertReferences(contentHash, sizeBytes, count, analysis);
+        return true;
+    }
+
+    public Optional<byte[]> getAnalysis(String contentHash) {
+        return romBlobRepository.findById(contentHash).map(RomBlob::getAnalysis);
+    }
+
+    // For blobs stored before analysis existed
+    @Transactional
+    public void saveAnalysis(String contentHash, byte[] analysis) {
+        romBlobRepository.saveAnalysisIfMissing(contentHash, analysis);
+    }
+
+    public Optional<byte[]> getThumbnail(String contentHash) {
+        return romBlobRepository.findById(contentHash).map(RomBlob::getThumbnail);
+    }
+
+    // Fills a thumbnail rendered after the blob was registered
+    @Transactional
+    public void saveThumbnail(String contentHash, byte[] thumbnail) {
+        romBlobRepository.saveThumbnailIfMissing(contentHash, thumbnail);
+    }
+
+    public List<String> findContentHashesWithoutThumbnail() {
+        return romBlobRepository.findContentHashesWithoutThumbnail();
+    }
+
+    /**
+     * Reads a blob's bytes from storage.
+     */
+    public byte[] readBlob(String contentHash) {
+        return romStorage.get(objectKey(contentHash));
+    }
+
+    /**
+     * Drops references and removes the object once nothing points at it. The row lock is held while the object
+     * is deleted so that a concurrent upload cannot add a reference to an object that is about to disappear.
+     * This is the only place a connection is held across storage I/O, and only when a blob's last reference goes.
+     */
+    @Transactional
+    public void releaseReferences(String contentHash, int count) {
+        Integer references = romBlobRepository.lockReferenceCount(contentHash);
+        if (references == null) {
+            return;
+        }
+
+        if (references > count) {
+            romBlobRepository.removeReferences(contentHash, count);
+            return;
+        }
+
+        romStorage.delete(objectKey(contentHash));
+        romBlobRepository.deleteBlob(contentHash);
+    }
+}
@@ -0,0 +1,270 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomBundle;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Decoder;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the public ROM bundle, the whole public library in one download. Uncompressed layout:
+ * <pre>
+ *   "C8RB"                 magic
+ *   u8                     format version (1)
+ *   u32                    index length, big-endian
+ *   index                  UTF-8 JSON array of {userId, romName, contentHash, offset, length, analysis}
+ *   data                   ROM bytes, each distinct content once, offsets relative to the start of data
+ * </pre>
+ * The bundle follows the public catalog version and is rebuilt on first request after it changes. ROM bytes and
+ * analyses are kept between builds by object key, so a rebuild only reads ROMs that are new to the bundle.
+ * <p>
+ * The bundle id is a hash of its bytes, so every node must build the same bytes from the same ROMs: the index
+ * follows the catalog's owner and name order, and an analysis not stored yet is computed from the ROM bytes.
+ */
+@Service
+public class RomBundleService {
+    private static final Logger log = LoggerFactory.getLogger(RomBundleService.class);
+    private static final byte[] MAGIC = {'C', '8', 'R', 'B'};
+    private static final int FORMAT_VERSION = 1;
+    private static final String BUNDLE_SUFFIX = ".c8b.gz";
+
+    private final RomService romService;
+    private final RomStorage romStorage;
+    private final RomBlobService romBlobService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    @Value("${rom.bundle.max-concurrency:16}")
+    private int loadConcurrency = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile PublicRomBundle bundle;
+    // Guarded by lock
+    private Map<String, BundleEntry> entries = Map.of();
+
+    private record BundleEntry(byte[] content, String analysis) {}
+
+    private record IndexEntry(UUID userId, String romName, String contentHash, int offset, int length,
+                              @JsonRawValue String analysis) {}
+
+    @Autowired
+    public RomBundleService(RomService romService, RomStorage romStorage, RomBlobService romBlobService,
+                            ObjectMapper objectMapper,
+                            @Value("${rom.bundle.dir:${java.io.tmpdir}/chip8-rom-bundles}") Path directory) {
+        this.romService = romService;
+        this.romStorage = romStorage;
+        this.romBlobService = romBlobService;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+    }
+
+    public PublicRomBundle getPublicBundle() {
+        PublicRomCatalog catalog = romService.getPublicCatalog();
+        PublicRomBundle current = bundle;
+        if (current != null && current.version() == catalog.version()) {
+            return current;
+        }
+
+        // Only one request rebuilds the bundle, the others wait and reuse its result
+        lock.lock();
+        try {
+            catalog = romService.getPublicCatalog();
+            current = bundle;
+            if (current != null && current.version() == catalog.version()) {
+                return current;
+            }
+
+            bundle = build(catalog, current);
+            return bundle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PublicRomBundle build(PublicRomCatalog catalog, PublicRomBundle previous) {
+        List<Rom> roms = catalog.roms();
+        Map<String, BundleEntry> loaded = load(roms);
+
+        List<IndexEntry> index = new ArrayList<>(roms.size());
+        Map<String, Integer> offsets = new HashMap<>();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (Rom rom : roms) {
+            String objectKey = RomService.objectKey(rom.getId(), rom.getContentHash());
+            BundleEntry entry = loaded.get(objectKey);
+            Integer offset = offsets.get(objectKey);
+            if (offset == null) {
+                offset = data.size();
+                offsets.put(objectKey, offset);
+                data.writeBytes(entry.content());
+            }
+            index.add(new IndexEntry(rom.getId().getUserId(), rom.getId().getRomName(), rom.getContentHash(),
+                    offset, entry.content().length, entry.analysis()));
+        }
+
+        PublicRomBundle built;
+        try {
+            built = write(catalog.version(), objectMapper.writeValueAsBytes(index), data, roms.size());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing public ROM bundle", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing public ROM bundle", e);
+        }
+
+        entries = loaded;
+        deleteOldBundles(built, previous);
+        log.info("Built public ROM bundle {} with {} ROMs, {} bytes", built.id(), built.romCount(), built.size());
+        return built;
+    }
+
+    /**
+     * Returns the content and analysis of every ROM, reusing the previous build's entries and reading the rest
+     * from storage concurrently.
+     */
+    private Map<String, BundleEntry> load(List<Rom> roms) {
+        Map<String, BundleEntry> loaded = new HashMap<>();
+        Map<String, Rom> missing = new LinkedHashMap<>();
+        for (Rom rom : roms) {
+            String objectKey = RomService.objectKey(rom.getId(), rom.getContentHash());
+            BundleEntry entry = entries.get(objectKey);
+            if (entry != null) {
+                loaded.put(objectKey, entry);
+            } else {
+                missing.putIfAbsent(objectKey, rom);
+            }
+        }
+
+        Map<String, Future<BundleEntry>> pending = new LinkedHashMap<>();
+        Semaphore permits = new Semaphore(Math.max(1, loadConcurrency));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, Rom> rom : missing.entrySet()) {
+                pending.put(rom.getKey(), executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return loadEntry(rom.getKey(), rom.getValue().getContentHash());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Map.Entry<String, Future<BundleEntry>> entry : pending.entrySet()) {
+                loaded.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Error loading ROMs for the public bundle", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading ROMs for the public bundle", e);
+        }
+        return loaded;
+    }
+
+    private BundleEntry loadEntry(String objectKey, String contentHash) {
+        byte[] content = romStorage.get(objectKey);
+        byte[] analysis = contentHash == null ? null : romBlobService.getAnalysis(contentHash).orElse(null);
+        if (analysis == null) {
+            // Same JSON the upload path stores, whether or not the analysis backfill has reached this ROM
+            analysis = analyze(content);
+            if (contentHash != null) {
+                romBlobService.saveAnalysis(contentHash, analysis);
+            }
+        }
+        return new BundleEntry(content, new String(analysis, StandardCharsets.UTF_8));
+    }
+
+    private byte[] analyze(byte[] content) {
+        try {
+            return objectMapper.writeValueAsBytes(Chip8Decoder.analyze(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ROM analysis", e);
+        }
+    }
+
+    private PublicRomBundle write(long version, byte[] index, ByteArrayOutputStream data, int romCount)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, ".bundle-", ".tmp");
+        try {
+            // The gzip header carries no timestamp, so equal bundles compress to equal bytes and ids
+            MessageDigest digest = RomBlobService.newDigest();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024), digest), 64 * 1024))) {
+                out.write(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeInt(index.length);
+                out.write(index);
+                data.writeTo(out);
+            }
+
+            String id = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            Path file = directory.resolve(id + BUNDLE_SUFFIX);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new PublicRomBundle(version, file, Files.size(file), id, romCount);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Keeps the previous bundle for responses that may still be about to send it
+    private void deleteOldBundles(PublicRomBundle current, PublicRomBundle previous) {
+        Set<Path> keep = new HashSet<>();
+        keep.add(current.file());
+        if (previous != null) {
+            keep.add(previous.file());
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + BUNDLE_SUFFIX)) {
+            for (Path file : files) {
+                if (!keep.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete old public ROM bundles in {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.dto.PopularRom;
+import com.rayhanp1402.chip8_rom_server.dto.RomDownloadCount;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.repository.RomDownloadRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Public download counts. A download only increments an in-memory {@link LongAdder} for its ROM; the counts are
+ * added to {@code rom_downloads} in one batched upsert per flush interval and once more on shutdown.
+ * The popular list is ranked in memory from the most downloaded ROMs this node knows the totals of.
+ */
+@Service
+public class RomPopularityService implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(RomPopularityService.class);
+    public static final int MAX_POPULAR = 100;
+
+    // Most downloaded first, ties in a stable order
+    private static final Comparator<PopularRom> RANKING = Comparator.comparingLong(PopularRom::getDownloads)
+            .reversed()
+            .thenComparing(PopularRom::getUserId)
+            .thenComparing(PopularRom::getRomName);
+
+    private final RomDownloadRepository romDownloadRepository;
+    private final ObjectMapper objectMapper;
+    private final int trackedRoms;
+
+    // Downloads not yet written to the database
+    private final Map<RomId, LongAdder> pending = new ConcurrentHashMap<>();
+    // Counters removed from pending at the last flush, read once more in case a download raced with the removal
+    private Map<RomId, LongAdder> retired = new HashMap<>();
+
+    // Database totals of the top trackedRoms ROMs, guarded by flushLock
+    private final Map<RomId, Long> totals = new HashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private boolean totalsLoaded;
+    private volatile List<PopularRom> ranking = List.of();
+
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    @Autowired
+    public RomPopularityService(RomDownloadRepository romDownloadRepository, ObjectMapper objectMapper,
+                                @Value("${rom.popularity.tracked:1000}") int trackedRoms) {
+        this.romDownloadRepository = romDownloadRepository;
+        this.objectMapper = objectMapper;
+        this.trackedRoms = Math.max(trackedRoms, MAX_POPULAR);
+    }
+
+    public void recordDownload(RomId romId) {
+        pending.computeIfAbsent(romId, id -> new LongAdder()).increment();
+        downloads.increment();
+    }
+
+    public List<PopularRom> getPopular(int limit) {
+        if (limit < 1 || limit > MAX_POPULAR) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_POPULAR + ".");
+        }
+
+        List<PopularRom> current = ranking;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${rom.popularity.flush-interval:PT30S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!totalsLoaded) {
+                loadTotals();
+            }
+
+            Map<RomId, Long> counts = drain();
+            if (!counts.isEmpty() && write(counts)) {
+                refreshTotals(counts);
+            }
+            rank();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+
+        long unsaved = pending.values().stream().mapToLong(LongAdder::sum).sum();
+        if (unsaved > 0) {
+            log.warn("{} ROM downloads could not be saved before shutdown", unsaved);
+        }
+    }
+
+    private void loadTotals() {
+        try {
+            for (RomDownloadCount row : romDownloadRepository.findTop(trackedRoms)) {
+                totals.put(new RomId(row.getUserId(), row.getRomName()), row.getDownloads());
+            }
+            totalsLoaded = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not load ROM download totals, retrying on the next flush", e);
+        }
+    }
+
+    private Map<RomId, Long> drain() {
+        Map<RomId, Long> counts = new HashMap<>();
+        retired.forEach((romId, counter) -> add(counts, romId, counter.sumThenReset()));
+
+        Map<RomId, LongAdder> idle = new HashMap<>();
+        for (Map.Entry<RomId, LongAdder> entry : pending.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                add(counts, entry.getKey(), count);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                // Not downloaded for a whole interval; a later download starts a new counter
+                idle.put(entry.getKey(), entry.getValue());
+            }
+        }
+        retired = idle;
+        return counts;
+    }
+
+    private static void add(Map<RomId, Long> counts, RomId romId, long count) {
+        if (count > 0) {
+            counts.merge(romId, count, Long::sum);
+        }
+    }
+
+    private boolean write(Map<RomId, Long> counts) {
+        try {
+            romDownloadRepository.addDownloads(toBatch(counts));
+            counts.values().forEach(flushed::add);
+            return true;
+        } catch (RuntimeException e) {
+            // Keep the counts for the next flush
+            counts.forEach((romId, count) -> pending.computeIfAbsent(romId, id -> new LongAdder()).add(count));
+            flushFailures.increment();
+            log.warn("Could not save {} ROM download counts, retrying on the next flush", counts.size(), e);
+            return false;
+        }
+    }
+
+    // Reads back the new totals of the ROMs just written, which also picks up other nodes' counts
+    private void refreshTotals(Map<RomId, Long> counts) {
+        try {
+            for (RomDownloadCount row : romDownloadRepository.findDownloads(toBatch(counts))) {
+                totals.put(new RomId(row.getUserId(), row.getRomName()), row.getDownloads());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read back ROM download totals", e);
+        }
+    }
+
+    // Keeps the trackedRoms largest totals with a bounded min-heap and publishes the top MAX_POPULAR
+    private void rank() {
+        PriorityQueue<PopularRom> top = new PriorityQueue<>(RANKING.reversed());
+        totals.forEach((romId, total) -> {
+            top.offer(new PopularRom(romId.getUserId(), romId.getRomName(), total));
+            if (top.size() > trackedRoms) {
+                top.poll();
+            }
+        });
+
+        List<PopularRom> kept = new ArrayList<>(top);
+        kept.sort(RANKING);
+
+        totals.clear();
+        for (PopularRom rom : kept) {
+            totals.put(new RomId(rom.getUserId(), rom.getRomName()), rom.getDownloads());
+        }
+        ranking = List.copyOf(kept.subList(0, Math.min(kept.size(), MAX_POPULAR)));
+    }
+
+    private String toBatch(Map<RomId, Long> counts) {
+        List<Map<String, Object>> rows = new ArrayList<>(counts.size());
+        counts.forEach((romId, count) -> rows.add(Map.of(
+                "user_id", romId.getUserId(),
+                "rom_name", romId.getRomName(),
+                "downloads", count)));
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize download counts", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.popularity.downloads", downloads, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("rom.popularity.flushed", flushed, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("rom.popularity.flush.failures", flushFailures, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("rom.popularity.pending", pending, Map::size)
+                .register(registry);
+    }
+}
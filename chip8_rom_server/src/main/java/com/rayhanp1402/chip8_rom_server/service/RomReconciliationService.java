@@ -0,0 +1,478 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.repository.RomBlobRepository;
+import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import com.rayhanp1402.chip8_rom_server.storage.StoredObject;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Compares what storage holds with what the database says it should hold. Saving and deleting ROMs touch storage
+ * and the database in separate steps, so a crash in between leaves an object nothing points at or a row whose
+ * object is gone.
+ * <p>
+ * Both sides are walked in key order and merge-joined, so memory does not grow with the number of keys: storage
+ * through its paged listing, the database through keyset pages of {@code rom_blobs} ({@code blobs/<sha256>}) and of
+ * ROMs stored before deduplication ({@code <userId>/<romName>}), merged into one ordered stream. Optionally every
+ * blob is downloaded on virtual threads and checked against its SHA-256.
+ * <p>
+ * Only orphaned objects are repaired: deleted when asked to, once they are older than the grace period, so an
+ * upload whose row is not committed yet is left alone, and only after their row is confirmed missing again.
+ * Everything else is reported: a missing object cannot be restored, corrupt content cannot be fixed, and a
+ * reference count cannot be corrected while uploads may hold references their rows do not show yet.
+ */
+@Service
+public class RomReconciliationService implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(RomReconciliationService.class);
+    private static final int MAX_SAMPLES = 100;
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final String BLOB_PREFIX = RomBlobService.objectKey("");
+    private static final Pattern BLOB_KEY = Pattern.compile("blobs/[0-9a-f]{64}");
+    private static final Pattern LEGACY_KEY = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}/.+");
+
+    public enum Finding {
+        // An object no row points at
+        ORPHAN,
+        // A row whose object does not exist
+        MISSING,
+        // Stored size or content does not match the blob's row
+        CORRUPT,
+        // rom_blobs.ref_count differs from the number of roms rows using the blob
+        REF_COUNT,
+        // An object that is not a ROM key, never touched
+        UNKNOWN
+    }
+
+    // One row of the merged database stream; contentHash is null for ROMs stored before deduplication
+    private record Expected(String key, String contentHash, int sizeBytes, int refCount, long romCount) {}
+
+    private final RomStorage romStorage;
+    private final RomBlobRepository romBlobRepository;
+    private final RomRepository romRepository;
+    private final Duration grace;
+    private final int pageSize;
+    private final int maxConcurrentChecks;
+    private final Clock clock;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private volatile Run last;
+
+    // Totals over all runs, for metrics
+    private final LongAdder storageScanned = new LongAdder();
+    private final LongAdder databaseScanned = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder repaired = new LongAdder();
+    private final Map<Finding, LongAdder> findings = new EnumMap<>(Finding.class);
+
+    @Autowired
+    public RomReconciliationService(RomStorage romStorage, RomBlobRepository romBlobRepository,
+                                    RomRepository romRepository,
+                                    @Value("${rom.reconcile.grace:PT1H}") Duration grace,
+                                    @Value("${rom.reconcile.page-size:1000}") int pageSize,
+                                    @Value("${rom.reconcile.max-concurrent-checks:32}") int maxConcurrentChecks) {
+        this(romStorage, romBlobRepository, romRepository, grace, pageSize, maxConcurrentChecks, Clock.systemUTC());
+    }
+
+    public RomReconciliationService(RomStorage romStorage, RomBlobRepository romBlobRepository,
+                                    RomRepository romRepository, Duration grace, int pageSize,
+                                    int maxConcurrentChecks, Clock clock) {
+        this.romStorage = romStorage;
+        this.romBlobRepository = romBlobRepository;
+        this.romRepository = romRepository;
+        this.grace = grace;
+        this.pageSize = pageSize;
+        this.maxConcurrentChecks = maxConcurrentChecks;
+        this.clock = clock;
+        for (Finding finding : Finding.values()) {
+            findings.put(finding, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts a run on a virtual thread and returns its status, or the status of the run already in progress.
+     */
+    public Map<String, Object> start(boolean repair, boolean verify) {
+        Run run = new Run(repair, verify, clock.instant());
+        if (!current.compareAndSet(null, run)) {
+            return status();
+        }
+
+        Thread.ofVirtual().name("rom-reconcile").start(() -> execute(run));
+        return run.status();
+    }
+
+    /**
+     * Runs in the calling thread and returns the final status.
+     */
+    public Map<String, Object> run(boolean repair, boolean verify) {
+        Run run = new Run(repair, verify, clock.instant());
+        if (!current.compareAndSet(null, run)) {
+            throw new IllegalStateException("A reconciliation is already running.");
+        }
+
+        execute(run);
+        return run.status();
+    }
+
+    public Map<String, Object> status() {
+        Run run = current.get();
+        if (run == null) {
+            run = last;
+        }
+        return run != null ? run.status() : Map.of("state", "idle");
+    }
+
+    public void cancel() {
+        Run run = current.get();
+        if (run != null) {
+            run.cancelled = true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+    }
+
+    private void execute(Run run) {
+        try {
+            reconcile(run);
+            run.state = run.cancelled ? "cancelled" : "finished";
+        } catch (RuntimeException e) {
+            log.warn("ROM storage reconciliation failed", e);
+            run.error = e.getMessage();
+            run.state = "failed";
+        } finally {
+            run.finishedAt = clock.instant();
+            last = run;
+            current.set(null);
+            log.info("ROM storage reconciliation {}: {} objects, {} keys", run.state, run.storageScanned.get(),
+                    run.databaseScanned.get());
+        }
+    }
+
+    private void reconcile(Run run) {
+        Instant orphanCutoff = run.startedAt.minus(grace);
+        List<String> orphans = new ArrayList<>();
+        Semaphore checks = new Semaphore(maxConcurrentChecks);
+
+        try (Stream<StoredObject> listing = romStorage.list();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Iterator<StoredObject> objects = listing.iterator();
+            Iterator<Expected> expected = merge(
+                    pages((after, limit) -> romBlobRepository.findPageAfter(after, limit).stream()
+                            .map(blob -> new Expected(RomBlobService.objectKey(blob.getContentHash()),
+                                    blob.getContentHash(), blob.getSizeBytes(), blob.getRefCount(),
+                                    blob.getRomCount()))
+                            .toList(), Expected::contentHash),
+                    pages((after, limit) -> romRepository.findLegacyObjectKeysAfter(after, limit).stream()
+                            .map(key -> new Expected(key, null, 0, 0, 1))
+                            .toList(), Expected::key));
+
+            StoredObject object = poll(objects);
+            Expected row = poll(expected);
+            while ((object != null || row != null) && !run.cancelled) {
+                int order = object == null ? 1
+                        : row == null ? -1
+                        : RomStorage.KEY_ORDER.compare(object.key(), row.key());
+
+                if (order < 0) {
+                    run.scannedObject();
+                    if (!BLOB_KEY.matcher(object.key()).matches() && !LEGACY_KEY.matcher(object.key()).matches()) {
+                        run.report(Finding.UNKNOWN, object.key());
+                    } else {
+                        run.report(Finding.ORPHAN, object.key());
+                        if (run.repair && object.lastModified().isBefore(orphanCutoff)) {
+                            orphans.add(object.key());
+                            if (orphans.size() == MAX_KEYS_PER_DELETE) {
+                                deleteOrphans(run, orphans);
+                            }
+                        }
+                    }
+                    object = poll(objects);
+                    continue;
+                }
+
+                run.scannedKey();
+                if (row.contentHash() != null && row.refCount() != row.romCount()) {
+                    run.report(Finding.REF_COUNT, row.key() + " has ref_count " + row.refCount() + " but "
+                            + row.romCount() + " ROMs");
+                }
+
+                if (order > 0) {
+                    run.report(Finding.MISSING, row.key());
+                    row = poll(expected);
+                    continue;
+                }
+
+                run.scannedObject();
+                if (row.contentHash() != null && object.size() != row.sizeBytes()) {
+                    run.report(Finding.CORRUPT, row.key() + " is " + object.size() + " bytes, expected "
+                            + row.sizeBytes());
+                } else if (run.verify && row.contentHash() != null) {
+                    String contentHash = row.contentHash();
+                    checks.acquireUninterruptibly();
+                    executor.submit(() -> {
+                        try {
+                            verify(run, contentHash);
+                        } finally {
+                            checks.release();
+                        }
+                    });
+                }
+                object = poll(objects);
+                row = poll(expected);
+            }
+
+            if (!orphans.isEmpty() && !run.cancelled) {
+                deleteOrphans(run, orphans);
+            }
+        }
+    }
+
+    private void verify(Run run, String contentHash) {
+        try {
+            byte[] content = romStorage.get(RomBlobService.objectKey(contentHash));
+            if (!RomBlobService.sha256(content).equals(contentHash)) {
+                run.report(Finding.CORRUPT, RomBlobService.objectKey(contentHash) + " does not match its SHA-256");
+            }
+            run.verified();
+        } catch (RuntimeException e) {
+            run.failedChecks.incrementAndGet();
+            log.warn("Could not verify blob {}", contentHash, e);
+        }
+    }
+
+    // Orphans are confirmed against the database once more right before they are deleted
+    private void deleteOrphans(Run run, List<String> orphans) {
+        List<String> confirmed = orphans.stream().filter(this::isUnreferenced).toList();
+        orphans.clear();
+        if (confirmed.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> failures = romStorage.deleteAll(confirmed);
+        failures.forEach((key, message) -> log.warn("Could not delete orphaned object {}: {}", key, message));
+        run.repaired(confirmed.size() - failures.size());
+    }
+
+    private boolean isUnreferenced(String key) {
+        if (key.startsWith(BLOB_PREFIX)) {
+            return !romBlobRepository.existsById(key.substring(BLOB_PREFIX.length()));
+        }
+        int slash = key.indexOf('/');
+        RomId romId = new RomId(UUID.fromString(key.substring(0, slash)), key.substring(slash + 1));
+        return romRepository.findById(romId).map(rom -> rom.getContentHash() != null).orElse(true);
+    }
+
+    /**
+     * Lazily fetches keyset pages: each page starts after the cursor of the last element of the previous one.
+     */
+    private <T> Iterator<T> pages(BiFunction<String, Integer, List<T>> fetch, Function<T, String> cursor) {
+        return new Iterator<>() {
+            private Iterator<T> page = Collections.emptyIterator();
+            private String after = "";
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !exhausted) {
+                    List<T> next = fetch.apply(after, pageSize);
+                    exhausted = next.size() < pageSize;
+                    if (!next.isEmpty()) {
+                        after = cursor.apply(next.get(next.size() - 1));
+                    }
+                    page = next.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    // Merges two streams that are each in key order
+    private static Iterator<Expected> merge(Iterator<Expected> first, Iterator<Expected> second) {
+        return new Iterator<>() {
+            private Expected a = poll(first);
+            private Expected b = poll(second);
+
+            @Override
+            public boolean hasNext() {
+                return a != null || b != null;
+            }
+
+            @Override
+            public Expected next() {
+                if (a == null && b == null) {
+                    throw new NoSuchElementException();
+                }
+                Expected result;
+                if (b == null || (a != null && RomStorage.KEY_ORDER.compare(a.key(), b.key()) <= 0)) {
+                    result = a;
+                    a = poll(first);
+                } else {
+                    result = b;
+                    b = poll(second);
+                }
+                return result;
+            }
+        };
+    }
+
+    private static <T> T poll(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Progress of one run, read by the status endpoint while the run is going. Counts are also added to the
+     * totals published as metrics.
+     */
+    private final class Run {
+        private final boolean repair;
+        private final boolean verify;
+        private final Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String state = "running";
+        private volatile String error;
+        private volatile boolean cancelled;
+
+        private final AtomicLong storageScanned = new AtomicLong();
+        private final AtomicLong databaseScanned = new AtomicLong();
+        private final AtomicLong verified = new AtomicLong();
+        private final AtomicLong failedChecks = new AtomicLong();
+        private final AtomicLong repaired = new AtomicLong();
+        private final Map<Finding, AtomicLong> counts = new EnumMap<>(Finding.class);
+        private final Map<Finding, List<String>> samples = new EnumMap<>(Finding.class);
+
+        private Run(boolean repair, boolean verify, Instant startedAt) {
+            this.repair = repair;
+            this.verify = verify;
+            this.startedAt = startedAt;
+            for (Finding finding : Finding.values()) {
+                counts.put(finding, new AtomicLong());
+                samples.put(finding, Collections.synchronizedList(new ArrayList<>()));
+            }
+        }
+
+        private void scannedObject() {
+            storageScanned.incrementAndGet();
+            RomReconciliationService.this.storageScanned.increment();
+        }
+
+        private void scannedKey() {
+            databaseScanned.incrementAndGet();
+            RomReconciliationService.this.databaseScanned.increment();
+        }
+
+        private void verified() {
+            verified.incrementAndGet();
+            RomReconciliationService.this.verified.increment();
+        }
+
+        private void repaired(long count) {
+            repaired.addAndGet(count);
+            RomReconciliationService.this.repaired.add(count);
+        }
+
+        private void report(Finding finding, String detail) {
+            counts.get(finding).incrementAndGet();
+            findings.get(finding).increment();
+            List<String> kept = samples.get(finding);
+            synchronized (kept) {
+                if (kept.size() < MAX_SAMPLES) {
+                    kept.add(detail);
+                }
+            }
+        }
+
+        private Map<String, Object> status() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", state);
+            status.put("repair", repair);
+            status.put("verify", verify);
+            status.put("startedAt", startedAt);
+            status.put("finishedAt", finishedAt);
+            status.put("storageObjects", storageScanned.get());
+            status.put("databaseKeys", databaseScanned.get());
+            status.put("verified", verified.get());
+            status.put("failedChecks", failedChecks.get());
+            status.put("repaired", repaired.get());
+
+            Map<String, Object> found = new LinkedHashMap<>();
+            for (Finding finding : Finding.values()) {
+                List<String> kept;
+                synchronized (samples.get(finding)) {
+                    kept = List.copyOf(samples.get(finding));
+                }
+                found.put(finding.name().toLowerCase(Locale.ROOT),
+                        Map.of("count", counts.get(finding).get(), "samples", kept));
+            }
+            status.put("findings", found);
+            if (error != null) {
+                status.put("error", error);
+            }
+            return status;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rom.reconcile.scanned", storageScanned, LongAdder::sum)
+                .tag("side", "storage")
+                .register(registry);
+        FunctionCounter.builder("rom.reconcile.scanned", databaseScanned, LongAdder::sum)
+                .tag("side", "database")
+                .register(registry);
+        FunctionCounter.builder("rom.reconcile.verified", verified, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("rom.reconcile.repaired", repaired, LongAdder::sum)
+                .register(registry);
+        findings.forEach((finding, count) -> FunctionCounter.builder("rom.reconcile.findings", count, LongAdder::sum)
+                .tag("kind", finding.name().toLowerCase(Locale.ROOT))
+                .register(registry));
+        Gauge.builder("rom.reconcile.running", current, run -> run.get() != null ? 1 : 0)
+                .register(registry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.search.RomNameIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Name search over public ROMs. The index follows the public catalog version like the bundle does, so saves that
+ * change the public list are searchable from the next request on, and a search never touches the database
+ * while the catalog is unchanged.
+ */
+@Service
+public class RomSearchService {
+    public static final int MAX_RESULTS = 100;
+
+    private record VersionedIndex(long version, RomNameIndex index) {}
+
+    private final RomService romService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile VersionedIndex current = new VersionedIndex(-1, RomNameIndex.EMPTY);
+
+    @Autowired
+    public RomSearchService(RomService romService) {
+        this.romService = romService;
+    }
+
+    public List<Rom> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty.");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS + ".");
+        }
+        return getIndex().search(query, limit);
+    }
+
+    private RomNameIndex getIndex() {
+        PublicRomCatalog catalog = romService.getPublicCatalog();
+        VersionedIndex indexed = current;
+        if (indexed.version() == catalog.version()) {
+            return indexed.index();
+        }
+
+        // Only one request rebuilds the index, the others wait and reuse its result
+        lock.lock();
+        try {
+            catalog = romService.getPublicCatalog();
+            indexed = current;
+            if (indexed.version() != catalog.version()) {
+                indexed = new VersionedIndex(catalog.version(), RomNameIndex.of(catalog.roms()));
+                current = indexed;
+            }
+            return indexed.index();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
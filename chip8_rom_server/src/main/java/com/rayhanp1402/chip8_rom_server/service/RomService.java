@@ -1,51 +1,252 @@
 package com.rayhanp1402.chip8_rom_server.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PresignedUrlCache;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomThumbnailCache;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Decoder;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Thumbnail;
+import com.rayhanp1402.chip8_rom_server.chip8.RomAnalysis;
+import com.rayhanp1402.chip8_rom_server.datasource.ReplicaRoutingDataSource;
+import com.rayhanp1402.chip8_rom_server.dto.RomDeleteResult;
+import com.rayhanp1402.chip8_rom_server.dto.RomPage;
+import com.rayhanp1402.chip8_rom_server.dto.RomSummary;
+import com.rayhanp1402.chip8_rom_server.dto.RomUpload;
+import com.rayhanp1402.chip8_rom_server.dto.RomUploadResult;
+import com.rayhanp1402.chip8_rom_server.event.RomChangeEvent;
 import com.rayhanp1402.chip8_rom_server.model.Rom;
 import com.rayhanp1402.chip8_rom_server.model.RomId;
 import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
-import jakarta.transaction.Transactional;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.*;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 public class RomService {
+    private static final Logger log = LoggerFactory.getLogger(RomService.class);
+    private static final Duration PRESIGNED_URL_DURATION = Duration.ofMinutes(10);
+    // S3 DeleteObjects accepts at most 1000 keys per call
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    // Limits for a single bulk upload, generous for CHIP-8 ROM packs but small enough to keep in memory
+    private static final int MAX_BULK_UPLOAD_FILES = 500;
+    private static final int MAX_BULK_UPLOAD_FILE_BYTES = Chip8Decoder.MAX_ROM_BYTES;
+    // A ROM must fit in memory between 0x200 and 0xFFF
+    private static final int MAX_ROM_FILE_BYTES = Chip8Decoder.MAX_ROM_BYTES;
+    private static final int MAX_PAGE_SIZE = 200;
+    // A cursor is the UUID string of the last row's owner followed by its ROM name
+    private static final int UUID_STRING_LENGTH = 36;
+    // Owners with a write inside the read-your-writes window that are remembered before old entries are dropped
+    private static final int MAX_RECENT_WRITERS = 10_000;
+
     private final RomRepository romRepository;
-    private final S3Client s3Client;
-    private final S3Presigner presigner;
+    private final RomStorage romStorage;
+    private final ObjectMapper objectMapper;
+    private final PresignedUrlCache presignedUrlCache;
+    private final RomContentCache romContentCache;
+    private final RomBlobService romBlobService;
+    private final RomThumbnailCache romThumbnailCache;
+
+    // Bumped on every write that can change the public list; a cached catalog is only valid for its own version
+    private final AtomicLong publicCatalogVersion = new AtomicLong();
+    private final ReentrantLock publicCatalogLock = new ReentrantLock();
+    private volatile PublicRomCatalog publicCatalog;
+
+    // Names currently between reservation and commit on this node
+    private final Set<RomId> uploadsInFlight = ConcurrentHashMap.newKeySet();
+
+    // Blob references whose release failed, by content hash, retried by retryPendingReleases
+    private final Map<String, Integer> pendingReleases = new ConcurrentHashMap<>();
+
+    // System.nanoTime of each owner's last insert or delete on this node. For the window after it, queries about
+    // that owner's ROMs go to the primary, so a list right after an upload is not served by a lagging replica.
+    private final Map<UUID, Long> recentWriters = new ConcurrentHashMap<>();
+
+    @Value("${rom.db.replica.read-your-writes:PT10S}")
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    @Value("${rom.upload.bulk.max-concurrency:16}")
+    private int bulkUploadConcurrency = 16;
+
+    // Runs blocking database work that follows an async storage call
+    private final Executor blockingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Receives a RomChangeEvent after every committed insert or delete, a no-op outside the application context
+    private ApplicationEventPublisher eventPublisher = event -> {};
 
     @Autowired
-    public RomService(RomRepository romRepository, S3Client s3Client, S3Presigner presigner) {
+    public RomService(RomRepository romRepository, RomStorage romStorage, ObjectMapper objectMapper,
+                      PresignedUrlCache presignedUrlCache, RomContentCache romContentCache,
+                      RomBlobService romBlobService, RomThumbnailCache romThumbnailCache) {
         this.romRepository = romRepository;
-        this.s3Client = s3Client;
-        this.presigner = presigner;
+        this.romStorage = romStorage;
+        this.objectMapper = objectMapper;
+        this.presignedUrlCache = presignedUrlCache;
+        this.romContentCache = romContentCache;
+        this.romBlobService = romBlobService;
+        this.romThumbnailCache = romThumbnailCache;
+    }
+
+    @Autowired
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Rom> getRomsByUserIdAndIsPublic(UUID userId, boolean isPublic) {
-        return romRepository.findByIdUserIdAndIsPublic(userId, isPublic);
+        return onReplicaUnlessWritten(userId, () -> romRepository.findByIdUserIdAndIsPublic(userId, isPublic));
     }
 
     public List<Rom> getPublicRoms(boolean isPublic) {
-        return romRepository.findByIsPublic(isPublic);
+        return ReplicaRoutingDataSource.onReplica(() -> romRepository.findByIsPublic(isPublic));
+    }
+
+    public RomPage getPublicRomPage(String cursor, int size) {
+        int limit = pageLimit(size);
+
+        List<RomSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = ReplicaRoutingDataSource.onReplica(() -> romRepository.findPublicPage(limit + 1));
+        } else {
+            RomId after = decodeCursor(cursor);
+            rows = ReplicaRoutingDataSource.onReplica(
+                    () -> romRepository.findPublicPageAfter(after.getUserId(), after.getRomName(), limit + 1));
+        }
+        return toPage(rows, limit);
+    }
+
+    public RomPage getPersonalRomPage(UUID userId, String cursor, int size) {
+        int limit = pageLimit(size);
+
+        String afterRomName = "";
+        if (cursor != null && !cursor.isEmpty()) {
+            RomId after = decodeCursor(cursor);
+            if (!userId.equals(after.getUserId())) {
+                throw new IllegalArgumentException("Invalid page cursor.");
+            }
+            afterRomName = after.getRomName();
+        }
+
+        String afterName = afterRomName;
+        return toPage(onReplicaUnlessWritten(userId,
+                () -> romRepository.findUserPageAfter(userId, false, afterName, limit + 1)), limit);
+    }
+
+    // Reads about one owner's ROMs, on the replica unless that owner wrote recently
+    private <T> T onReplicaUnlessWritten(UUID userId, Supplier<T> query) {
+        Long writtenAt = recentWriters.get(userId);
+        if (writtenAt != null && System.nanoTime() - writtenAt < readYourWritesWindow.toNanos()) {
+            return query.get();
+        }
+        return ReplicaRoutingDataSource.onReplica(query);
+    }
+
+    private void publishChange(RomChangeEvent event) {
+        long now = System.nanoTime();
+        recentWriters.put(event.userId(), now);
+        if (recentWriters.size() > MAX_RECENT_WRITERS) {
+            recentWriters.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesWindow.toNanos());
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private static int pageLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        return size;
     }
 
-    @Transactional
+    // One extra row is fetched to know whether another page follows
+    private static RomPage toPage(List<RomSummary> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new RomPage(rows, null);
+        }
+
+        List<RomSummary> items = rows.subList(0, limit);
+        RomSummary last = items.get(limit - 1);
+        return new RomPage(items, encodeCursor(last.getUserId(), last.getRomName()));
+    }
+
+    private static String encodeCursor(UUID userId, String romName) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((userId + romName).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RomId decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new RomId(UUID.fromString(decoded.substring(0, UUID_STRING_LENGTH)),
+                    decoded.substring(UUID_STRING_LENGTH));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor.");
+        }
+    }
+
+    public PublicRomCatalog getPublicCatalog() {
+        PublicRomCatalog catalog = publicCatalog;
+        if (catalog != null && catalog.version() == publicCatalogVersion.get()) {
+            return catalog;
+        }
+
+        // Only one request reloads the catalog, the others wait and reuse its result
+        publicCatalogLock.lock();
+        try {
+            long version = publicCatalogVersion.get();
+            catalog = publicCatalog;
+            if (catalog != null && catalog.version() == version) {
+                return catalog;
+            }
+
+            // Read from the primary: a lagging replica would be cached as this version until the next write
+            catalog = PublicRomCatalog.of(version, romRepository.findByIsPublic(true), objectMapper);
+            publicCatalog = catalog;
+            return catalog;
+        } finally {
+            publicCatalogLock.unlock();
+        }
+    }
+
+    public void invalidatePublicCatalog() {
+        publicCatalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Saves a ROM in three steps so that no database connection is held while talking to storage:
+     * reserve the name on this node and check it is free, store the content, then insert the row.
+     * Content is addressed by its SHA-256, so bytes that are already stored only gain a reference and are not
+     * uploaded again. If the insert fails, that reference is released, which removes the object if it was the last.
+     */
     public Rom saveRom(UUID userId, String romName, boolean isPublic, MultipartFile file) {
         if (!romName.toLowerCase().endsWith(".ch8")) {
             throw new IllegalArgumentException("Only .ch8 files are allowed");
@@ -53,31 +254,418 @@ public class RomService {
 
         RomId romId = new RomId(userId, romName);
 
-        if (romRepository.existsById(romId)) {
-            throw new IllegalArgumentException("A ROM with this name already exists.");
+        // Reserve
+        if (!uploadsInFlight.add(romId)) {
+            throw new IllegalArgumentException("A ROM with this name is already being uploaded.");
         }
-        String objectKey = userId + "/" + romName;
 
-        // Upload file to S3
         try {
-            Map<String, String> metadata = new HashMap<>();
-            metadata.put("Content-Type", "application/octet-stream");
-            metadata.put("Content-Length", String.valueOf(file.getSize()));
+            if (romRepository.existsById(romId)) {
+                throw new IllegalArgumentException("A ROM with this name already exists.");
+            }
+            HashedContent content = readContent(file);
+            byte[] analysis = analyzeRom(content.bytes());
+
+            // Store the file unless the same bytes are already stored
+            if (!romBlobService.tryAddReferences(content.hash(), 1)) {
+                romStorage.put(RomBlobService.objectKey(content.hash()), content.bytes());
+                registerBlob(content.hash(), content.bytes(), 1, analysis);
+            }
+
+            // Commit to database
+            return commitRom(romId, isPublic, content.hash());
+        } finally {
+            uploadsInFlight.remove(romId);
+        }
+    }
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(System.getenv("AWS_BUCKET_NAME"))
-                    .key(objectKey)
-                    .metadata(metadata)
-                    .build();
+    /**
+     * Async variant of {@link #saveRom}. The upload runs on the storage's async client, so no request thread waits
+     * on it, and the commit runs on a virtual thread afterwards. Falls back to the blocking path when the storage
+     * has no async client.
+     */
+    public CompletableFuture<Rom> saveRomAsync(UUID userId, String romName, boolean isPublic, MultipartFile file) {
+        if (!romStorage.supportsAsync()) {
+            try {
+                return CompletableFuture.completedFuture(saveRom(userId, romName, isPublic, file));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+        if (!romName.toLowerCase().endsWith(".ch8")) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Only .ch8 files are allowed"));
+        }
+
+        RomId romId = new RomId(userId, romName);
+
+        // Reserve
+        if (!uploadsInFlight.add(romId)) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("A ROM with this name is already being uploaded."));
+        }
+
+        CompletableFuture<Rom> result;
+        try {
+            if (romRepository.existsById(romId)) {
+                throw new IllegalArgumentException("A ROM with this name already exists.");
+            }
+            HashedContent content = readContent(file);
+            byte[] analysis = analyzeRom(content.bytes());
+            String contentHash = content.hash();
+
+            // Store the file unless the same bytes are already stored, then commit to database off the event loop
+            CompletableFuture<Void> stored;
+            if (romBlobService.tryAddReferences(contentHash, 1)) {
+                stored = CompletableFuture.completedFuture(null);
+            } else {
+                stored = romStorage.putAsync(RomBlobService.objectKey(contentHash), content.bytes())
+                        .thenRunAsync(() -> registerBlob(contentHash, content.bytes(), 1, analysis),
+                                blockingExecutor);
+            }
+            result = stored.thenApplyAsync(ignored -> commitRom(romId, isPublic, contentHash), blockingExecutor);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        return result.whenComplete((rom, error) -> uploadsInFlight.remove(romId));
+    }
+
+    /**
+     * Records references to content this upload has just put. If the blob row had to be inserted, a concurrent
+     * upload of the same bytes may have deleted the object after the put, so it is checked and put again.
+     */
+    private void registerBlob(String contentHash, byte[] content, int count, byte[] analysis) {
+        if (!romBlobService.registerBlob(contentHash, content.length, count, analysis)) {
+            return;
+        }
+        try {
+            String objectKey = RomBlobService.objectKey(contentHash);
+            if (!romStorage.exists(objectKey)) {
+                log.info("Blob {} was removed while it was being uploaded, storing it again", contentHash);
+                romStorage.put(objectKey, content);
+            }
+        } catch (RuntimeException e) {
+            releaseReferences(contentHash, count);
+            throw e;
+        }
+    }
+
+    private Rom commitRom(RomId romId, boolean isPublic, String contentHash) {
+        Rom savedRom;
+        try {
+            savedRom = romRepository.save(new Rom(romId, isPublic, contentHash));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the same name first
+            releaseReferences(contentHash, 1);
+            throw new IllegalArgumentException("A ROM with this name already exists.");
+        } catch (RuntimeException e) {
+            releaseReferences(contentHash, 1);
+            throw e;
+        }
+
+        if (isPublic) {
+            invalidatePublicCatalog();
+        }
+        publishChange(RomChangeEvent.added(romId, isPublic));
+        return savedRom;
+    }
+
+    private static HashedContent readContent(MultipartFile file) {
+        if (file.getSize() > MAX_ROM_FILE_BYTES) {
+            throw new IllegalArgumentException("ROM file is too large.");
+        }
+
+        // Hash while reading, the bytes are needed in memory for the upload anyway
+        try (DigestInputStream in = new DigestInputStream(file.getInputStream(), RomBlobService.newDigest())) {
+            byte[] bytes = in.readNBytes(MAX_ROM_FILE_BYTES + 1);
+            if (bytes.length > MAX_ROM_FILE_BYTES) {
+                throw new IllegalArgumentException("ROM file is too large.");
+            }
+            return new HashedContent(bytes, HexFormat.of().formatHex(in.getMessageDigest().digest()));
         } catch (IOException e) {
             throw new RuntimeException("Error uploading file to S3", e);
         }
+    }
+
+    private record HashedContent(byte[] bytes, String hash) {}
+
+    /**
+     * Validates the ROM's code and returns its analysis as JSON, ready to be stored with the content.
+     */
+    private byte[] analyzeRom(byte[] content) {
+        RomAnalysis analysis = Chip8Decoder.analyze(content);
+        analysis.requireValid();
+        return toJson(analysis);
+    }
+
+    private byte[] toJson(RomAnalysis analysis) {
+        try {
+            return objectMapper.writeValueAsBytes(analysis);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ROM analysis", e);
+        }
+    }
+
+    private void releaseReferences(String contentHash, int count) {
+        try {
+            romBlobService.releaseReferences(contentHash, count);
+        } catch (RuntimeException e) {
+            log.warn("Could not release {} reference(s) to blob {}, will retry", count, contentHash, e);
+            pendingReleases.merge(contentHash, count, Integer::sum);
+        }
+    }
+
+    /**
+     * Retries references whose release failed, so a blob nothing uses is still deleted. Pending releases live in
+     * memory; any a restart loses show up as a ref_count finding of the storage reconciliation.
+     */
+    @Scheduled(fixedDelayString = "${rom.blob.release-retry-interval:PT1M}")
+    public void retryPendingReleases() {
+        for (String contentHash : List.copyOf(pendingReleases.keySet())) {
+            Integer count = pendingReleases.remove(contentHash);
+            if (count != null) {
+                releaseReferences(contentHash, count);
+            }
+        }
+    }
+
+    public int getPendingReleases() {
+        return pendingReleases.size();
+    }
+
+    /**
+     * Saves many ROMs for one user. Names are checked with a single existence query, each distinct content is
+     * stored once, concurrently on virtual threads, and the rows are inserted with one batched saveAll.
+     * The result list has one entry per upload, in the same order.
+     */
+    public List<RomUploadResult> saveRoms(UUID userId, List<RomUpload> uploads, boolean isPublic) {
+        if (uploads.size() > MAX_BULK_UPLOAD_FILES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_UPLOAD_FILES + " ROMs can be uploaded at once.");
+        }
+
+        RomUploadResult[] results = new RomUploadResult[uploads.size()];
+        RomAnalysis[] analyses = new RomAnalysis[uploads.size()];
+        Map<RomId, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < uploads.size(); i++) {
+            String romName = uploads.get(i).getRomName();
+            byte[] content = uploads.get(i).getContent();
+
+            if (romName == null || !romName.toLowerCase().endsWith(".ch8")) {
+                results[i] = new RomUploadResult(romName, RomUploadResult.Status.INVALID, "Only .ch8 files are allowed");
+            } else if (content.length > MAX_BULK_UPLOAD_FILE_BYTES) {
+                results[i] = new RomUploadResult(romName, RomUploadResult.Status.INVALID, "ROM file is too large.");
+            } else if (!(analyses[i] = Chip8Decoder.analyze(content)).isValid()) {
+                results[i] = new RomUploadResult(romName, RomUploadResult.Status.INVALID,
+                        "Invalid CHIP-8 ROM: " + analyses[i].problems().get(0));
+            } else if (candidates.putIfAbsent(new RomId(userId, romName), i) != null) {
+                results[i] = new RomUploadResult(romName, RomUploadResult.Status.INVALID,
+                        "The upload contains this ROM name more than once.");
+            }
+        }
+
+        // One existence query for the whole batch
+        for (Rom rom : romRepository.findAllById(candidates.keySet())) {
+            Integer index = candidates.remove(rom.getId());
+            if (index != null) {
+                results[index] = new RomUploadResult(rom.getId().getRomName(), RomUploadResult.Status.ALREADY_EXISTS,
+                        "A ROM with this name already exists.");
+            }
+        }
+
+        // Reserve
+        List<RomId> reserved = new ArrayList<>();
+        for (Iterator<Map.Entry<RomId, Integer>> it = candidates.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<RomId, Integer> candidate = it.next();
+            if (uploadsInFlight.add(candidate.getKey())) {
+                reserved.add(candidate.getKey());
+            } else {
+                results[candidate.getValue()] = new RomUploadResult(candidate.getKey().getRomName(),
+                        RomUploadResult.Status.ALREADY_EXISTS, "A ROM with this name is already being uploaded.");
+                it.remove();
+            }
+        }
+
+        try {
+            // Group by content, an archive of ROM packs often repeats the same bytes under several names
+            Map<RomId, String> contentHashes = new HashMap<>();
+            Map<String, byte[]> contents = new LinkedHashMap<>();
+            Map<String, RomAnalysis> contentAnalyses = new HashMap<>();
+            Map<String, Integer> references = new HashMap<>();
+            for (Map.Entry<RomId, Integer> candidate : candidates.entrySet()) {
+                byte[] content = uploads.get(candidate.getValue()).getContent();
+                String contentHash = RomBlobService.sha256(content);
+                contentHashes.put(candidate.getKey(), contentHash);
+                contents.putIfAbsent(contentHash, content);
+                contentAnalyses.putIfAbsent(contentHash, analyses[candidate.getValue()]);
+                references.merge(contentHash, 1, Integer::sum);
+            }
+
+            // Upload
+            Map<String, String> uploadFailures = uploadConcurrently(contents, contentAnalyses, references);
+            List<RomId> uploaded = new ArrayList<>();
+            for (Map.Entry<RomId, Integer> candidate : candidates.entrySet()) {
+                String failure = uploadFailures.get(contentHashes.get(candidate.getKey()));
+                if (failure == null) {
+                    uploaded.add(candidate.getKey());
+                } else {
+                    results[candidate.getValue()] = new RomUploadResult(candidate.getKey().getRomName(),
+                            RomUploadResult.Status.STORAGE_ERROR, failure);
+                }
+            }
+
+            // Commit
+            for (Map.Entry<RomId, RomUploadResult> committed
+                    : commitUploadedRoms(uploaded, contentHashes, isPublic).entrySet()) {
+                results[candidates.get(committed.getKey())] = committed.getValue();
+            }
+        } finally {
+            reserved.forEach(uploadsInFlight::remove);
+        }
+
+        if (isPublic) {
+            invalidatePublicCatalog();
+        }
+        return Arrays.asList(results);
+    }
+
+    public List<RomUpload> readRomArchive(MultipartFile archive) {
+        List<RomUpload> uploads = new ArrayList<>();
+
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = entry.getName();
+                String romName = entryName.substring(entryName.lastIndexOf('/') + 1);
+
+                // Skip folders and the metadata files some archivers add
+                if (entry.isDirectory() || romName.isEmpty() || romName.startsWith(".")
+                        || entryName.startsWith("__MACOSX/")) {
+                    continue;
+                }
+
+                if (uploads.size() == MAX_BULK_UPLOAD_FILES) {
+                    throw new IllegalArgumentException("At most " + MAX_BULK_UPLOAD_FILES + " ROMs can be uploaded at once.");
+                }
+
+                // Never inflate more than one byte past the limit, so oversized entries are reported, not buffered
+                uploads.add(new RomUpload(romName, zip.readNBytes(MAX_BULK_UPLOAD_FILE_BYTES + 1)));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read the ROM archive.", e);
+        }
+
+        return uploads;
+    }
+
+    /**
+     * Stores each distinct content once and takes one reference per ROM that uses it.
+     * Returns the failure message for every content hash that could not be stored.
+     */
+    private Map<String, String> uploadConcurrently(Map<String, byte[]> contents, Map<String, RomAnalysis> analyses,
+                                                   Map<String, Integer> references) {
+        Map<String, Future<?>> pending = new LinkedHashMap<>();
+        Semaphore permits = new Semaphore(Math.max(1, bulkUploadConcurrency));
+
+        // Closing the executor waits for every upload to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                String contentHash = entry.getKey();
+                byte[] content = entry.getValue();
+                int count = references.get(contentHash);
+
+                pending.put(contentHash, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (!romBlobService.tryAddReferences(contentHash, count)) {
+                            romStorage.put(RomBlobService.objectKey(contentHash), content);
+                            registerBlob(contentHash, content, count, toJson(analyses.get(contentHash)));
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        Map<String, String> failures = new HashMap<>();
+        for (Map.Entry<String, Future<?>> upload : pending.entrySet()) {
+            try {
+                upload.getValue().get();
+            } catch (ExecutionException e) {
+                log.warn("Bulk upload of blob {} failed", upload.getKey(), e.getCause());
+                failures.put(upload.getKey(), "Error uploading file to storage");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(upload.getKey(), "Upload was interrupted");
+            }
+        }
+        return failures;
+    }
+
+    private Map<RomId, RomUploadResult> commitUploadedRoms(List<RomId> uploaded, Map<RomId, String> contentHashes,
+                                                           boolean isPublic) {
+        Map<RomId, RomUploadResult> results = new HashMap<>();
+        if (uploaded.isEmpty()) {
+            return results;
+        }
+
+        try {
+            romRepository.saveAll(uploaded.stream()
+                    .map(romId -> new Rom(romId, isPublic, contentHashes.get(romId)))
+                    .toList());
+            for (RomId romId : uploaded) {
+                results.put(romId, new RomUploadResult(romId.getRomName(), RomUploadResult.Status.SAVED, "ROM saved."));
+                publishChange(RomChangeEvent.added(romId, isPublic));
+            }
+            return results;
+        } catch (DataIntegrityViolationException e) {
+            // Another node took one of the names meanwhile, fall back to row-by-row to find out which
+            log.info("Batched ROM insert hit a duplicate name, retrying {} ROMs one by one", uploaded.size());
+        } catch (RuntimeException e) {
+            log.warn("Batched ROM insert failed", e);
+            releaseReferences(uploaded.stream().map(contentHashes::get).toList());
+            for (RomId romId : uploaded) {
+                results.put(romId, new RomUploadResult(romId.getRomName(), RomUploadResult.Status.DATABASE_ERROR,
+                        "Error saving ROM to the database."));
+            }
+            return results;
+        }
+
+        for (RomId romId : uploaded) {
+            try {
+                romRepository.save(new Rom(romId, isPublic, contentHashes.get(romId)));
+                results.put(romId, new RomUploadResult(romId.getRomName(), RomUploadResult.Status.SAVED, "ROM saved."));
+                publishChange(RomChangeEvent.added(romId, isPublic));
+            } catch (DataIntegrityViolationException e) {
+                releaseReferences(contentHashes.get(romId), 1);
+                results.put(romId, new RomUploadResult(romId.getRomName(), RomUploadResult.Status.ALREADY_EXISTS,
+                        "A ROM with this name already exists."));
+            } catch (RuntimeException e) {
+                releaseReferences(contentHashes.get(romId), 1);
+                results.put(romId, new RomUploadResult(romId.getRomName(), RomUploadResult.Status.DATABASE_ERROR,
+                        "Error saving ROM to the database."));
+            }
+        }
+        return results;
+    }
+
+    // Releases one reference per entry, grouped so each blob row is locked once
+    private void releaseReferences(Collection<String> contentHashes) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String contentHash : contentHashes) {
+            counts.merge(contentHash, 1, Integer::sum);
+        }
+        counts.forEach(this::releaseReferences);
+    }
 
-        // Save to database
-        Rom rom = new Rom(romId, isPublic);
-        return romRepository.save(rom);
+    // ROMs stored before deduplication have no content hash and keep their per-user key
+    static String objectKey(RomId romId, String contentHash) {
+        return contentHash != null
+                ? RomBlobService.objectKey(contentHash)
+                : romId.getUserId() + "/" + romId.getRomName();
     }
 
     public void deleteRom(UUID userId, String romName) {
@@ -92,26 +680,167 @@ public class RomService {
         if (rom.isPublic()) {
             throw new IllegalArgumentException("Cannot delete publicly available ROM.");
         }
-        String objectKey = userId + "/" + romName;
 
-        // Delete from S3
+        if (rom.getContentHash() == null) {
+            // Delete from storage
+            romStorage.delete(objectKey(romId, null));
+
+            // Delete from database
+            romRepository.deleteById(romId);
+        } else {
+            // Shared content: drop the row first, the object goes with its last reference
+            romRepository.deleteById(romId);
+            releaseReferences(rom.getContentHash(), 1);
+        }
+        presignedUrlCache.evict(romId);
+        romContentCache.evict(romId);
+        romThumbnailCache.evict(romId);
+        publishChange(RomChangeEvent.deleted(romId, false));
+    }
+
+    public List<RomDeleteResult> deleteRoms(Collection<RomId> romIds) {
+        RomDeletion deletion = planDeletion(romIds);
+
+        // Delete from storage, a chunk of up to 1000 keys per request
+        for (List<String> chunk : deletion.chunks()) {
+            deletion.recordStorageResult(chunk, romStorage.deleteAll(chunk));
+        }
+
+        return finishDeletion(deletion);
+    }
+
+    /**
+     * Same as {@link #deleteRoms} but the storage requests run on the async client, all chunks in parallel.
+     * Falls back to the blocking path when the storage has no async client.
+     */
+    public CompletableFuture<List<RomDeleteResult>> deleteRomsAsync(Collection<RomId> romIds) {
+        if (!romStorage.supportsAsync()) {
+            try {
+                return CompletableFuture.completedFuture(deleteRoms(romIds));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        RomDeletion deletion;
         try {
-            s3Client.deleteObject(DeleteObjectRequest.builder()
-                    .bucket(System.getenv("AWS_BUCKET_NAME"))
-                    .key(objectKey)
-                    .build());
-        } catch (S3Exception e) {
-            throw new RuntimeException("Error deleting file from S3", e);
+            deletion = planDeletion(romIds);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<?>[] chunks = deletion.chunks().stream()
+                .map(chunk -> romStorage.deleteAllAsync(chunk).thenAccept(failures -> deletion.recordStorageResult(chunk, failures)))
+                .toArray(CompletableFuture[]::new);
+
+        // The database part blocks, so it must not run on the SDK's event loop
+        return CompletableFuture.allOf(chunks).thenApplyAsync(ignored -> finishDeletion(deletion), blockingExecutor);
+    }
+
+    private RomDeletion planDeletion(Collection<RomId> romIds) {
+        RomDeletion deletion = new RomDeletion(romIds);
+
+        // One lookup for the whole batch
+        Map<RomId, Rom> found = new HashMap<>();
+        for (Rom rom : romRepository.findAllById(deletion.requested)) {
+            found.put(rom.getId(), rom);
+        }
+
+        for (RomId romId : deletion.requested) {
+            Rom rom = found.get(romId);
+            if (rom == null) {
+                deletion.results.put(romId, deleteResult(romId, RomDeleteResult.Status.NOT_FOUND, "ROM not found."));
+            } else if (rom.isPublic()) {
+                deletion.results.put(romId, deleteResult(romId, RomDeleteResult.Status.PUBLIC,
+                        "Cannot delete publicly available ROM."));
+            } else if (rom.getContentHash() == null) {
+                deletion.deletable.put(objectKey(romId, null), romId);
+            } else {
+                deletion.shared.put(romId, rom.getContentHash());
+            }
+        }
+        return deletion;
+    }
+
+    private List<RomDeleteResult> finishDeletion(RomDeletion deletion) {
+        List<RomId> removed = new ArrayList<>(deletion.removedFromStorage);
+        removed.addAll(deletion.shared.keySet());
+
+        // Delete from database in a single statement and transaction
+        if (!removed.isEmpty()) {
+            romRepository.deleteAllByIdInBatch(removed);
+        }
+
+        // Shared content is released only once no row points at it any more
+        releaseReferences(deletion.shared.values());
+
+        for (RomId romId : removed) {
+            presignedUrlCache.evict(romId);
+            romContentCache.evict(romId);
+            romThumbnailCache.evict(romId);
+            deletion.results.put(romId, deleteResult(romId, RomDeleteResult.Status.DELETED, "ROM deleted."));
+            publishChange(RomChangeEvent.deleted(romId, false));
+        }
+
+        return deletion.requested.stream().map(deletion.results::get).toList();
+    }
+
+    /**
+     * Bookkeeping for one batch delete. Storage results may be recorded from several threads.
+     */
+    private static final class RomDeletion {
+        private final Set<RomId> requested;
+        private final Map<RomId, RomDeleteResult> results = new ConcurrentHashMap<>();
+        // Legacy ROMs by object key, deleted from storage before their rows
+        private final Map<String, RomId> deletable = new LinkedHashMap<>();
+        // Deduplicated ROMs and their content hash, released after their rows are deleted
+        private final Map<RomId, String> shared = new LinkedHashMap<>();
+        private final Queue<RomId> removedFromStorage = new ConcurrentLinkedQueue<>();
+
+        private RomDeletion(Collection<RomId> romIds) {
+            this.requested = new LinkedHashSet<>(romIds);
         }
 
-        // Delete from database
-        romRepository.deleteById(romId);
+        private List<List<String>> chunks() {
+            List<String> objectKeys = new ArrayList<>(deletable.keySet());
+            List<List<String>> chunks = new ArrayList<>();
+            for (int from = 0; from < objectKeys.size(); from += MAX_KEYS_PER_DELETE) {
+                chunks.add(objectKeys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, objectKeys.size())));
+            }
+            return chunks;
+        }
+
+        private void recordStorageResult(List<String> chunk, Map<String, String> failures) {
+            for (String objectKey : chunk) {
+                RomId romId = deletable.get(objectKey);
+                String failure = failures.get(objectKey);
+                if (failure == null) {
+                    removedFromStorage.add(romId);
+                } else {
+                    results.put(romId, deleteResult(romId, RomDeleteResult.Status.STORAGE_ERROR, failure));
+                }
+            }
+        }
+    }
+
+    private static RomDeleteResult deleteResult(RomId romId, RomDeleteResult.Status status, String message) {
+        return new RomDeleteResult(romId.getUserId(), romId.getRomName(), status, message);
     }
 
     public URL getPublicRomDownloadUrl(UUID userId, String romName) {
-        // Check in the database first
         RomId romId = new RomId(userId, romName);
-        Optional<Rom> romOptional = romRepository.findById(romId);
+
+        // A cached URL also remembers the visibility, so neither the lookup nor the signing is repeated
+        PresignedUrlCache.Entry cached = presignedUrlCache.get(romId);
+        if (cached != null) {
+            if (!cached.isPublic()) {
+                throw new IllegalArgumentException("Access denied. This ROM is private.");
+            }
+            return cached.url();
+        }
+
+        // Check in the database first
+        Optional<Rom> romOptional = onReplicaUnlessWritten(userId, () -> romRepository.findById(romId));
 
         if (romOptional.isEmpty()) {
             throw new IllegalArgumentException("ROM not found.");
@@ -124,27 +853,95 @@ public class RomService {
             throw new IllegalArgumentException("Access denied. This ROM is private.");
         }
 
-        // Generate pre-signed URL
-        String objectKey = userId + "/" + romName;
+        return presignAndCache(romId, true, rom.getContentHash());
+    }
 
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(System.getenv("AWS_BUCKET_NAME"))
-                .key(objectKey)
-                .build();
+    public URL getPersonalRomDownloadUrl(UUID userId, String romName) {
+        RomId romId = new RomId(userId, romName);
 
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(10))
-                .getObjectRequest(getObjectRequest)
-                .build();
+        PresignedUrlCache.Entry cached = presignedUrlCache.get(romId);
+        if (cached != null) {
+            return cached.url();
+        }
+
+        // Check in the database first
+        Optional<Rom> romOptional = onReplicaUnlessWritten(userId, () -> romRepository.findById(romId));
 
-        PresignedGetObjectRequest presignedRequest = presigner.presignGetObject(presignRequest);
+        if (romOptional.isEmpty()) {
+            throw new IllegalArgumentException("ROM not found.");
+        }
 
-        return presignedRequest.url();
+        Rom rom = romOptional.get();
+        return presignAndCache(romId, rom.isPublic(), rom.getContentHash());
     }
 
-    public URL getPersonalRomDownloadUrl(UUID userId, String romName) {
-        // Check in the database first
-        RomId romId = new RomId(userId, romName);
+    public RomContent getPublicRomContent(UUID userId, String romName) {
+        RomContent content = romContentCache.get(new RomId(userId, romName), this::loadRomContent);
+
+        if (!content.isPublic()) {
+            throw new IllegalArgumentException("Access denied. This ROM is private.");
+        }
+        return content;
+    }
+
+    public RomContent getPersonalRomContent(UUID userId, String romName) {
+        return romContentCache.get(new RomId(userId, romName), this::loadRomContent);
+    }
+
+    /**
+     * A ROM that playerId may play: any of their own ROMs, or a public ROM of ownerId. With a null playerId only
+     * public ROMs are returned.
+     */
+    public Rom getPlayableRom(UUID playerId, UUID ownerId, String romName) {
+        Rom rom = romRepository.findById(new RomId(ownerId, romName))
+                .orElseThrow(() -> new IllegalArgumentException("ROM not found."));
+
+        if (!rom.isPublic() && !ownerId.equals(playerId)) {
+            throw new IllegalArgumentException("Access denied. This ROM is private.");
+        }
+        return rom;
+    }
+
+    /**
+     * Content of a ROM that playerId may play: any of their own ROMs, or a public ROM of ownerId.
+     */
+    public RomContent getPlayableRomContent(UUID playerId, UUID ownerId, String romName) {
+        return playerId.equals(ownerId)
+                ? getPersonalRomContent(ownerId, romName)
+                : getPublicRomContent(ownerId, romName);
+    }
+
+    public RomContent getPublicRomAnalysis(UUID userId, String romName) {
+        RomContent analysis = loadRomAnalysis(new RomId(userId, romName));
+
+        if (!analysis.isPublic()) {
+            throw new IllegalArgumentException("Access denied. This ROM is private.");
+        }
+        return analysis;
+    }
+
+    public RomContent getPersonalRomAnalysis(UUID userId, String romName) {
+        return loadRomAnalysis(new RomId(userId, romName));
+    }
+
+    public RomContent getPublicRomThumbnail(UUID userId, String romName) {
+        RomContent thumbnail = romThumbnailCache.get(new RomId(userId, romName), this::loadRomThumbnail);
+
+        if (!thumbnail.isPublic()) {
+            throw new IllegalArgumentException("Access denied. This ROM is private.");
+        }
+        return thumbnail;
+    }
+
+    public RomContent getPersonalRomThumbnail(UUID userId, String romName) {
+        return romThumbnailCache.get(new RomId(userId, romName), this::loadRomThumbnail);
+    }
+
+    /**
+     * Returns the stored thumbnail PNG of a ROM. Uploads do not render one, so it is rendered and kept with the
+     * content on first request.
+     */
+    private RomContent loadRomThumbnail(RomId romId) {
         Optional<Rom> romOptional = romRepository.findById(romId);
 
         if (romOptional.isEmpty()) {
@@ -152,22 +949,63 @@ public class RomService {
         }
 
         Rom rom = romOptional.get();
+        String contentHash = rom.getContentHash();
+
+        byte[] thumbnail = contentHash == null ? null : romBlobService.getThumbnail(contentHash).orElse(null);
+        if (thumbnail == null) {
+            thumbnail = Chip8Thumbnail.render(romContentCache.get(romId, this::loadRomContent).bytes());
+            if (contentHash != null) {
+                romBlobService.saveThumbnail(contentHash, thumbnail);
+            }
+        }
+        return RomContent.of(thumbnail, rom.isPublic());
+    }
 
-        // Generate pre-signed URL
-        String objectKey = userId + "/" + romName;
+    /**
+     * Returns the stored analysis JSON of a ROM. ROMs stored before analysis existed are analyzed on first request,
+     * and the result is kept with their content when it is deduplicated.
+     */
+    private RomContent loadRomAnalysis(RomId romId) {
+        Optional<Rom> romOptional = romRepository.findById(romId);
 
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(System.getenv("AWS_BUCKET_NAME"))
-                .key(objectKey)
-                .build();
+        if (romOptional.isEmpty()) {
+            throw new IllegalArgumentException("ROM not found.");
+        }
 
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(10))
-                .getObjectRequest(getObjectRequest)
-                .build();
+        Rom rom = romOptional.get();
+        String contentHash = rom.getContentHash();
+
+        byte[] analysis = contentHash == null ? null : romBlobService.getAnalysis(contentHash).orElse(null);
+        if (analysis == null) {
+            byte[] content = romContentCache.get(romId, this::loadRomContent).bytes();
+            analysis = toJson(Chip8Decoder.analyze(content));
+            if (contentHash != null) {
+                romBlobService.saveAnalysis(contentHash, analysis);
+            }
+        }
+        return RomContent.of(analysis, rom.isPublic());
+    }
+
+    private RomContent loadRomContent(RomId romId) {
+        Optional<Rom> romOptional = romRepository.findById(romId);
+
+        if (romOptional.isEmpty()) {
+            throw new IllegalArgumentException("ROM not found.");
+        }
+
+        Rom rom = romOptional.get();
 
-        PresignedGetObjectRequest presignedRequest = presigner.presignGetObject(presignRequest);
+        // Download file from storage
+        byte[] bytes = romStorage.get(objectKey(romId, rom.getContentHash()));
+        return RomContent.of(bytes, rom.isPublic());
+    }
+
+    private URL presignAndCache(RomId romId, boolean isPublic, String contentHash) {
+        // Generate pre-signed URL
+        Instant expiresAt = Instant.now().plus(PRESIGNED_URL_DURATION);
+        URL url = romStorage.downloadUrl(objectKey(romId, contentHash), PRESIGNED_URL_DURATION);
 
-        return presignedRequest.url();
+        presignedUrlCache.put(romId, url, isPublic, expiresAt);
+        return url;
     }
 }
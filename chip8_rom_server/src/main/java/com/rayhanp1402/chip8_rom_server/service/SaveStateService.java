@@ -0,0 +1,94 @@
+package com.rayhanp1402.chip8_rom_server.service;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8StateCodec;
+import com.rayhanp1402.chip8_rom_server.dto.SaveStateSlot;
+import com.rayhanp1402.chip8_rom_server.model.SaveState;
+import com.rayhanp1402.chip8_rom_server.model.SaveStateId;
+import com.rayhanp1402.chip8_rom_server.repository.SaveStateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Emulator save states, keyed by player, ROM and slot. The ROM is identified by its owner and name, so a player can
+ * keep states of their own ROMs and of anyone's public ones. States are stored in the {@link Chip8StateCodec}
+ * encoding, a delta against the ROM's initial memory, and are checked against the ROM on save so a broken state is
+ * never stored.
+ */
+@Service
+public class SaveStateService {
+    public static final int MAX_LISTED_ROMS = 100;
+
+    private final SaveStateRepository saveStateRepository;
+    private final RomService romService;
+    private final int slots;
+
+    @Autowired
+    public SaveStateService(SaveStateRepository saveStateRepository, RomService romService,
+                            @Value("${rom.savestate.slots:10}") int slots) {
+        this.saveStateRepository = saveStateRepository;
+        this.romService = romService;
+        this.slots = slots;
+    }
+
+    /**
+     * Stores a state sent either encoded or as the plain 4407-byte block, which is encoded here.
+     */
+    public SaveStateSlot saveState(UUID playerId, UUID ownerId, String romName, int slot, byte[] state) {
+        checkSlot(slot);
+        byte[] rom = romService.getPlayableRomContent(playerId, ownerId, romName).bytes();
+
+        byte[] encoded;
+        if (Chip8StateCodec.isEncoded(state)) {
+            Chip8StateCodec.decode(state, rom);
+            encoded = state;
+        } else if (state.length == Chip8StateCodec.RAW_SIZE) {
+            encoded = Chip8StateCodec.encode(Chip8StateCodec.fromPlain(state), rom);
+        } else {
+            throw new IllegalArgumentException("Invalid save state.");
+        }
+
+        saveStateRepository.upsert(playerId, ownerId, romName, slot, encoded, encoded.length);
+        return new SaveStateSlot(romName, slot, encoded.length, Instant.now());
+    }
+
+    public byte[] getState(UUID playerId, UUID ownerId, String romName, int slot) {
+        checkSlot(slot);
+        return saveStateRepository.findById(new SaveStateId(playerId, ownerId, romName, slot))
+                .map(SaveState::getState)
+                .orElseThrow(() -> new IllegalArgumentException("Save state not found."));
+    }
+
+    public byte[] getPlainState(UUID playerId, UUID ownerId, String romName, int slot) {
+        byte[] encoded = getState(playerId, ownerId, romName, slot);
+        byte[] rom = romService.getPlayableRomContent(playerId, ownerId, romName).bytes();
+        return Chip8StateCodec.toPlain(Chip8StateCodec.decode(encoded, rom));
+    }
+
+    public void deleteState(UUID playerId, UUID ownerId, String romName, int slot) {
+        checkSlot(slot);
+        if (saveStateRepository.deleteSlot(playerId, ownerId, romName, slot) == 0) {
+            throw new IllegalArgumentException("Save state not found.");
+        }
+    }
+
+    public List<SaveStateSlot> listSlots(UUID playerId, UUID ownerId, List<String> romNames) {
+        Set<String> distinct = new LinkedHashSet<>(romNames);
+        if (distinct.isEmpty() || distinct.size() > MAX_LISTED_ROMS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_LISTED_ROMS + " ROM names are required.");
+        }
+        return saveStateRepository.findSlots(playerId, ownerId, distinct);
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException("Slot must be between 0 and " + (slots - 1) + ".");
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.rayhanp1402.chip8_rom_server.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * ROM objects on a local disk, for nodes that serve ROMs without S3.
+ * <p>
+ * Each key is stored as one file named after the URL-encoded key, under two levels of directories taken from the
+ * SHA-256 of the key ({@code ab/cd/blobs%2F...}), so no directory grows past a few thousand entries. An encoded key
+ * too long for a file name, which a legacy ROM name can reach at three bytes per character, is stored as a prefix of
+ * it, {@code ~} and the key's hash, with the key itself in a {@code ~key} file beside it; URL encoding never
+ * produces {@code ~}, so these names cannot clash with a short key. Writes go to a
+ * temporary file in the same directory that is forced to disk and then atomically renamed over the target, so a
+ * reader never sees a partial object. Download URLs point at {@code /rom/public/object} on this server and carry an
+ * HMAC of the key and expiry, the same contract as an S3 presigned URL.
+ */
+@Component
+@ConditionalOnProperty(name = "rom.storage.backend", havingValue = "local")
+public class LocalRomStorage implements RomStorage {
+    public static final String OBJECT_PATH = "/rom/public/object";
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final int LONG_NAME_PREFIX_LENGTH = 150;
+    private static final char LONG_NAME_MARK = '~';
+    private static final String KEY_FILE_SUFFIX = "~key";
+
+    private final Path root;
+    private final String baseUrl;
+    private final SecretKeySpec signingKey;
+    private final Clock clock;
+
+    @Autowired
+    public LocalRomStorage(@Value("${rom.storage.local.root}") Path root,
+                           @Value("${rom.storage.local.base-url}") String baseUrl,
+                           @Value("${rom.storage.local.signing-key}") String signingKey) {
+        this(root, baseUrl, signingKey, Clock.systemUTC());
+    }
+
+    public LocalRomStorage(Path root, String baseUrl, String signingKey, Clock clock) {
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalArgumentException("rom.storage.local.signing-key must be set");
+        }
+        this.root = root.toAbsolutePath().normalize();
+        this.baseUrl = baseUrl;
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.clock = clock;
+    }
+
+    @Override
+    public void put(String key, byte[] content) {
+        Path target = path(key);
+        // The key file goes first, so a listed object always has its key
+        if (isLongName(target)) {
+            write(keyFile(target), key.getBytes(StandardCharsets.UTF_8));
+        }
+        write(target, content);
+    }
+
+    private static void write(Path target, byte[] content) {
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            move(temp, target);
+            temp = null;
+        } catch (IOException e) {
+            throw new RomStorageException("Error writing file to local storage", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // A leftover temporary file is harmless and never matches a key
+                }
+            }
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return Files.readAllBytes(path(key));
+        } catch (IOException e) {
+            throw new RomStorageException("Error reading file from local storage", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            deleteFile(path(key));
+        } catch (IOException e) {
+            throw new RomStorageException("Error deleting file from local storage", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        for (String key : keys) {
+            try {
+                deleteFile(path(key));
+            } catch (IOException e) {
+                failures.put(key, "Error deleting file from local storage");
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public URL downloadUrl(String key, Duration validFor) {
+        long expires = clock.instant().plus(validFor).getEpochSecond();
+        try {
+            return UriComponentsBuilder.fromUriString(baseUrl)
+                    .path(OBJECT_PATH)
+                    .queryParam("key", URLEncoder.encode(key, StandardCharsets.UTF_8))
+                    .queryParam("expires", expires)
+                    .queryParam("signature", sign(key, expires))
+                    .build(true)
+                    .toUri()
+                    .toURL();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RomStorageException("Error creating download URL", e);
+        }
+    }
+
+    /**
+     * Checks a download URL created by {@link #downloadUrl}.
+     */
+    public boolean isValidDownload(String key, long expires, String signature) {
+        if (clock.instant().getEpochSecond() > expires) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(key, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Files are spread over directories by the hash of their key, so the listing is read whole and sorted.
+     * Only keys and sizes are kept, which is fine for what a single disk holds.
+     */
+    @Override
+    public Stream<StoredObject> list() {
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+
+        List<StoredObject> objects = new ArrayList<>();
+        try (Stream<Path> files = Files.find(root, 3, (file, attributes) -> attributes.isRegularFile())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(".upload-") || fileName.endsWith(KEY_FILE_SUFFIX)) {
+                    continue;
+                }
+                String key;
+                BasicFileAttributes attributes;
+                try {
+                    key = isLongName(file)
+                            ? Files.readString(keyFile(file), StandardCharsets.UTF_8)
+                            : URLDecoder.decode(fileName, StandardCharsets.UTF_8);
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // Deleted while listing
+                    continue;
+                }
+                objects.add(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new RomStorageException("Error listing files in local storage", e);
+        }
+
+        objects.sort(Comparator.comparing(StoredObject::key, KEY_ORDER));
+        return objects.stream();
+    }
+
+    /**
+     * The file an object is stored in, whether or not it exists.
+     */
+    public Path path(String key) {
+        String fileName = URLEncoder.encode(key, StandardCharsets.UTF_8);
+        if (key.isEmpty() || fileName.equals(".") || fileName.equals("..")) {
+            throw new IllegalArgumentException("Invalid storage key.");
+        }
+
+        String hash = HexFormat.of().formatHex(sha256(key.getBytes(StandardCharsets.UTF_8)));
+        if (fileName.length() > MAX_FILE_NAME_LENGTH) {
+            fileName = fileName.substring(0, LONG_NAME_PREFIX_LENGTH) + LONG_NAME_MARK + hash;
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(fileName);
+    }
+
+    private static boolean isLongName(Path file) {
+        return file.getFileName().toString().indexOf(LONG_NAME_MARK) >= 0;
+    }
+
+    private static Path keyFile(Path file) {
+        return file.resolveSibling(file.getFileName() + KEY_FILE_SUFFIX);
+    }
+
+    private static void deleteFile(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        if (isLongName(file)) {
+            Files.deleteIfExists(keyFile(file));
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Same directory, so this only happens on file systems without atomic rename
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String sign(String key, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            byte[] signature = mac.doFinal((key + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(signature);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
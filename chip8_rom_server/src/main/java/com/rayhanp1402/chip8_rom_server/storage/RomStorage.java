@@ -0,0 +1,90 @@
+package com.rayhanp1402.chip8_rom_server.storage;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Where ROM objects live. Keys are the object keys RomService and RomBlobService already use
+ * ({@code blobs/<sha256>}, or {@code <userId>/<romName>} for ROMs stored before deduplication).
+ * Failures surface as {@link RomStorageException}, whose message is safe to show to clients.
+ * Selected with rom.storage.backend: "s3" (default) or "local".
+ */
+public interface RomStorage {
+    /**
+     * Order of keys in {@link #list}: by the keys' UTF-8 bytes, as S3 lists them and as PostgreSQL sorts with
+     * {@code COLLATE "C"}. Comparing code points gives the same order, which {@link String#compareTo} does not for
+     * characters outside the Basic Multilingual Plane.
+     */
+    Comparator<String> KEY_ORDER = (a, b) -> {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    };
+
+    /**
+     * Stores an object, replacing any existing object with the same key.
+     */
+    void put(String key, byte[] content);
+
+    byte[] get(String key);
+
+    /**
+     * Whether an object is stored under the key.
+     */
+    boolean exists(String key);
+
+    /**
+     * Removes an object. Removing a key that does not exist is not an error.
+     */
+    void delete(String key);
+
+    /**
+     * Removes several objects and returns a failure message for every key that could not be removed.
+     */
+    Map<String, String> deleteAll(List<String> keys);
+
+    /**
+     * A URL the client can download the object from directly, valid for at least the given duration.
+     */
+    URL downloadUrl(String key, Duration validFor);
+
+    /**
+     * Every object in {@link #KEY_ORDER}, fetched lazily where the backend pages its listing. Close the stream
+     * when done.
+     */
+    Stream<StoredObject> list();
+
+    /**
+     * Whether {@link #putAsync} and {@link #deleteAllAsync} complete without blocking the caller.
+     */
+    default boolean supportsAsync() {
+        return false;
+    }
+
+    default CompletableFuture<Void> putAsync(String key, byte[] content) {
+        try {
+            put(key, content);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    default CompletableFuture<Map<String, String>> deleteAllAsync(List<String> keys) {
+        return CompletableFuture.completedFuture(deleteAll(keys));
+    }
+}
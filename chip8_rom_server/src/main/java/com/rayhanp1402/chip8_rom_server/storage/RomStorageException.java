@@ -0,0 +1,7 @@
+package com.rayhanp1402.chip8_rom_server.storage;
+
+public class RomStorageException extends RuntimeException {
+    public RomStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,254 @@
+package com.rayhanp1402.chip8_rom_server.storage;
+
+import com.rayhanp1402.chip8_rom_server.metrics.RequestEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * ROM objects in an S3 bucket. Downloads are handed to clients as presigned URLs.
+ */
+@Component
+@ConditionalOnProperty(name = "rom.storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3RomStorage implements RomStorage, MeterBinder {
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+
+    // Only present when rom.storage.mode=async
+    private S3AsyncClient s3AsyncClient;
+
+    // Read from the environment until the application context injects aws.s3.bucket-name
+    private String bucketName = System.getenv("AWS_BUCKET_NAME");
+
+    // Presigning is local CPU work and does not pass through the S3 client interceptors, so it is timed here
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public S3RomStorage(S3Client s3Client, S3Presigner presigner) {
+        this.s3Client = s3Client;
+        this.presigner = presigner;
+    }
+
+    @Autowired(required = false)
+    public void setS3AsyncClient(S3AsyncClient s3AsyncClient) {
+        this.s3AsyncClient = s3AsyncClient;
+    }
+
+    @Value("${aws.s3.bucket-name}")
+    public void setBucketName(String bucketName) {
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    public void put(String key, byte[] content) {
+        try {
+            s3Client.putObject(putObjectRequest(key, content.length), RequestBody.fromBytes(content));
+        } catch (S3Exception e) {
+            throw new RomStorageException("Error uploading file to S3", e);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build()).asByteArray();
+        } catch (S3Exception e) {
+            throw new RomStorageException("Error downloading file from S3", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new RomStorageException("Error checking file in S3", e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+        } catch (S3Exception e) {
+            throw new RomStorageException("Error deleting file from S3", e);
+        }
+    }
+
+    // S3 DeleteObjects accepts at most 1000 keys per call, callers chunk accordingly
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        try {
+            DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest(keys));
+
+            for (S3Error error : response.errors()) {
+                failures.put(error.key(), "Error deleting file from S3: " + error.message());
+            }
+        } catch (S3Exception e) {
+            for (String key : keys) {
+                failures.put(key, "Error deleting file from S3");
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public URL downloadUrl(String key, Duration validFor) {
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(validFor)
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .build())
+                .build();
+
+        long start = System.nanoTime();
+        String outcome = "ERROR";
+        try {
+            URL url = presigner.presignGetObject(presignRequest).url();
+            outcome = "SUCCESS";
+            return url;
+        } finally {
+            recordPresign(start, outcome);
+        }
+    }
+
+    // One ListObjectsV2 request per 1000 keys, issued as the stream is consumed
+    @Override
+    public Stream<StoredObject> list() {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .maxKeys(1000)
+                .build();
+
+        return s3Client.listObjectsV2Paginator(request).contents().stream()
+                .map(object -> new StoredObject(object.key(), object.size(), object.lastModified()));
+    }
+
+    @Override
+    public boolean supportsAsync() {
+        return s3AsyncClient != null;
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, byte[] content) {
+        if (s3AsyncClient == null) {
+            return RomStorage.super.putAsync(key, content);
+        }
+
+        return s3AsyncClient.putObject(putObjectRequest(key, content.length), AsyncRequestBody.fromBytes(content))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new CompletionException(new RomStorageException("Error uploading file to S3", error));
+                    }
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> deleteAllAsync(List<String> keys) {
+        if (s3AsyncClient == null) {
+            return RomStorage.super.deleteAllAsync(keys);
+        }
+
+        return s3AsyncClient.deleteObjects(deleteObjectsRequest(keys))
+                .handle((response, error) -> {
+                    Map<String, String> failures = new HashMap<>();
+                    if (error != null) {
+                        for (String key : keys) {
+                            failures.put(key, "Error deleting file from S3");
+                        }
+                    } else {
+                        for (S3Error s3Error : response.errors()) {
+                            failures.put(s3Error.key(), "Error deleting file from S3: " + s3Error.message());
+                        }
+                    }
+                    return failures;
+                });
+    }
+
+    private PutObjectRequest putObjectRequest(String key, long size) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("Content-Type", "application/octet-stream");
+        metadata.put("Content-Length", String.valueOf(size));
+
+        return PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .metadata(metadata)
+                .build();
+    }
+
+    private DeleteObjectsRequest deleteObjectsRequest(List<String> keys) {
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+
+        return DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build();
+    }
+
+    private void recordPresign(long start, String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("rom.s3.presign")
+                .description("Time spent signing S3 download URLs")
+                .tag("endpoint", RequestEndpoint.current())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
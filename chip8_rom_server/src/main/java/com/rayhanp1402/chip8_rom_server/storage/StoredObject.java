@@ -0,0 +1,8 @@
+package com.rayhanp1402.chip8_rom_server.storage;
+
+import java.time.Instant;
+
+/**
+ * One entry of a storage listing.
+ */
+public record StoredObject(String key, long size, Instant lastModified) {}
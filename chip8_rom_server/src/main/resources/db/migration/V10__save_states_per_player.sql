@@ -0,0 +1,10 @@
+-- Save states belong to the player, not to the owner of the ROM, so anyone who can play a public ROM can save it.
+-- States are keyed by player and by the ROM they were made on, (owner_id, rom_name), and still go with the ROM.
+ALTER TABLE rom_save_states DROP CONSTRAINT IF EXISTS rom_save_states_user_id_rom_name_fkey;
+ALTER TABLE rom_save_states DROP CONSTRAINT IF EXISTS rom_save_states_pkey;
+ALTER TABLE rom_save_states RENAME COLUMN user_id TO player_id;
+ALTER TABLE rom_save_states ADD COLUMN owner_id UUID;
+UPDATE rom_save_states SET owner_id = player_id;
+ALTER TABLE rom_save_states ALTER COLUMN owner_id SET NOT NULL;
+ALTER TABLE rom_save_states ADD PRIMARY KEY (player_id, owner_id, rom_name, slot);
+ALTER TABLE rom_save_states ADD FOREIGN KEY (owner_id, rom_name) REFERENCES roms (user_id, rom_name) ON DELETE CASCADE;
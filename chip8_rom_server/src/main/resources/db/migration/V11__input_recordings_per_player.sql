@@ -0,0 +1,11 @@
+-- Recordings belong to the player who made them. owner_id names the owner of the ROM they were played on, so
+-- public ROMs can be recorded by anyone; user_id stays the recorder. Recordings still go with the ROM.
+ALTER TABLE rom_input_recordings DROP CONSTRAINT IF EXISTS rom_input_recordings_user_id_rom_name_fkey;
+ALTER TABLE rom_input_recordings ADD COLUMN owner_id UUID;
+UPDATE rom_input_recordings SET owner_id = user_id;
+ALTER TABLE rom_input_recordings ALTER COLUMN owner_id SET NOT NULL;
+ALTER TABLE rom_input_recordings ADD FOREIGN KEY (owner_id, rom_name) REFERENCES roms (user_id, rom_name) ON DELETE CASCADE;
+
+DROP INDEX IF EXISTS idx_rom_input_recordings_rom;
+CREATE INDEX IF NOT EXISTS idx_rom_input_recordings_rom
+    ON rom_input_recordings (user_id, owner_id, rom_name, created_at DESC);
@@ -0,0 +1,8 @@
+-- Baseline of the schema that existed before migrations were introduced.
+-- Existing databases are baselined at version 1, so this only runs on an empty database.
+CREATE TABLE IF NOT EXISTS roms (
+    user_id   UUID         NOT NULL,
+    rom_name  VARCHAR(255) NOT NULL,
+    is_public BOOLEAN      NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (user_id, rom_name)
+);
@@ -0,0 +1,4 @@
+-- Serves keyset pagination for both listings:
+--   public:   WHERE is_public = TRUE  ORDER BY user_id, rom_name
+--   personal: WHERE is_public = FALSE AND user_id = ? ORDER BY rom_name
+CREATE INDEX IF NOT EXISTS idx_roms_public_user_name ON roms (is_public, user_id, rom_name);
@@ -0,0 +1,13 @@
+-- ROM bytes are stored once per SHA-256 under blobs/<content_hash>; rows in roms reference them.
+-- ref_count is the number of roms rows pointing at a blob; the object is removed when it drops to zero.
+CREATE TABLE IF NOT EXISTS rom_blobs (
+    content_hash CHAR(64)    NOT NULL PRIMARY KEY,
+    size_bytes   INTEGER     NOT NULL,
+    ref_count    INTEGER     NOT NULL CHECK (ref_count >= 0),
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- NULL for ROMs uploaded before deduplication, which still live under <user_id>/<rom_name>
+ALTER TABLE roms ADD COLUMN IF NOT EXISTS content_hash CHAR(64) REFERENCES rom_blobs (content_hash);
+
+CREATE INDEX IF NOT EXISTS idx_roms_content_hash ON roms (content_hash);
@@ -0,0 +1,3 @@
+-- Static analysis of the blob's CHIP-8 code as JSON, computed once when the content is first stored.
+-- NULL for blobs stored before analysis existed, those are filled in on first request.
+ALTER TABLE rom_blobs ADD COLUMN IF NOT EXISTS analysis BYTEA;
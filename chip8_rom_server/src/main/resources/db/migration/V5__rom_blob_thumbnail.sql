@@ -0,0 +1,3 @@
+-- 64x32 PNG preview of the blob's ROM, rendered by the headless interpreter when the content is first stored.
+-- NULL until rendered for blobs stored earlier, see the romthumbnails actuator endpoint.
+ALTER TABLE rom_blobs ADD COLUMN IF NOT EXISTS thumbnail BYTEA;
@@ -0,0 +1,13 @@
+-- Public download counts per ROM. Counted in memory and added in one batched upsert per flush interval,
+-- so serving a download never writes to the database.
+CREATE TABLE IF NOT EXISTS rom_downloads (
+    user_id    UUID         NOT NULL,
+    rom_name   VARCHAR(255) NOT NULL,
+    downloads  BIGINT       NOT NULL CHECK (downloads >= 0),
+    updated_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, rom_name),
+    FOREIGN KEY (user_id, rom_name) REFERENCES roms (user_id, rom_name) ON DELETE CASCADE
+);
+
+-- Loads the most downloaded ROMs at startup
+CREATE INDEX IF NOT EXISTS idx_rom_downloads_downloads ON rom_downloads (downloads DESC);
@@ -0,0 +1,12 @@
+-- Emulator save states, a few slots per ROM. state is the Chip8StateCodec encoding: a delta against the ROM's
+-- initial memory image, run-length encoded, typically a few dozen bytes.
+CREATE TABLE IF NOT EXISTS rom_save_states (
+    user_id    UUID         NOT NULL,
+    rom_name   VARCHAR(255) NOT NULL,
+    slot       SMALLINT     NOT NULL CHECK (slot >= 0),
+    state      BYTEA        NOT NULL,
+    size_bytes INTEGER      NOT NULL,
+    updated_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, rom_name, slot),
+    FOREIGN KEY (user_id, rom_name) REFERENCES roms (user_id, rom_name) ON DELETE CASCADE
+);
@@ -0,0 +1,18 @@
+-- Keypad recordings for replays. runs is the InputRecordingCodec encoding without its header, appended to in
+-- chunks while the game is played; frames and last_mask describe the end of it so a chunk can be checked and
+-- appended without reading the runs. rom_hash is the SHA-256 of the ROM the inputs were played on.
+CREATE TABLE IF NOT EXISTS rom_input_recordings (
+    id         UUID         NOT NULL PRIMARY KEY,
+    user_id    UUID         NOT NULL,
+    rom_name   VARCHAR(255) NOT NULL,
+    rom_hash   CHAR(64)     NOT NULL,
+    frames     BIGINT       NOT NULL DEFAULT 0,
+    last_mask  INTEGER      NOT NULL DEFAULT 0,
+    size_bytes INTEGER      NOT NULL DEFAULT 0,
+    runs       BYTEA        NOT NULL DEFAULT ''::BYTEA,
+    created_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    FOREIGN KEY (user_id, rom_name) REFERENCES roms (user_id, rom_name) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_rom_input_recordings_rom ON rom_input_recordings (user_id, rom_name, created_at DESC);
@@ -0,0 +1,5 @@
+-- Storage reconciliation walks ROMs stored before deduplication in the byte order of their object key,
+-- <user_id>/<rom_name>, which is the order storage lists keys in
+CREATE INDEX IF NOT EXISTS idx_roms_legacy_object_key
+    ON roms (((CAST(user_id AS TEXT) || '/' || rom_name) COLLATE "C"))
+    WHERE content_hash IS NULL;
@@ -0,0 +1,64 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.cache.BoundedExpiringMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedExpiringMapTest {
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void shouldDropExpiredEntriesFirst() {
+        BoundedExpiringMap<String, Long> map = new BoundedExpiringMap<>(10, Long::longValue, clock::get);
+        for (int i = 0; i < 10; i++) {
+            map.put("stale-" + i, 1_000L + i);
+        }
+        clock.set(1_100);
+
+        map.put("fresh", 2_000L);
+        assertEquals(1, map.size());
+        assertEquals(10, map.getEvictions());
+        assertEquals(2_000L, map.get("fresh"));
+    }
+
+    @Test
+    void shouldTrimNearestDeadlinesToNinetyPercent() {
+        BoundedExpiringMap<Integer, Long> map = new BoundedExpiringMap<>(10_000, Long::longValue, clock::get);
+        // Deadlines spread over the next 10,000 ticks, inserted in no particular order
+        for (int i = 0; i < 10_001; i++) {
+            int key = (int) ((i * 7919L) % 10_001);
+            map.put(key, clock.get() + 1 + key);
+        }
+
+        // Estimated from a sample, so roughly 9,000 remain, and the latest deadlines are kept
+        assertTrue(map.size() > 8_000 && map.size() < 10_000, "size " + map.size());
+        assertEquals(10_001 - map.size(), map.getEvictions());
+        assertNull(map.get(0));
+        assertNotNull(map.get(10_000));
+    }
+
+    @Test
+    void shouldCompareDeadlinesAcrossClockOverflow() {
+        clock.set(Long.MAX_VALUE - 5);
+        BoundedExpiringMap<String, Long> map = new BoundedExpiringMap<>(1, Long::longValue, clock::get);
+
+        map.put("later", Long.MIN_VALUE + 10);
+        map.put("sooner", Long.MAX_VALUE - 1);
+        assertEquals(1, map.size());
+        assertNotNull(map.get("later"));
+    }
+
+    @Test
+    void shouldOnlyEvictTheValueThatWasSeen() {
+        BoundedExpiringMap<String, Long> map = new BoundedExpiringMap<>(10, Long::longValue, clock::get);
+        map.put("key", 1_500L);
+
+        assertFalse(map.evict("key", 1_200L));
+        assertTrue(map.evict("key", 1_500L));
+        assertFalse(map.evict("key"));
+        assertEquals(1, map.getEvictions());
+    }
+}
@@ -0,0 +1,96 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.datasource.BulkheadDataSource;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BulkheadDataSourceTest {
+    private DataSource pool;
+    private BulkheadDataSource bulkhead;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        bulkhead = new BulkheadDataSource(pool, 1, Duration.ofMillis(200));
+        registry = new SimpleMeterRegistry();
+        bulkhead.bindTo(registry);
+    }
+
+    @Test
+    void shouldQueueCallersUntilConnectionIsClosed() throws Exception {
+        Connection first = bulkhead.getConnection();
+        assertEquals(0, bulkhead.getAvailablePermits());
+
+        CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.getConnection();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Wait until the second caller is parked in the bulkhead
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (bulkhead.getQueueLength() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1.0, registry.get("rom.db.bulkhead.queue").gauge().value());
+
+        first.close();
+        first.close();
+
+        Connection connection = second.get(1, TimeUnit.SECONDS);
+        assertNotNull(connection);
+        assertEquals(0, bulkhead.getAvailablePermits());
+
+        connection.close();
+        assertEquals(1, bulkhead.getAvailablePermits());
+        assertEquals(2, registry.get("rom.db.bulkhead.wait").timer().count());
+    }
+
+    @Test
+    void shouldFailFastWhenBulkheadStaysFull() throws SQLException {
+        Connection held = bulkhead.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> bulkhead.getConnection());
+
+        held.close();
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void shouldReleasePermitWhenPoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("Pool is down"));
+
+        assertThrows(SQLException.class, () -> bulkhead.getConnection());
+
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void shouldExposeWrappedHikariPoolForMetrics() {
+        // Boot's Hikari metrics find the pool the same way
+        HikariDataSource hikari = new HikariDataSource();
+        BulkheadDataSource wrapped = new BulkheadDataSource(hikari, 5, Duration.ofSeconds(1));
+
+        assertSame(hikari, DataSourceUnwrapper.unwrap(wrapped, HikariConfigMXBean.class, HikariDataSource.class));
+    }
+}
@@ -0,0 +1,110 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.security.CachingJwtDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingJwtDecoderTest {
+    private final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+    private MutableClock clock;
+    private JwtDecoder delegate;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock(now);
+        delegate = mock(JwtDecoder.class);
+        decoder = new CachingJwtDecoder(delegate, 2, clock);
+    }
+
+    @Test
+    void shouldVerifyTokenOnceUntilItExpires() {
+        Jwt jwt = jwt("token-a", now.plus(Duration.ofHours(1)));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("token-a"));
+        assertSame(jwt, decoder.decode("token-a"));
+        verify(delegate, times(1)).decode("token-a");
+        assertEquals(1, decoder.getHits());
+        assertEquals(1, decoder.getMisses());
+
+        clock.instant = now.plus(Duration.ofHours(1));
+        decoder.decode("token-a");
+        verify(delegate, times(2)).decode("token-a");
+    }
+
+    @Test
+    void shouldNotCacheFailuresOrTokensWithoutExpiry() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("Invalid signature"));
+        when(delegate.decode("forever")).thenReturn(jwt("forever", null));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        decoder.decode("forever");
+        decoder.decode("forever");
+
+        verify(delegate, times(2)).decode("bad");
+        verify(delegate, times(2)).decode("forever");
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void shouldStayWithinMaxEntries() {
+        for (int i = 0; i < 5; i++) {
+            String token = "token-" + i;
+            when(delegate.decode(token)).thenReturn(jwt(token, now.plus(Duration.ofMinutes(10 + i))));
+            decoder.decode(token);
+        }
+
+        assertTrue(decoder.size() <= 2);
+        // The latest expiring token survives
+        decoder.decode("token-4");
+        verify(delegate, times(1)).decode("token-4");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("user")
+                .issuedAt(Instant.parse("2024-12-31T23:00:00Z"));
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
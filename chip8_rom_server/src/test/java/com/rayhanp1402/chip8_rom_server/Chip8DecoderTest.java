@@ -0,0 +1,79 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Decoder;
+import com.rayhanp1402.chip8_rom_server.chip8.Quirk;
+import com.rayhanp1402.chip8_rom_server.chip8.RomAnalysis;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Chip8DecoderTest {
+
+    private static byte[] rom(int... words) {
+        byte[] bytes = new byte[words.length * 2];
+        for (int i = 0; i < words.length; i++) {
+            bytes[2 * i] = (byte) (words[i] >> 8);
+            bytes[2 * i + 1] = (byte) words[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    void shouldTraceReachableCodeAndSkipData() {
+        RomAnalysis analysis = Chip8Decoder.analyze(rom(
+                0x00E0,     // 200 CLS
+                0x2208,     // 202 CALL 0x208
+                0x3001,     // 204 SE V0, 0x01
+                0x1206,     // 206 JP 0x206 (halt)
+                0x8016,     // 208 SHR V0, V1
+                0x00EE,     // 20A RET
+                0xFFFF      // 20C sprite data, never executed
+        ));
+
+        assertTrue(analysis.isValid());
+        assertEquals(6, analysis.instructionCount());
+        assertEquals(List.of(
+                "200 00E0 CLS",
+                "202 2208 CALL 0x208",
+                "204 3001 SE V0, 0x01",
+                "206 1206 JP 0x206",
+                "208 8016 SHR V0, V1",
+                "20A 00EE RET"
+        ), analysis.disassembly());
+        assertEquals(Map.of("00E0", 1, "00EE", 1, "1NNN", 1, "2NNN", 1, "3XNN", 1, "8XY6", 1),
+                analysis.opcodeHistogram());
+        assertEquals(Set.of(Quirk.SHIFT), analysis.quirks());
+
+        BitSet reachable = BitSet.valueOf(Base64.getDecoder().decode(analysis.reachableCode()));
+        assertTrue(reachable.get(0x208 - 0x200));
+        assertFalse(reachable.get(0x20C - 0x200));
+    }
+
+    @Test
+    void shouldReportIllegalOpcodeOnReachablePath() {
+        RomAnalysis analysis = Chip8Decoder.analyze(rom(0x4000, 0x1204, 0x5121));
+
+        assertFalse(analysis.isValid());
+        assertEquals(List.of("illegal opcode 0x5121 at 0x204"), analysis.problems());
+        assertThrows(IllegalArgumentException.class, analysis::requireValid);
+    }
+
+    @Test
+    void shouldReportJumpOutsideTheRom() {
+        RomAnalysis analysis = Chip8Decoder.analyze(rom(0x1300));
+
+        assertEquals(List.of("JP to 0x300 outside the ROM at 0x200"), analysis.problems());
+    }
+
+    @Test
+    void shouldRejectRomLargerThanTheAddressSpace() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Chip8Decoder.analyze(new byte[Chip8Decoder.MAX_ROM_BYTES + 1]));
+    }
+}
@@ -0,0 +1,83 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Interpreter;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Thumbnail;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Chip8InterpreterTest {
+
+    private static byte[] rom(int... words) {
+        byte[] bytes = new byte[words.length * 2];
+        for (int i = 0; i < words.length; i++) {
+            bytes[2 * i] = (byte) (words[i] >> 8);
+            bytes[2 * i + 1] = (byte) words[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    void shouldDrawFontSpriteAndDetectCollision() {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(rom(
+                0x6000,     // LD V0, 0x00
+                0xF029,     // LD F, V0
+                0xD005,     // DRW V0, V0, 5
+                0xD005,     // DRW V0, V0, 5 (erases it again)
+                0x1208      // JP 0x208
+        ));
+
+        interpreter.run(3);
+        assertTrue(interpreter.isPixelOn(0, 0));
+        assertTrue(interpreter.isPixelOn(3, 0));
+        assertFalse(interpreter.isPixelOn(4, 0));
+        assertFalse(interpreter.isPixelOn(1, 1));
+        assertEquals(14, interpreter.litPixels());
+
+        interpreter.run(1);
+        assertEquals(0, interpreter.litPixels());
+    }
+
+    @Test
+    void shouldWrapSpritesAtTheRightEdge() {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(rom(0x603E, 0x6100, 0xF129, 0xD015, 0x1208));
+
+        interpreter.run(4);
+
+        assertTrue(interpreter.isPixelOn(62, 0));
+        assertTrue(interpreter.isPixelOn(63, 0));
+        assertTrue(interpreter.isPixelOn(0, 0));
+        assertTrue(interpreter.isPixelOn(1, 0));
+        assertFalse(interpreter.isPixelOn(2, 0));
+    }
+
+    @Test
+    void shouldHaltOnUnknownOpcode() {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(rom(0x6001, 0x0123));
+
+        assertEquals(2, interpreter.run(100));
+        assertTrue(interpreter.isHalted());
+    }
+
+    @Test
+    void shouldRenderSameThumbnailOnEveryRun() throws IOException {
+        // Draws random bytes as sprites, so the picture depends on the random generator being deterministic
+        byte[] rom = rom(0xC0FF, 0xC13F, 0xC21F, 0xA300, 0xF055, 0xD125, 0x1200);
+
+        byte[] first = Chip8Thumbnail.render(rom);
+        byte[] second = Chip8Thumbnail.render(rom);
+
+        assertArrayEquals(first, second);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(first));
+        assertEquals(Chip8Interpreter.WIDTH, image.getWidth());
+        assertEquals(Chip8Interpreter.HEIGHT, image.getHeight());
+    }
+}
@@ -1,20 +1,48 @@
 package com.rayhanp1402.chip8_rom_server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PresignedUrlCache;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomThumbnailCache;
+import com.rayhanp1402.chip8_rom_server.datasource.ReplicaRoutingDataSource;
+import com.rayhanp1402.chip8_rom_server.dto.RomDeleteResult;
+import com.rayhanp1402.chip8_rom_server.dto.RomPage;
+import com.rayhanp1402.chip8_rom_server.dto.RomSummary;
+import com.rayhanp1402.chip8_rom_server.dto.RomUpload;
+import com.rayhanp1402.chip8_rom_server.dto.RomUploadResult;
 import com.rayhanp1402.chip8_rom_server.model.Rom;
 import com.rayhanp1402.chip8_rom_server.model.RomId;
 import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
 import com.rayhanp1402.chip8_rom_server.service.RomService;
+import com.rayhanp1402.chip8_rom_server.storage.S3RomStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -23,18 +51,25 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class Chip8RomServerApplicationTests {
-    @InjectMocks
     private RomService romService;
 
+    private S3RomStorage romStorage;
+
     @Mock
     private RomRepository romRepository;
 
@@ -50,6 +85,21 @@ public class Chip8RomServerApplicationTests {
     @Mock
     private S3Presigner s3Presigner;
 
+    @Mock
+    private RomBlobService romBlobService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private PresignedUrlCache presignedUrlCache = new PresignedUrlCache(100, Duration.ofMinutes(2));
+
+    @Spy
+    private RomContentCache romContentCache = new RomContentCache(1024 * 1024, 4096);
+
+    @Spy
+    private RomThumbnailCache romThumbnailCache = new RomThumbnailCache(100);
+
     private UUID userId;
     private String romName;
     private RomId romId;
@@ -57,6 +107,11 @@ public class Chip8RomServerApplicationTests {
 
     @BeforeEach
     void setup() {
+        this.romStorage = new S3RomStorage(s3Client, s3Presigner);
+        this.romStorage.setBucketName("chip8-test");
+        this.romService = new RomService(romRepository, romStorage, objectMapper, presignedUrlCache, romContentCache,
+                romBlobService, romThumbnailCache);
+
         this.userId = UUID.randomUUID();
         this.romName = "TestRom.ch8";
         this.romId = new RomId(userId, romName);
@@ -71,6 +126,25 @@ public class Chip8RomServerApplicationTests {
         );
     }
 
+    private static RomSummary summary(UUID userId, String romName, boolean isPublic) {
+        return new RomSummary() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getRomName() {
+                return romName;
+            }
+
+            @Override
+            public boolean getIsPublic() {
+                return isPublic;
+            }
+        };
+    }
+
     @Test
     public void getRomsByUserIdAndIsPublic() {
         boolean isPublic = true;
@@ -99,6 +173,53 @@ public class Chip8RomServerApplicationTests {
         verify(romRepository, times(1)).findByIsPublic(isPublic);
     }
 
+    @Test
+    void shouldServePublicCatalogFromCache() {
+        List<Rom> expectedRoms = createExpectedRoms(userId);
+
+        when(romRepository.findByIsPublic(true)).thenReturn(expectedRoms);
+
+        PublicRomCatalog first = romService.getPublicCatalog();
+        PublicRomCatalog second = romService.getPublicCatalog();
+
+        assertSame(first, second);
+        assertEquals(expectedRoms, first.roms());
+        assertTrue(first.eTag().startsWith("\"") && first.eTag().endsWith("\""));
+        verify(romRepository, times(1)).findByIsPublic(true);
+    }
+
+    @Test
+    void shouldDerivePublicCatalogETagIndependentOfRowOrder() {
+        List<Rom> roms = new ArrayList<>(createExpectedRoms(userId));
+        roms.add(new Rom(new RomId(UUID.randomUUID(), "Brix.ch8"), true));
+        List<Rom> reversed = new ArrayList<>(roms);
+        Collections.reverse(reversed);
+
+        PublicRomCatalog catalog = PublicRomCatalog.of(1, roms, new ObjectMapper());
+        PublicRomCatalog reordered = PublicRomCatalog.of(1, reversed, new ObjectMapper());
+
+        assertEquals(catalog.eTag(), reordered.eTag());
+        assertArrayEquals(catalog.json(), reordered.json());
+        assertEquals(catalog.roms(), reordered.roms());
+    }
+
+    @Test
+    void shouldReloadPublicCatalogAfterPublicRomIsSaved() throws IOException {
+        when(romRepository.findByIsPublic(true)).thenReturn(createExpectedRoms(userId));
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PublicRomCatalog before = romService.getPublicCatalog();
+        romService.saveRom(userId, romName, true, file);
+        PublicRomCatalog after = romService.getPublicCatalog();
+
+        assertNotSame(before, after);
+        assertEquals(before.eTag(), after.eTag());
+        verify(romRepository, times(2)).findByIsPublic(true);
+    }
+
     @Test
     void shouldThrowErrorForInvalidFileExtension() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -155,6 +276,151 @@ public class Chip8RomServerApplicationTests {
         verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
     }
 
+    @Test
+    void shouldReadOwnRomsFromPrimaryRightAfterUpload() throws IOException {
+        List<Boolean> replicaReads = new ArrayList<>();
+        when(romRepository.findUserPageAfter(any(UUID.class), eq(false), eq(""), eq(11))).thenAnswer(invocation -> {
+            replicaReads.add(ReplicaRoutingDataSource.isReplicaRead());
+            return List.of();
+        });
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        romService.getPersonalRomPage(userId, null, 10);
+        romService.saveRom(userId, romName, false, file);
+        romService.getPersonalRomPage(userId, null, 10);
+        romService.getPersonalRomPage(UUID.randomUUID(), null, 10);
+
+        // The replica may not have the new row yet, only its owner's reads move to the primary
+        assertEquals(List.of(true, false, true), replicaReads);
+    }
+
+    @Test
+    void shouldRemoveUploadedObjectWhenDatabaseSaveFails() throws IOException {
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenThrow(new DataAccessResourceFailureException("Connection lost"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> romService.saveRom(userId, romName, false, file));
+
+        verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(romBlobService, times(1)).releaseReferences(RomBlobService.sha256(fileContent), 1);
+    }
+
+    @Test
+    void shouldKeepUploadedObjectWhenAnotherNodeSavedSameRom() throws IOException {
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(IllegalArgumentException.class, () -> romService.saveRom(userId, romName, false, file));
+
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(romBlobService, times(1)).releaseReferences(RomBlobService.sha256(fileContent), 1);
+    }
+
+    @Test
+    void shouldStoreObjectAgainWhenConcurrentUploadRemovedItBeforeRegistering() throws IOException {
+        String contentHash = RomBlobService.sha256(fileContent);
+        String objectKey = RomBlobService.objectKey(contentHash);
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            stored.add(invocation.<PutObjectRequest>getArgument(0).key());
+            return PutObjectResponse.builder().build();
+        });
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenAnswer(invocation -> {
+            if (!stored.contains(invocation.<HeadObjectRequest>getArgument(0).key())) {
+                throw NoSuchKeyException.builder().statusCode(404).build();
+            }
+            return HeadObjectResponse.builder().build();
+        });
+        // Another upload of the same bytes missed too and registered first; its ROM was deleted after this
+        // upload's put, and the release removed the object and the row, so this registration inserts a fresh row
+        when(romBlobService.registerBlob(eq(contentHash), eq(fileContent.length), eq(1), any()))
+                .thenAnswer(invocation -> {
+                    stored.remove(objectKey);
+                    return true;
+                });
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        romService.saveRom(userId, romName, false, file);
+
+        assertTrue(stored.contains(objectKey));
+        verify(s3Client, times(2)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(romBlobService, never()).releaseReferences(any(), anyInt());
+    }
+
+    @Test
+    void shouldNotUploadContentThatIsAlreadyStored() throws IOException {
+        String contentHash = RomBlobService.sha256(fileContent);
+        when(file.getSize()).thenReturn((long) fileContent.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romBlobService.tryAddReferences(contentHash, 1)).thenReturn(true);
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Rom savedRom = romService.saveRom(userId, romName, false, file);
+
+        assertEquals(contentHash, savedRom.getContentHash());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(romBlobService, never()).registerBlob(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void shouldRejectRomWithIllegalOpcode() throws IOException {
+        byte[] illegalRom = {(byte) 0x60, 0x01, (byte) 0xFF, (byte) 0xFF};
+        when(file.getSize()).thenReturn((long) illegalRom.length);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(illegalRom));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> romService.saveRom(userId, romName, false, file));
+
+        assertEquals("Invalid CHIP-8 ROM: illegal opcode 0xFFFF at 0x202", exception.getMessage());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(romRepository, never()).save(any(Rom.class));
+    }
+
+    @Test
+    void shouldReleaseContentReferenceWhenDeletingDeduplicatedRom() {
+        when(romRepository.findById(romId)).thenReturn(Optional.of(new Rom(romId, false, "abc")));
+
+        romService.deleteRom(userId, romName);
+
+        verify(romRepository, times(1)).deleteById(romId);
+        verify(romBlobService, times(1)).releaseReferences("abc", 1);
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    @Test
+    void shouldRetryReleaseThatFailed() {
+        when(romRepository.findById(romId)).thenReturn(Optional.of(new Rom(romId, false, "abc")));
+        doThrow(new IllegalStateException("Database unavailable")).doNothing()
+                .when(romBlobService).releaseReferences("abc", 1);
+
+        // The row is gone, so the delete succeeds and the reference is released later
+        romService.deleteRom(userId, romName);
+        assertEquals(1, romService.getPendingReleases());
+
+        romService.retryPendingReleases();
+        verify(romBlobService, times(2)).releaseReferences("abc", 1);
+        assertEquals(0, romService.getPendingReleases());
+    }
+
+    @Test
+    void shouldKeepContentHashOutOfRomJson() throws Exception {
+        String json = objectMapper.writeValueAsString(new Rom(romId, true, "abc"));
+
+        assertFalse(json.contains("abc"), json);
+        assertTrue(json.contains(romName), json);
+    }
+
     @Test
     void shouldThrowErrorWhenRomNotFound() {
         when(romRepository.findById(romId)).thenReturn(Optional.empty());
@@ -249,4 +515,178 @@ public class Chip8RomServerApplicationTests {
         assertNotNull(result);
         assertEquals(mockUrl, result);
     }
+
+    @Test
+    void shouldReusePresignedUrlUntilRomIsDeleted() {
+        Rom personalRom = new Rom(romId, false);
+        when(romRepository.findById(romId)).thenReturn(Optional.of(personalRom));
+
+        URL mockUrl = mock(URL.class);
+        PresignedGetObjectRequest presignedRequest = mock(PresignedGetObjectRequest.class);
+        when(presignedRequest.url()).thenReturn(mockUrl);
+
+        when(s3Presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(presignedRequest);
+
+        assertEquals(mockUrl, romService.getPersonalRomDownloadUrl(userId, romName));
+        assertEquals(mockUrl, romService.getPersonalRomDownloadUrl(userId, romName));
+
+        verify(romRepository, times(1)).findById(romId);
+        verify(s3Presigner, times(1)).presignGetObject(any(GetObjectPresignRequest.class));
+        assertEquals(1, presignedUrlCache.getHits());
+        assertEquals(1, presignedUrlCache.getMisses());
+
+        // A cached personal URL must not leak through the public endpoint
+        assertThrows(IllegalArgumentException.class, () -> romService.getPublicRomDownloadUrl(userId, romName));
+
+        romService.deleteRom(userId, romName);
+
+        assertEquals(1, presignedUrlCache.getEvictions());
+        assertEquals(0, presignedUrlCache.size());
+    }
+
+    @Test
+    void shouldServePublicRomContentFromCache() {
+        when(romRepository.findById(romId)).thenReturn(Optional.of(new Rom(romId, true)));
+        when(s3Client.getObjectAsBytes(any(GetObjectRequest.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), fileContent));
+
+        RomContent first = romService.getPublicRomContent(userId, romName);
+        RomContent second = romService.getPublicRomContent(userId, romName);
+
+        assertArrayEquals(fileContent, first.bytes());
+        assertSame(first, second);
+        verify(romRepository, times(1)).findById(romId);
+        verify(s3Client, times(1)).getObjectAsBytes(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void shouldServeStoredThumbnailFromCache() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+        when(romRepository.findById(romId)).thenReturn(Optional.of(new Rom(romId, true, "abc")));
+        when(romBlobService.getThumbnail("abc")).thenReturn(Optional.of(png));
+
+        RomContent first = romService.getPublicRomThumbnail(userId, romName);
+        RomContent second = romService.getPublicRomThumbnail(userId, romName);
+
+        assertArrayEquals(png, first.bytes());
+        assertSame(first, second);
+        verify(romRepository, times(1)).findById(romId);
+        verify(s3Client, never()).getObjectAsBytes(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void shouldRejectPrivateRomContentOnPublicEndpoint() {
+        when(romRepository.findById(romId)).thenReturn(Optional.of(new Rom(romId, false)));
+        when(s3Client.getObjectAsBytes(any(GetObjectRequest.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), fileContent));
+
+        assertThrows(IllegalArgumentException.class, () -> romService.getPublicRomContent(userId, romName));
+        assertArrayEquals(fileContent, romService.getPersonalRomContent(userId, romName).bytes());
+    }
+
+    @Test
+    void shouldDeleteRomsInBatch() {
+        RomId publicRomId = new RomId(userId, "Pong.ch8");
+        RomId missingRomId = new RomId(userId, "Missing.ch8");
+        RomId failingRomId = new RomId(userId, "Failing.ch8");
+
+        when(romRepository.findAllById(any())).thenReturn(List.of(
+                new Rom(romId, false),
+                new Rom(publicRomId, true),
+                new Rom(failingRomId, false)
+        ));
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key(userId + "/Failing.ch8").message("Access Denied").build())
+                .build());
+
+        List<RomDeleteResult> results = romService.deleteRoms(List.of(romId, publicRomId, missingRomId, failingRomId));
+
+        assertEquals(4, results.size());
+        assertEquals(RomDeleteResult.Status.DELETED, results.get(0).getStatus());
+        assertEquals(RomDeleteResult.Status.PUBLIC, results.get(1).getStatus());
+        assertEquals(RomDeleteResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(RomDeleteResult.Status.STORAGE_ERROR, results.get(3).getStatus());
+
+        verify(romRepository, times(1)).findAllById(any());
+        verify(s3Client, times(1)).deleteObjects(any(DeleteObjectsRequest.class));
+        verify(romRepository, times(1)).deleteAllByIdInBatch(List.of(romId));
+    }
+
+    @Test
+    void shouldSaveRomsInBulk() {
+        when(romRepository.findAllById(any())).thenReturn(List.of(new Rom(new RomId(userId, "Pong.ch8"), false)));
+
+        List<RomUploadResult> results = romService.saveRoms(userId, List.of(
+                new RomUpload(romName, fileContent),
+                new RomUpload("Pong.ch8", fileContent),
+                new RomUpload("notes.txt", fileContent),
+                new RomUpload("Tetris.ch8", fileContent)
+        ), false);
+
+        assertEquals(RomUploadResult.Status.SAVED, results.get(0).getStatus());
+        assertEquals(RomUploadResult.Status.ALREADY_EXISTS, results.get(1).getStatus());
+        assertEquals(RomUploadResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals(RomUploadResult.Status.SAVED, results.get(3).getStatus());
+
+        verify(romRepository, times(1)).findAllById(any());
+        verify(romRepository, times(1)).saveAll(any());
+        verify(romRepository, never()).existsById(any());
+        // Both saved ROMs have the same bytes, which are stored once with two references
+        verify(s3Client, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(romBlobService, times(1)).registerBlob(eq(RomBlobService.sha256(fileContent)), eq(fileContent.length),
+                eq(2), any());
+    }
+
+    @Test
+    void shouldSaveRomThroughAsyncClient() throws IOException {
+        S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+        romStorage.setS3AsyncClient(s3AsyncClient);
+
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+        when(romRepository.existsById(romId)).thenReturn(false);
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        Rom savedRom = romService.saveRomAsync(userId, romName, false, file).join();
+
+        assertEquals(romId, savedRom.getId());
+        verify(s3AsyncClient, times(1)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void shouldPagePublicRomsWithKeysetCursor() {
+        when(romRepository.findPublicPage(3)).thenReturn(List.of(
+                summary(userId, "Pong.ch8", true),
+                summary(userId, "Space Invaders.ch8", true),
+                summary(userId, "Tetris.ch8", true)
+        ));
+        when(romRepository.findPublicPageAfter(userId, "Space Invaders.ch8", 3)).thenReturn(List.of(
+                summary(userId, "Tetris.ch8", true)
+        ));
+
+        RomPage first = romService.getPublicRomPage(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        RomPage second = romService.getPublicRomPage(first.getNextCursor(), 2);
+        assertEquals("Tetris.ch8", second.getItems().get(0).getRomName());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectCursorOfAnotherUser() {
+        when(romRepository.findUserPageAfter(userId, false, "", 2)).thenReturn(List.of(
+                summary(userId, "A.ch8", false),
+                summary(userId, "B.ch8", false)
+        ));
+
+        String cursor = romService.getPersonalRomPage(userId, null, 1).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> romService.getPersonalRomPage(UUID.randomUUID(), cursor, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> romService.getPersonalRomPage(userId, "not-a-cursor", 1));
+    }
 }
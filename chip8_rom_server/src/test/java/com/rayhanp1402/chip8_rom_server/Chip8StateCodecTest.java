@@ -0,0 +1,101 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Interpreter;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8State;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8StateCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Chip8StateCodecTest {
+    // Counts up forever, storing the counter's digits in memory and drawing the first one
+    private static final byte[] COUNTER_ROM = {
+            0x00, (byte) 0xE0,          // 200: CLS
+            0x60, 0x00,                 // 202: LD V0, 0
+            0x61, 0x05,                 // 204: LD V1, 5
+            (byte) 0xA3, 0x00,          // 206: LD I, 0x300
+            (byte) 0xF0, 0x33,          // 208: LD B, V0
+            (byte) 0xF2, 0x65,          // 20A: LD V0..V2, [I]
+            (byte) 0xF0, 0x29,          // 20C: LD F, V0
+            (byte) 0xD1, 0x15,          // 20E: DRW V1, V1, 5
+            0x70, 0x01,                 // 210: ADD V0, 1
+            0x12, 0x02                  // 212: JP 0x202
+    };
+
+    @Test
+    void shouldEncodeRunningStateInFewBytes() {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(COUNTER_ROM);
+        interpreter.run(500);
+        Chip8State state = interpreter.snapshot();
+
+        byte[] encoded = Chip8StateCodec.encode(state, COUNTER_ROM);
+
+        assertTrue(encoded.length < 64, "Encoded state took " + encoded.length + " bytes");
+        assertSameState(state, Chip8StateCodec.decode(encoded, COUNTER_ROM));
+    }
+
+    @Test
+    void shouldResumeFromDecodedState() {
+        Chip8Interpreter original = new Chip8Interpreter();
+        original.load(COUNTER_ROM);
+        original.run(300);
+
+        Chip8Interpreter resumed = new Chip8Interpreter();
+        resumed.restore(Chip8StateCodec.decode(Chip8StateCodec.encode(original.snapshot(), COUNTER_ROM), COUNTER_ROM));
+
+        original.run(300);
+        resumed.run(300);
+        assertSameState(original.snapshot(), resumed.snapshot());
+    }
+
+    @Test
+    void shouldRoundTripArbitraryState() {
+        Random random = new Random(42);
+        byte[] memory = new byte[4096];
+        random.nextBytes(memory);
+        int[] v = random.ints(16, 0, 256).toArray();
+        int[] stack = random.ints(16, 0, 0x10000).toArray();
+        long[] display = random.longs(Chip8Interpreter.HEIGHT).toArray();
+        Chip8State state = new Chip8State(memory, v, 0xFFFF, 0x0FFE, 16, stack, 255, 1, display);
+
+        byte[] encoded = Chip8StateCodec.encode(state, COUNTER_ROM);
+
+        assertTrue(encoded.length <= Chip8StateCodec.MAX_ENCODED_SIZE);
+        assertSameState(state, Chip8StateCodec.decode(encoded, COUNTER_ROM));
+        assertSameState(state, Chip8StateCodec.fromPlain(Chip8StateCodec.toPlain(state)));
+    }
+
+    @Test
+    void shouldRejectStatesOfOtherRomsAndDamagedStates() {
+        Chip8Interpreter interpreter = new Chip8Interpreter();
+        interpreter.load(COUNTER_ROM);
+        interpreter.run(100);
+        byte[] encoded = Chip8StateCodec.encode(interpreter.snapshot(), COUNTER_ROM);
+
+        byte[] otherRom = COUNTER_ROM.clone();
+        otherRom[3] = 0x01;
+        assertThrows(IllegalArgumentException.class, () -> Chip8StateCodec.decode(encoded, otherRom));
+        assertThrows(IllegalArgumentException.class,
+                () -> Chip8StateCodec.decode(Arrays.copyOf(encoded, encoded.length - 1), COUNTER_ROM));
+        assertThrows(IllegalArgumentException.class,
+                () -> Chip8StateCodec.decode(Arrays.copyOf(encoded, encoded.length + 1), COUNTER_ROM));
+        assertThrows(IllegalArgumentException.class, () -> Chip8StateCodec.decode(new byte[]{1, 2, 3}, COUNTER_ROM));
+        assertThrows(IllegalArgumentException.class, () -> Chip8StateCodec.fromPlain(new byte[100]));
+    }
+
+    private static void assertSameState(Chip8State expected, Chip8State actual) {
+        assertArrayEquals(expected.memory(), actual.memory());
+        assertArrayEquals(expected.v(), actual.v());
+        assertArrayEquals(expected.stack(), actual.stack());
+        assertArrayEquals(expected.display(), actual.display());
+        assertEquals(expected.index(), actual.index());
+        assertEquals(expected.pc(), actual.pc());
+        assertEquals(expected.sp(), actual.sp());
+        assertEquals(expected.delay(), actual.delay());
+        assertEquals(expected.sound(), actual.sound());
+    }
+}
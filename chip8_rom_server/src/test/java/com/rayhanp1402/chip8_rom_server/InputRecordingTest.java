@@ -0,0 +1,151 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.chip8.InputRecordingCodec;
+import com.rayhanp1402.chip8_rom_server.controller.InputRecordingController;
+import com.rayhanp1402.chip8_rom_server.service.InputRecordingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class InputRecordingTest {
+    private static final int HOUR = 60 * 60 * 60;
+
+    private final byte[] romHash = new byte[32];
+
+    @Test
+    void shouldStoreAnHourOfPlayInAFewBytesPerKeyChange() {
+        int[] frames = play(HOUR, new Random(7));
+        int changes = 0;
+        for (int i = 1; i < frames.length; i++) {
+            if (frames[i] != frames[i - 1]) {
+                changes++;
+            }
+        }
+
+        byte[] recording = recording(InputRecordingCodec.encode(frames, frames.length, 0));
+
+        assertTrue(recording.length < InputRecordingCodec.HEADER_SIZE + (changes + 1) * 5 / 2,
+                recording.length + " bytes for " + changes + " key changes");
+        assertArrayEquals(frames, InputRecordingCodec.decode(recording, romHash));
+
+        // Nothing pressed for an hour is a single run
+        assertTrue(InputRecordingCodec.encode(new int[HOUR], HOUR, 0).length <= 8);
+    }
+
+    @Test
+    void shouldAppendChunksByteForByte() {
+        int[] frames = play(10_000, new Random(11));
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        long recorded = 0;
+        int lastMask = 0;
+
+        for (int start = 0; start < frames.length; start += 777) {
+            int[] part = Arrays.copyOfRange(frames, start, Math.min(frames.length, start + 777));
+            byte[] chunk = start % 2 == 0
+                    ? InputRecordingCodec.encode(part, part.length, lastMask)
+                    : InputRecordingCodec.encodePlain(plain(part), lastMask);
+
+            InputRecordingCodec.Summary summary = InputRecordingCodec.scan(chunk, lastMask);
+            assertEquals(part.length, summary.frames());
+            assertEquals(part[part.length - 1], summary.lastMask());
+
+            runs.writeBytes(chunk);
+            recorded += summary.frames();
+            lastMask = summary.lastMask();
+        }
+
+        assertEquals(frames.length, recorded);
+        assertArrayEquals(frames, InputRecordingCodec.decode(recording(runs.toByteArray()), romHash));
+    }
+
+    @Test
+    void shouldRejectDamagedRecordings() {
+        byte[] runs = InputRecordingCodec.encode(new int[]{0x0003, 0x0003, 0xF00F}, 3, 0);
+        byte[] recording = recording(runs);
+
+        byte[] otherRom = romHash.clone();
+        otherRom[0] = 1;
+        assertThrows(IllegalArgumentException.class, () -> InputRecordingCodec.decode(recording, otherRom));
+        assertThrows(IllegalArgumentException.class,
+                () -> InputRecordingCodec.decode(Arrays.copyOf(recording, recording.length - 1), romHash));
+        assertThrows(IllegalArgumentException.class, () -> InputRecordingCodec.scan(new byte[]{(byte) 0x80}, 0));
+        assertThrows(IllegalArgumentException.class, () -> InputRecordingCodec.scan(new byte[]{1, 0}, 0));
+        assertThrows(IllegalArgumentException.class, () -> InputRecordingCodec.encodePlain(new byte[3], 0));
+        assertThrows(IllegalArgumentException.class, () -> InputRecordingCodec.decode(new byte[10], romHash));
+    }
+
+    @Test
+    void shouldServeByteRangesOfReplays() throws Exception {
+        byte[] recording = recording(InputRecordingCodec.encode(play(3_000, new Random(3)), 3_000, 0));
+        UUID id = UUID.randomUUID();
+        InputRecordingService service = mock(InputRecordingService.class);
+        when(service.getPublicRecording(id)).thenReturn(new RomContent(recording, "\"" + id + "-3000\"", true));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new InputRecordingController(service)).build();
+
+        mockMvc.perform(get("/rom/public/recording").param("id", id.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(recording));
+
+        // Resuming an interrupted download
+        mockMvc.perform(get("/rom/public/recording").param("id", id.toString())
+                        .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes 100-" + (recording.length - 1) + "/" + recording.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(recording, 100, recording.length)));
+
+        mockMvc.perform(get("/rom/public/recording").param("id", id.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + id + "-3000\""))
+                .andExpect(status().isNotModified());
+    }
+
+    // Holds a few keys at a time, changing one every 5 to 40 frames
+    private static int[] play(int length, Random random) {
+        int[] frames = new int[length];
+        int mask = 0;
+        int next = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == next) {
+                mask ^= 1 << random.nextInt(16);
+                if (Integer.bitCount(mask) > 3) {
+                    mask = 1 << random.nextInt(16);
+                }
+                next += 5 + random.nextInt(36);
+            }
+            frames[i] = mask;
+        }
+        return frames;
+    }
+
+    private static byte[] plain(int[] frames) {
+        byte[] plain = new byte[frames.length * 2];
+        for (int i = 0; i < frames.length; i++) {
+            plain[2 * i] = (byte) (frames[i] >>> 8);
+            plain[2 * i + 1] = (byte) frames[i];
+        }
+        return plain;
+    }
+
+    private byte[] recording(byte[] runs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(InputRecordingCodec.header(romHash));
+        out.writeBytes(runs);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.storage.LocalRomStorage;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorageException;
+import com.rayhanp1402.chip8_rom_server.storage.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalRomStorageTest {
+    private static final String KEY = "blobs/" + "ab".repeat(32);
+
+    @TempDir
+    Path root;
+
+    private final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+    private LocalRomStorage storage;
+
+    @BeforeEach
+    void setup() {
+        storage = new LocalRomStorage(root, "http://localhost:8080", "test-signing-key",
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldStoreObjectsInShardedDirectories() throws IOException {
+        byte[] content = {0x00, (byte) 0xE0, 0x12, 0x00};
+        storage.put(KEY, content);
+
+        Path path = storage.path(KEY);
+        assertEquals(root.toAbsolutePath().normalize(), path.getParent().getParent().getParent());
+        assertEquals("blobs%2F" + "ab".repeat(32), path.getFileName().toString());
+        assertArrayEquals(content, storage.get(KEY));
+    }
+
+    @Test
+    void shouldReplaceObjectWithoutLeavingTemporaryFiles() throws IOException {
+        storage.put(KEY, new byte[]{1, 2, 3});
+        storage.put(KEY, new byte[]{4, 5});
+
+        assertArrayEquals(new byte[]{4, 5}, storage.get(KEY));
+        try (Stream<Path> files = Files.list(storage.path(KEY).getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void shouldDeleteObjectsAndIgnoreMissingKeys() {
+        String legacyKey = "0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d/Pong.ch8";
+        storage.put(KEY, new byte[]{1});
+        storage.put(legacyKey, new byte[]{2});
+        assertTrue(storage.exists(KEY));
+
+        storage.delete("blobs/missing");
+        Map<String, String> failures = storage.deleteAll(List.of(KEY, legacyKey, "blobs/missing"));
+
+        assertTrue(failures.isEmpty());
+        assertThrows(RomStorageException.class, () -> storage.get(KEY));
+        assertThrows(RomStorageException.class, () -> storage.get(legacyKey));
+        assertFalse(storage.exists(KEY));
+    }
+
+    @Test
+    void shouldListObjectsInUtf8KeyOrder() throws IOException {
+        String user = "0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d/";
+        // UTF-16 order would put the surrogate pair of the game controller before the full-width A
+        List<String> keys = List.of(user + "Pong.ch8", user + "\uFF21.ch8", user + "\uD83C\uDFAE.ch8", KEY);
+        for (String key : keys.reversed()) {
+            storage.put(key, key.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.createFile(storage.path(KEY).resolveSibling(".upload-123.tmp"));
+
+        try (Stream<StoredObject> listing = storage.list()) {
+            List<StoredObject> objects = listing.toList();
+            assertEquals(keys, objects.stream().map(StoredObject::key).toList());
+            assertEquals(KEY.length(), objects.get(3).size());
+        }
+    }
+
+    @Test
+    void shouldStoreKeysTooLongForAFileName() throws IOException {
+        // 100 characters of three UTF-8 bytes each, 900 characters once URL-encoded
+        String longKey = "0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d/" + "\u30C6".repeat(100) + ".ch8";
+        String otherLongKey = "0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d/" + "\u30C6".repeat(101) + ".ch8";
+        storage.put(longKey, new byte[]{1, 2});
+        storage.put(otherLongKey, new byte[]{3});
+
+        assertTrue(storage.path(longKey).getFileName().toString().length() <= 255);
+        assertArrayEquals(new byte[]{1, 2}, storage.get(longKey));
+        assertArrayEquals(new byte[]{3}, storage.get(otherLongKey));
+        try (Stream<StoredObject> listing = storage.list()) {
+            assertEquals(List.of(longKey, otherLongKey), listing.map(StoredObject::key).toList());
+        }
+
+        storage.delete(longKey);
+        assertThrows(RomStorageException.class, () -> storage.get(longKey));
+        try (Stream<Path> files = Files.list(storage.path(longKey).getParent())) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldRejectKeysThatEscapeTheRoot() {
+        assertThrows(IllegalArgumentException.class, () -> storage.path(".."));
+        assertThrows(IllegalArgumentException.class, () -> storage.path(""));
+        assertEquals(root.toAbsolutePath().normalize(),
+                storage.path("../../etc/passwd").getParent().getParent().getParent());
+    }
+
+    @Test
+    void shouldSignDownloadUrlsUntilTheyExpire() throws Exception {
+        URL url = storage.downloadUrl(KEY, Duration.ofMinutes(10));
+        UriComponents uri = UriComponentsBuilder.fromUri(url.toURI()).build(true);
+
+        assertEquals(LocalRomStorage.OBJECT_PATH, uri.getPath());
+        String key = URLDecoder.decode(uri.getQueryParams().getFirst("key"), StandardCharsets.UTF_8);
+        long expires = Long.parseLong(uri.getQueryParams().getFirst("expires"));
+        String signature = uri.getQueryParams().getFirst("signature");
+
+        assertEquals(KEY, key);
+        assertTrue(storage.isValidDownload(key, expires, signature));
+        assertFalse(storage.isValidDownload("blobs/other", expires, signature));
+        assertFalse(storage.isValidDownload(key, expires + 60, signature));
+
+        LocalRomStorage later = new LocalRomStorage(root, "http://localhost:8080", "test-signing-key",
+                Clock.fixed(now.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        assertFalse(later.isValidDownload(key, expires, signature));
+    }
+}
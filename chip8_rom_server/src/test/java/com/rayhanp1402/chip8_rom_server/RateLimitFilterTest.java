@@ -0,0 +1,162 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.security.RateLimitFilter;
+import com.rayhanp1402.chip8_rom_server.security.TokenBucketRateLimiter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RateLimitFilterTest {
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        // Bursts of 3, then one request every 500 ms
+        filter = new RateLimitFilter(List.of(
+                new RateLimitFilter.Group("public", List.of("/rom/public/get", "/rom/public/bundle/**"),
+                        new TokenBucketRateLimiter(3, 2, 100, nanos::get))));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRejectWithRetryAfterOnceBucketIsEmpty() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, request("/rom/public/get", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse rejected = request("/rom/public/get", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+
+        // Other clients have their own bucket, and the bucket refills with time
+        assertEquals(200, request("/rom/public/get", "10.0.0.2").getStatus());
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(200, request("/rom/public/get", "10.0.0.1").getStatus());
+        assertEquals(429, request("/rom/public/get", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldKeySignedInCallersBySubject() throws Exception {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d")
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        // The same user from three addresses shares one bucket
+        assertEquals(200, request("/rom/public/get", "10.0.0.1").getStatus());
+        assertEquals(200, request("/rom/public/get", "10.0.0.2").getStatus());
+        assertEquals(200, request("/rom/public/get", "10.0.0.3").getStatus());
+        assertEquals(429, request("/rom/public/get", "10.0.0.4").getStatus());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, request("/rom/public/get", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldOnlyLimitPathsOfAGroup() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, request("/rom/personal/list", "10.0.0.1").getStatus());
+            assertEquals(200, request("/rom/public/bundlex", "10.0.0.1").getStatus());
+        }
+
+        // A /** pattern covers the path itself and everything below it
+        assertEquals(200, request("/rom/public/bundle", "10.0.0.1").getStatus());
+        assertEquals(200, request("/rom/public/bundle/42", "10.0.0.1").getStatus());
+        assertEquals(200, request("/rom/public/get", "10.0.0.1").getStatus());
+        assertEquals(429, request("/rom/public/bundle/43", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldMatchTheDecodedPathLikeRequestMappings() throws Exception {
+        // All of these reach the /rom/public/get handler
+        assertEquals(200, request("/rom/public/%67et", "10.0.0.1").getStatus());
+        assertEquals(200, request("/rom/public;v=1/get", "10.0.0.1").getStatus());
+
+        MockHttpServletRequest underContextPath = new MockHttpServletRequest("GET", "/app/rom/public/get");
+        underContextPath.setContextPath("/app");
+        underContextPath.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(underContextPath, response, mock(FilterChain.class));
+        assertEquals(200, response.getStatus());
+
+        assertEquals(429, request("/rom/public/get", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanCapacityUnderContention() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1000, 1, 100, nanos::get);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("client") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, granted.get());
+        assertEquals(1000, limiter.getAllowed());
+        assertEquals(7000, limiter.getRejected());
+    }
+
+    @Test
+    void shouldDropFullBucketsWhenOverMaxKeys() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 10, 100, nanos::get);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("10.0.1." + i);
+        }
+        assertEquals(100, limiter.size());
+
+        // 100 ms later every bucket has its token back and is the same as a new one
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.tryAcquire("10.0.2.1");
+        assertEquals(1, limiter.size());
+        assertEquals(100, limiter.getEvictions());
+    }
+
+    private MockHttpServletResponse request(String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, mock(FilterChain.class));
+        return response;
+    }
+}
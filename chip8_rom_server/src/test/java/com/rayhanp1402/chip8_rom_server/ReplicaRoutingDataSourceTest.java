@@ -0,0 +1,77 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.datasource.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTest {
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        routing = new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void shouldUseReplicaOnlyInsideOnReplica() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+        assertSame(replicaConnection, ReplicaRoutingDataSource.onReplica(this::connection));
+
+        // Nested scopes restore the outer one
+        Connection afterNested = ReplicaRoutingDataSource.onReplica(() -> {
+            ReplicaRoutingDataSource.onReplica(this::connection);
+            return connection();
+        });
+        assertSame(replicaConnection, afterNested);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void shouldKeepReadWriteTransactionsOnPrimary() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertSame(primaryConnection, ReplicaRoutingDataSource.onReplica(this::connection));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, ReplicaRoutingDataSource.onReplica(this::connection));
+    }
+
+    @Test
+    void shouldRestorePrimaryWhenQueryFails() {
+        assertThrows(IllegalStateException.class, () -> ReplicaRoutingDataSource.onReplica(() -> {
+            throw new IllegalStateException("Replica unavailable");
+        }));
+
+        assertFalse(ReplicaRoutingDataSource.isReplicaRead());
+        assertSame(primaryConnection, connection());
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomBundle;
+import com.rayhanp1402.chip8_rom_server.cache.PublicRomCatalog;
+import com.rayhanp1402.chip8_rom_server.chip8.Chip8Decoder;
+import com.rayhanp1402.chip8_rom_server.controller.RomBundleController;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
+import com.rayhanp1402.chip8_rom_server.service.RomBundleService;
+import com.rayhanp1402.chip8_rom_server.service.RomService;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RomBundleServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID userId = UUID.randomUUID();
+    private final byte[] pong = {0x00, (byte) 0xE0, 0x12, 0x00};
+    private final byte[] tetris = {0x60, 0x01, 0x12, 0x02};
+    private final String pongHash = RomBlobService.sha256(pong);
+
+    @TempDir
+    Path directory;
+
+    private RomService romService;
+    private RomStorage romStorage;
+    private RomBlobService romBlobService;
+    private RomBundleService romBundleService;
+
+    @BeforeEach
+    void setup() {
+        romService = mock(RomService.class);
+        romStorage = mock(RomStorage.class);
+        romBlobService = mock(RomBlobService.class);
+        romBundleService = new RomBundleService(romService, romStorage, romBlobService, objectMapper, directory);
+
+        when(romStorage.get(RomBlobService.objectKey(pongHash))).thenReturn(pong);
+        when(romStorage.get(userId + "/Tetris.ch8")).thenReturn(tetris);
+        when(romBlobService.getAnalysis(any())).thenReturn(Optional.empty());
+        when(romBlobService.getAnalysis(pongHash))
+                .thenReturn(Optional.of("{\"instructionCount\":2}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldBundleEachDistinctContentOnce() throws IOException {
+        catalog(1, List.of(
+                new Rom(new RomId(userId, "Pong.ch8"), true, pongHash),
+                new Rom(new RomId(userId, "Pong (copy).ch8"), true, pongHash),
+                new Rom(new RomId(userId, "Tetris.ch8"), true)
+        ));
+
+        PublicRomBundle bundle = romBundleService.getPublicBundle();
+        assertEquals(3, bundle.romCount());
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(bundle.file())))) {
+            assertArrayEquals("C8RB".getBytes(StandardCharsets.US_ASCII), in.readNBytes(4));
+            assertEquals(1, in.readUnsignedByte());
+            JsonNode index = objectMapper.readTree(in.readNBytes(in.readInt()));
+            byte[] data = in.readAllBytes();
+
+            assertEquals(pong.length + tetris.length, data.length);
+            assertEquals(index.get(0).get("offset"), index.get(1).get("offset"));
+            assertEquals(2, index.get(0).get("analysis").get("instructionCount").asInt());
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(Chip8Decoder.analyze(tetris))),
+                    index.get(2).get("analysis"));
+            assertTrue(index.get(2).get("contentHash").isNull());
+
+            int offset = index.get(2).get("offset").asInt();
+            assertArrayEquals(tetris, Arrays.copyOfRange(data, offset, offset + index.get(2).get("length").asInt()));
+        }
+    }
+
+    @Test
+    void shouldOnlyLoadNewRomsWhenCatalogChanges() {
+        Rom pongRom = new Rom(new RomId(userId, "Pong.ch8"), true, pongHash);
+        catalog(1, List.of(pongRom));
+        PublicRomBundle first = romBundleService.getPublicBundle();
+        assertSame(first, romBundleService.getPublicBundle());
+
+        catalog(2, List.of(pongRom, new Rom(new RomId(userId, "Tetris.ch8"), true)));
+        PublicRomBundle second = romBundleService.getPublicBundle();
+
+        assertNotEquals(first.id(), second.id());
+        assertEquals(2, second.romCount());
+        verify(romStorage, times(1)).get(RomBlobService.objectKey(pongHash));
+        verify(romStorage, times(1)).get(userId + "/Tetris.ch8");
+        // The previous bundle is kept for responses that are still sending it
+        assertTrue(Files.exists(first.file()));
+        assertTrue(Files.exists(second.file()));
+    }
+
+    @Test
+    void shouldProduceSameIdForSameContent() {
+        catalog(1, List.of(new Rom(new RomId(userId, "Pong.ch8"), true, pongHash)));
+        PublicRomBundle first = romBundleService.getPublicBundle();
+
+        RomBundleService otherInstance = new RomBundleService(romService, romStorage, romBlobService, objectMapper,
+                directory.resolve("other"));
+        assertEquals(first.id(), otherInstance.getPublicBundle().id());
+    }
+
+    @Test
+    void shouldProduceSameIdForAnyRowOrder() {
+        UUID otherUserId = UUID.randomUUID();
+        when(romStorage.get(otherUserId + "/Tetris.ch8")).thenReturn(tetris);
+        List<Rom> roms = List.of(
+                new Rom(new RomId(userId, "Pong.ch8"), true, pongHash),
+                new Rom(new RomId(userId, "Tetris.ch8"), true),
+                new Rom(new RomId(otherUserId, "Tetris.ch8"), true)
+        );
+        catalog(1, roms);
+        PublicRomBundle first = romBundleService.getPublicBundle();
+
+        catalog(1, roms.reversed());
+        RomBundleService otherInstance = new RomBundleService(romService, romStorage, romBlobService, objectMapper,
+                directory.resolve("other"));
+        assertEquals(first.id(), otherInstance.getPublicBundle().id());
+    }
+
+    @Test
+    void shouldProduceSameIdWhetherOrNotAnalysisIsStored() throws IOException {
+        when(romBlobService.getAnalysis(pongHash)).thenReturn(Optional.empty());
+        catalog(1, List.of(new Rom(new RomId(userId, "Pong.ch8"), true, pongHash)));
+        PublicRomBundle first = romBundleService.getPublicBundle();
+
+        // Another node after the analysis backfill stored it
+        byte[] stored = objectMapper.writeValueAsBytes(Chip8Decoder.analyze(pong));
+        verify(romBlobService).saveAnalysis(pongHash, stored);
+        when(romBlobService.getAnalysis(pongHash)).thenReturn(Optional.of(stored));
+        RomBundleService otherInstance = new RomBundleService(romService, romStorage, romBlobService, objectMapper,
+                directory.resolve("other"));
+        assertEquals(first.id(), otherInstance.getPublicBundle().id());
+    }
+
+    @Test
+    void shouldValidateEachContentEncodingSeparately() throws Exception {
+        catalog(1, List.of(new Rom(new RomId(userId, "Pong.ch8"), true, pongHash)));
+        PublicRomBundle bundle = romBundleService.getPublicBundle();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new RomBundleController(romBundleService)).build();
+
+        mockMvc.perform(get("/rom/public/bundle").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, bundle.gzipETag()));
+        mockMvc.perform(get("/rom/public/bundle"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, bundle.eTag()));
+
+        // A validator of the compressed bytes does not stand for the plain ones
+        mockMvc.perform(get("/rom/public/bundle").header(HttpHeaders.IF_NONE_MATCH, bundle.gzipETag()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rom/public/bundle").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, bundle.gzipETag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldOnlyCompressWhenGzipIsAccepted() throws Exception {
+        catalog(1, List.of(new Rom(new RomId(userId, "Pong.ch8"), true, pongHash)));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new RomBundleController(romBundleService)).build();
+
+        for (String accepted : List.of("gzip", "GZIP", "deflate, gzip;q=0.5", "br;q=1.0, x-gzip", "*",
+                "identity;q=1, *;q=0.1")) {
+            mockMvc.perform(get("/rom/public/bundle").header(HttpHeaders.ACCEPT_ENCODING, accepted))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+        for (String refused : List.of("gzip;q=0", "gzip; q=0.000, deflate", "x-gzip-foo", "deflate, br",
+                "gzip;q=0, *", "*;q=0", "gzip;q=abc")) {
+            mockMvc.perform(get("/rom/public/bundle").header(HttpHeaders.ACCEPT_ENCODING, refused))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        }
+    }
+
+    private void catalog(long version, List<Rom> roms) {
+        when(romService.getPublicCatalog()).thenReturn(PublicRomCatalog.of(version, roms, objectMapper));
+    }
+}
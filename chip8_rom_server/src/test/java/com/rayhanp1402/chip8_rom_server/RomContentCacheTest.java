@@ -0,0 +1,70 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.cache.RomContent;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RomContentCacheTest {
+    private final RomId romId = new RomId(UUID.randomUUID(), "pong.ch8");
+    private final RomContentCache cache = new RomContentCache(1024 * 1024, 4096);
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<RomContent> first = CompletableFuture.supplyAsync(() -> cache.get(romId, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return RomContent.of(new byte[]{1}, true);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<RomContent> second = CompletableFuture.supplyAsync(() -> cache.get(romId, id -> {
+            loads.incrementAndGet();
+            return RomContent.of(new byte[]{2}, true);
+        }));
+
+        release.countDown();
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheALoadThatRacedWithEvict() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Reads the old bytes, then the ROM is replaced and evicted before the read returns
+        CompletableFuture<RomContent> stale = CompletableFuture.supplyAsync(() -> cache.get(romId, id -> {
+            loading.countDown();
+            await(release);
+            return RomContent.of(new byte[]{1}, true);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.evict(romId);
+        release.countDown();
+
+        assertArrayEquals(new byte[]{1}, stale.get(5, TimeUnit.SECONDS).bytes());
+        assertNull(cache.getIfPresent(romId));
+        assertArrayEquals(new byte[]{2}, cache.get(romId, id -> RomContent.of(new byte[]{2}, true)).bytes());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
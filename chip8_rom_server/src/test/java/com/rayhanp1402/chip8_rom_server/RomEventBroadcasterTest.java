@@ -0,0 +1,96 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.controller.RomEventController;
+import com.rayhanp1402.chip8_rom_server.event.RomChangeEvent;
+import com.rayhanp1402.chip8_rom_server.event.RomEventBroadcaster;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RomEventBroadcasterTest {
+    private RomEventBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        broadcaster = new RomEventBroadcaster(4, 3, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        mockMvc = MockMvcBuilders.standaloneSetup(new RomEventController(broadcaster)).build();
+    }
+
+    @AfterEach
+    void teardown() {
+        broadcaster.closeAll();
+    }
+
+    @Test
+    void shouldSendChangesToTheirChannels() throws Exception {
+        UUID owner = UUID.randomUUID();
+        MockHttpServletResponse personal = subscribe("/rom/personal/events?userId=" + owner, null);
+        MockHttpServletResponse other = subscribe("/rom/personal/events?userId=" + UUID.randomUUID(), null);
+        MockHttpServletResponse publicStream = subscribe("/rom/public/events", null);
+
+        broadcaster.onRomChange(RomChangeEvent.added(new RomId(owner, "Pong.ch8"), false));
+        broadcaster.onRomChange(RomChangeEvent.added(new RomId(UUID.randomUUID(), "Tetris.ch8"), true));
+
+        awaitContent(personal, content -> content.contains("event:added") && content.contains("Pong.ch8"));
+        awaitContent(publicStream, content -> content.contains("Tetris.ch8"));
+        assertFalse(publicStream.getContentAsString().contains("Pong.ch8"));
+        assertFalse(other.getContentAsString().contains("Pong.ch8"));
+        assertFalse(personal.getContentAsString().contains("Tetris.ch8"));
+    }
+
+    @Test
+    void shouldAskReconnectingClientsThatMissedEventsToResync() throws Exception {
+        broadcaster.onRomChange(RomChangeEvent.added(new RomId(UUID.randomUUID(), "Pong.ch8"), true));
+
+        MockHttpServletResponse missed = subscribe("/rom/public/events", "0");
+        MockHttpServletResponse upToDate = subscribe("/rom/public/events", "1");
+
+        awaitContent(missed, content -> content.contains("event:resync"));
+        awaitContent(upToDate, content -> content.contains(":connected"));
+        assertFalse(upToDate.getContentAsString().contains("event:resync"));
+    }
+
+    @Test
+    void shouldRejectSubscribersBeyondTheLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            subscribe("/rom/public/events", null);
+        }
+
+        mockMvc.perform(get("/rom/public/events")).andExpect(status().isServiceUnavailable());
+
+        broadcaster.closeAll();
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    private MockHttpServletResponse subscribe(String uri, String lastEventId) throws Exception {
+        MvcResult result = mockMvc.perform(lastEventId == null
+                        ? get(uri)
+                        : get(uri).header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.test(response.getContentAsString())) {
+            assertTrue(System.nanoTime() < deadline, "Unexpected stream content: " + response.getContentAsString());
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.search.RomNameIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RomNameIndexTest {
+    private final RomNameIndex index = RomNameIndex.of(Stream.of(
+                    "Pong.ch8", "Pong 2.ch8", "Space Invaders [David Winter].ch8", "Invaders.ch8",
+                    "Tetris [Fran Dachille, 1991].ch8", "Breakout.ch8", "Brix.ch8", "Tic-Tac-Toe.ch8", "UFO.ch8")
+            .map(name -> new Rom(new RomId(UUID.randomUUID(), name), true))
+            .toList());
+
+    @Test
+    void shouldMatchNamePrefixesBeforeWordPrefixes() {
+        assertEquals(List.of("Invaders.ch8", "Space Invaders [David Winter].ch8"), search("inv", 10));
+        assertEquals(List.of("Pong 2.ch8", "Pong.ch8"), search("PONG", 10));
+        assertEquals(List.of("Tetris [Fran Dachille, 1991].ch8"), search("tetris fran", 10));
+        assertEquals(List.of("Tic-Tac-Toe.ch8"), search("tic tac", 10));
+    }
+
+    @Test
+    void shouldTolerateTypos() {
+        assertEquals(List.of("Tetris [Fran Dachille, 1991].ch8"), search("tetirs", 10));
+        assertEquals(List.of("Breakout.ch8"), search("brakeout", 10));
+        assertEquals(List.of("Invaders.ch8", "Space Invaders [David Winter].ch8"), search("invdaers", 10));
+        assertEquals(List.of("Pong 2.ch8", "Pong.ch8"), search("pnog", 10));
+        // Queries under four characters must match exactly
+        assertEquals(List.of(), search("ufp", 10));
+        assertEquals(List.of(), search("xyz", 10));
+    }
+
+    @Test
+    void shouldRespectLimit() {
+        assertEquals(List.of("Pong 2.ch8"), search("pong", 1));
+        assertEquals(List.of(), search("pong", 0));
+        assertEquals(List.of(), search(" .- ", 10));
+    }
+
+    private List<String> search(String query, int limit) {
+        return index.search(query, limit).stream().map(rom -> rom.getId().getRomName()).toList();
+    }
+}
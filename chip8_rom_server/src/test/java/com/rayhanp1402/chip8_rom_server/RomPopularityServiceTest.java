@@ -0,0 +1,162 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.dto.PopularRom;
+import com.rayhanp1402.chip8_rom_server.dto.RomDownloadCount;
+import com.rayhanp1402.chip8_rom_server.model.RomId;
+import com.rayhanp1402.chip8_rom_server.repository.RomDownloadRepository;
+import com.rayhanp1402.chip8_rom_server.service.RomPopularityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RomPopularityServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID userId = UUID.randomUUID();
+
+    private RomDownloadRepository repository;
+    private RomPopularityService popularity;
+    // Stand-in for the rom_downloads table
+    private final Map<RomId, Long> table = new HashMap<>();
+    private boolean databaseDown;
+
+    @BeforeEach
+    void setup() throws Exception {
+        repository = mock(RomDownloadRepository.class);
+        when(repository.findTop(anyInt())).thenReturn(List.of());
+        when(repository.addDownloads(anyString())).thenAnswer(invocation -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            for (JsonNode row : objectMapper.readTree((String) invocation.getArgument(0))) {
+                table.merge(romId(row), row.get("downloads").asLong(), Long::sum);
+            }
+            return table.size();
+        });
+        when(repository.findDownloads(anyString())).thenAnswer(invocation -> {
+            List<RomDownloadCount> rows = new ArrayList<>();
+            for (JsonNode row : objectMapper.readTree((String) invocation.getArgument(0))) {
+                RomId romId = romId(row);
+                rows.add(new Count(romId.getUserId(), romId.getRomName(), table.get(romId)));
+            }
+            return rows;
+        });
+
+        popularity = new RomPopularityService(repository, objectMapper, 100);
+    }
+
+    @Test
+    void shouldWriteAllCountsInOneUpsertPerFlush() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            RomId romId = new RomId(userId, "Rom" + (i % 4) + ".ch8");
+            executor.execute(() -> popularity.recordDownload(romId));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        popularity.flush();
+
+        ArgumentCaptor<String> batch = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(1)).addDownloads(batch.capture());
+        assertEquals(4, objectMapper.readTree(batch.getValue()).size());
+        assertEquals(2_000L, table.get(new RomId(userId, "Rom0.ch8")));
+
+        // Nothing new to write
+        popularity.flush();
+        verify(repository, times(1)).addDownloads(anyString());
+    }
+
+    @Test
+    void shouldRankByTotalDownloads() {
+        download("Pong.ch8", 3);
+        download("Tetris.ch8", 5);
+        download("Brix.ch8", 1);
+        popularity.flush();
+
+        download("Pong.ch8", 4);
+        popularity.flush();
+
+        List<PopularRom> top = popularity.getPopular(2);
+        assertEquals(List.of("Pong.ch8", "Tetris.ch8"), top.stream().map(PopularRom::getRomName).toList());
+        assertEquals(7, top.get(0).getDownloads());
+        assertThrows(IllegalArgumentException.class, () -> popularity.getPopular(0));
+        assertThrows(IllegalArgumentException.class, () -> popularity.getPopular(RomPopularityService.MAX_POPULAR + 1));
+    }
+
+    @Test
+    void shouldKeepCountsWhenTheDatabaseIsUnavailable() {
+        download("Pong.ch8", 3);
+        databaseDown = true;
+        popularity.flush();
+        assertTrue(table.isEmpty());
+
+        databaseDown = false;
+        download("Pong.ch8", 1);
+        popularity.flush();
+        assertEquals(4L, table.get(new RomId(userId, "Pong.ch8")));
+    }
+
+    @Test
+    void shouldFlushOnShutdown() {
+        download("Pong.ch8", 2);
+
+        popularity.flushOnShutdown();
+
+        assertEquals(2L, table.get(new RomId(userId, "Pong.ch8")));
+    }
+
+    @Test
+    void shouldStartFromStoredTotals() {
+        when(repository.findTop(anyInt())).thenReturn(List.of(new Count(userId, "Pong.ch8", 40)));
+        table.put(new RomId(userId, "Pong.ch8"), 40L);
+
+        download("Pong.ch8", 2);
+        popularity.flush();
+
+        assertEquals(42, popularity.getPopular(1).get(0).getDownloads());
+    }
+
+    private void download(String romName, int times) {
+        for (int i = 0; i < times; i++) {
+            popularity.recordDownload(new RomId(userId, romName));
+        }
+    }
+
+    private static RomId romId(JsonNode row) {
+        return new RomId(UUID.fromString(row.get("user_id").asText()), row.get("rom_name").asText());
+    }
+
+    private record Count(UUID userId, String romName, long downloads) implements RomDownloadCount {
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getRomName() {
+            return romName;
+        }
+
+        @Override
+        public long getDownloads() {
+            return downloads;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.dto.RomBlobReferences;
+import com.rayhanp1402.chip8_rom_server.repository.RomBlobRepository;
+import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
+import com.rayhanp1402.chip8_rom_server.service.RomReconciliationService;
+import com.rayhanp1402.chip8_rom_server.storage.RomStorage;
+import com.rayhanp1402.chip8_rom_server.storage.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RomReconciliationServiceTest {
+    private static final String USER = "0b4e7a0e-5fe1-4c2a-9c4e-2f8f1a1b2c3d/";
+
+    private final Instant now = Instant.parse("2025-01-01T12:00:00Z");
+    private final Instant old = now.minus(Duration.ofDays(1));
+
+    private final TreeMap<String, Blob> blobs = new TreeMap<>();
+    private final TreeSet<String> legacyRoms = new TreeSet<>(RomStorage.KEY_ORDER);
+    private final TreeMap<String, StoredObject> objects = new TreeMap<>(RomStorage.KEY_ORDER);
+    private final Map<String, byte[]> contents = new HashMap<>();
+
+    private RomStorage romStorage;
+    private RomReconciliationService reconciliation;
+
+    @BeforeEach
+    void setup() {
+        romStorage = mock(RomStorage.class);
+        when(romStorage.list()).thenAnswer(invocation -> new ArrayList<>(objects.values()).stream());
+        when(romStorage.get(anyString())).thenAnswer(invocation -> contents.get((String) invocation.getArgument(0)));
+        when(romStorage.deleteAll(anyList())).thenReturn(Map.of());
+
+        RomBlobRepository romBlobRepository = mock(RomBlobRepository.class);
+        when(romBlobRepository.findPageAfter(anyString(), anyInt())).thenAnswer(invocation -> blobs
+                .tailMap(invocation.getArgument(0), false).values().stream()
+                .limit((int) invocation.getArgument(1))
+                .map(RomBlobReferences.class::cast)
+                .toList());
+        when(romBlobRepository.existsById(anyString()))
+                .thenAnswer(invocation -> blobs.containsKey((String) invocation.getArgument(0)));
+
+        RomRepository romRepository = mock(RomRepository.class);
+        when(romRepository.findLegacyObjectKeysAfter(anyString(), anyInt())).thenAnswer(invocation -> legacyRoms
+                .tailSet(invocation.getArgument(0), false).stream()
+                .limit((int) invocation.getArgument(1))
+                .toList());
+
+        // Pages of two keep the paging and the merge of both database streams busy
+        reconciliation = new RomReconciliationService(romStorage, romBlobRepository, romRepository,
+                Duration.ofHours(1), 2, 4, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldFindEveryKindOfDifference() {
+        String healthy = storedBlob("Pong", 1, 1);
+        String overcounted = storedBlob("Tetris", 2, 1);
+        String missing = blob("Brix", 1, 1);
+        String corrupt = storedBlob("Maze", 1, 1);
+        contents.put(corrupt, "Mazf".getBytes(StandardCharsets.UTF_8));
+        String oldOrphan = object(RomBlobService.objectKey(RomBlobService.sha256(bytes("Lost"))), bytes("Lost"), old);
+        String newOrphan = object(RomBlobService.objectKey(RomBlobService.sha256(bytes("Uploading"))),
+                bytes("Uploading"), now);
+
+        legacyRoms.add(USER + "Invaders.ch8");
+        object(USER + "Invaders.ch8", bytes("Invaders"), old);
+        legacyRoms.add(USER + "Gone.ch8");
+        String legacyOrphan = object(USER + "Deleted.ch8", bytes("Deleted"), old);
+        object("exports/catalog.json", bytes("{}"), old);
+
+        Map<String, Object> status = reconciliation.run(true, true);
+
+        assertEquals("finished", status.get("state"));
+        assertEquals(8L, status.get("storageObjects"));
+        assertEquals(6L, status.get("databaseKeys"));
+        assertEquals(3L, status.get("verified"));
+        assertEquals(Set.of(legacyOrphan, oldOrphan, newOrphan), Set.copyOf(samples(status, "orphan")));
+        assertEquals(List.of(USER + "Gone.ch8", missing), samples(status, "missing"));
+        assertEquals(1L, count(status, "corrupt"));
+        assertTrue(samples(status, "corrupt").get(0).startsWith(corrupt));
+        assertTrue(samples(status, "ref_count").get(0).startsWith(overcounted));
+        assertEquals(List.of("exports/catalog.json"), samples(status, "unknown"));
+        assertFalse(samples(status, "missing").contains(healthy));
+
+        // Orphans still inside the grace period may belong to an upload that has not committed its row yet
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(romStorage).deleteAll(deleted.capture());
+        assertEquals(List.of(legacyOrphan, oldOrphan), deleted.getValue());
+        assertEquals(2L, status.get("repaired"));
+    }
+
+    @Test
+    void shouldOnlyReportWithoutRepair() {
+        storedBlob("Pong", 1, 1);
+        object(RomBlobService.objectKey(RomBlobService.sha256(bytes("Lost"))), bytes("Lost"), old);
+
+        Map<String, Object> status = reconciliation.run(false, false);
+
+        assertEquals(1L, count(status, "orphan"));
+        assertEquals(0L, status.get("verified"));
+        verify(romStorage, never()).deleteAll(anyList());
+        verify(romStorage, never()).get(anyString());
+    }
+
+    @Test
+    void shouldOrderKeysByTheirUtf8Bytes() {
+        // U+FF21 is EF BC A1 in UTF-8 and sorts before U+1F3AE, F0 9F 8E AE, although its UTF-16 unit is larger
+        String fullWidth = "\uFF21";
+        String controller = "\uD83C\uDFAE";
+
+        assertTrue(fullWidth.compareTo(controller) > 0);
+        assertTrue(RomStorage.KEY_ORDER.compare(fullWidth, controller) < 0);
+        assertTrue(RomStorage.KEY_ORDER.compare("blobs/a", "blobs/ab") < 0);
+        assertEquals(0, RomStorage.KEY_ORDER.compare(controller, "\uD83C\uDFAE"));
+    }
+
+    private String storedBlob(String content, int refCount, long romCount) {
+        String key = blob(content, refCount, romCount);
+        return object(key, bytes(content), old);
+    }
+
+    private String blob(String content, int refCount, long romCount) {
+        String contentHash = RomBlobService.sha256(bytes(content));
+        blobs.put(contentHash, new Blob(contentHash, content.length(), refCount, romCount));
+        return RomBlobService.objectKey(contentHash);
+    }
+
+    private String object(String key, byte[] content, Instant lastModified) {
+        objects.put(key, new StoredObject(key, content.length, lastModified));
+        contents.put(key, content);
+        return key;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> samples(Map<String, Object> status, String finding) {
+        Map<String, Map<String, Object>> findings = (Map<String, Map<String, Object>>) status.get("findings");
+        return (List<String>) findings.get(finding).get("samples");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long count(Map<String, Object> status, String finding) {
+        Map<String, Map<String, Object>> findings = (Map<String, Map<String, Object>>) status.get("findings");
+        return (long) findings.get(finding).get("count");
+    }
+
+    private record Blob(String contentHash, int sizeBytes, int refCount, long romCount) implements RomBlobReferences {
+        @Override
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        @Override
+        public int getSizeBytes() {
+            return sizeBytes;
+        }
+
+        @Override
+        public int getRefCount() {
+            return refCount;
+        }
+
+        @Override
+        public long getRomCount() {
+            return romCount;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rayhanp1402.chip8_rom_server.cache.PresignedUrlCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomContentCache;
+import com.rayhanp1402.chip8_rom_server.cache.RomThumbnailCache;
+import com.rayhanp1402.chip8_rom_server.model.Rom;
+import com.rayhanp1402.chip8_rom_server.repository.RomRepository;
+import com.rayhanp1402.chip8_rom_server.service.RomBlobService;
+import com.rayhanp1402.chip8_rom_server.service.RomService;
+import com.rayhanp1402.chip8_rom_server.storage.S3RomStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.mockito.stubbing.Answer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs uploads against a slow S3 stand-in while a 5-connection pool stand-in serves list requests,
+ * and checks that no upload holds a connection while S3 is in flight, so list requests never queue behind S3.
+ */
+public class RomUploadLoadTest {
+    private static final int POOL_SIZE = 5;
+    private static final long S3_LATENCY_MS = 400;
+    private static final long QUERY_LATENCY_MS = 2;
+
+    private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+    // Connections currently handed out to each thread
+    private final Map<Thread, Integer> heldConnections = new ConcurrentHashMap<>();
+    // Most connections any upload held while its S3 call was running
+    private final AtomicInteger peakHeldDuringS3 = new AtomicInteger();
+    private PooledDataSource dataSource;
+    private RomService romService;
+
+    @BeforeEach
+    void setup() {
+        dataSource = new PooledDataSource();
+
+        RomRepository romRepository = mock(RomRepository.class);
+        when(romRepository.existsById(any())).thenAnswer(query(false));
+        when(romRepository.save(any(Rom.class))).thenAnswer(invocation -> {
+            query(null).answer(invocation);
+            return invocation.getArgument(0);
+        });
+        when(romRepository.findByIdUserIdAndIsPublic(any(), anyBoolean())).thenAnswer(query(List.of()));
+
+        S3Client s3Client = mock(S3Client.class);
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            peakHeldDuringS3.accumulateAndGet(heldConnections.getOrDefault(Thread.currentThread(), 0), Math::max);
+            Thread.sleep(S3_LATENCY_MS);
+            return PutObjectResponse.builder().build();
+        });
+
+        RomService target = new RomService(romRepository, new S3RomStorage(s3Client, mock(S3Presigner.class)),
+                new ObjectMapper(), new PresignedUrlCache(100, Duration.ofMinutes(2)),
+                new RomContentCache(1024 * 1024, 4096), mock(RomBlobService.class), new RomThumbnailCache(100));
+
+        // Apply the service's transaction annotations the same way the application context does
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        TransactionInterceptor transactionInterceptor = new TransactionInterceptor();
+        transactionInterceptor.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        transactionInterceptor.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+        proxyFactory.addAdvice(transactionInterceptor);
+        romService = (RomService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void uploadsHoldNoConnectionWhileS3IsInFlight() throws Exception {
+        UUID userId = UUID.randomUUID();
+        int uploads = POOL_SIZE * 4;
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> uploadResults = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                MockMultipartFile file = new MockMultipartFile("file", "Rom" + i + ".ch8",
+                        "application/octet-stream", new byte[]{0x00, (byte) 0xE0});
+                String romName = "Rom" + i + ".ch8";
+                uploadResults.add(executor.submit(() -> romService.saveRom(userId, romName, false, file)));
+            }
+
+            // Give every upload time to reach S3
+            Thread.sleep(S3_LATENCY_MS / 4);
+
+            // Each list borrows a connection and fails if the pool stays exhausted past its timeout
+            List<Future<?>> listResults = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                listResults.add(executor.submit(() -> romService.getRomsByUserIdAndIsPublic(userId, false)));
+            }
+
+            for (Future<?> result : listResults) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            for (Future<?> result : uploadResults) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(0, peakHeldDuringS3.get(), "Uploads held a connection while S3 was in flight");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Answer<Object> query(Object result) {
+        return invocation -> {
+            // Repository calls join the surrounding transaction or borrow their own connection
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                Thread.sleep(QUERY_LATENCY_MS);
+                return result;
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        };
+    }
+
+    /**
+     * Stand-in for the Hikari pool: at most {@link #POOL_SIZE} connections are handed out at once.
+     */
+    private class PooledDataSource extends DelegatingDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                if (!connections.tryAcquire(5, TimeUnit.SECONDS)) {
+                    throw new SQLException("Connection is not available, request timed out");
+                }
+                heldConnections.merge(Thread.currentThread(), 1, Integer::sum);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+
+            Thread owner = Thread.currentThread();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (closed.compareAndSet(false, true)) {
+                                heldConnections.computeIfPresent(owner, (thread, held) -> held > 1 ? held - 1 : null);
+                                connections.release();
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> closed.get();
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> method.getReturnType() == boolean.class ? false
+                                : method.getReturnType() == int.class ? 0 : null;
+                    });
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.config.AwsConfiguration;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares upload throughput of the blocking S3 client against the Netty-based async client
+ * using a local S3 stand-in with a fixed per-request latency.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class S3ClientModeBenchmark {
+    private static final int REQUESTS = 2000;
+    private static final int ROM_SIZE = 3584;
+    private static final long S3_LATENCY_MS = 15;
+    // Tomcat's default worker pool, i.e. how many uploads the sync path can have in flight
+    private static final int REQUEST_THREADS = 200;
+
+    private HttpServer s3StandIn;
+    private URI endpoint;
+    private final byte[] rom = new byte[ROM_SIZE];
+
+    @BeforeEach
+    void startS3StandIn() throws IOException {
+        s3StandIn = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        s3StandIn.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        s3StandIn.createContext("/", this::handle);
+        s3StandIn.start();
+        endpoint = URI.create("http://127.0.0.1:" + s3StandIn.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopS3StandIn() {
+        s3StandIn.stop(0);
+    }
+
+    @Test
+    void compareSyncAndAsyncUploadThroughput() throws Exception {
+        double syncThroughput;
+        try (S3Client s3Client = S3Client.builder()
+                .endpointOverride(endpoint)
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials())
+                .build()) {
+            syncThroughput = measureSync(s3Client);
+        }
+
+        double asyncThroughput;
+        try (S3AsyncClient s3AsyncClient = S3AsyncClient.builder()
+                .endpointOverride(endpoint)
+                .forcePathStyle(true)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials())
+                .httpClient(AwsConfiguration.asyncHttpClient(256, Duration.ofSeconds(10)))
+                .build()) {
+            asyncThroughput = measureAsync(s3AsyncClient);
+        }
+
+        System.out.printf("S3 upload throughput, %d x %d B at %d ms latency:%n", REQUESTS, ROM_SIZE, S3_LATENCY_MS);
+        System.out.printf("  sync  (%d platform request threads): %8.0f ops/s%n", REQUEST_THREADS, syncThroughput);
+        System.out.printf("  async (event loop, no request threads): %8.0f ops/s%n", asyncThroughput);
+    }
+
+    private double measureSync(S3Client s3Client) throws Exception {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> uploads = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                PutObjectRequest request = putRequest(i);
+                uploads.add(requestThreads.submit(() -> s3Client.putObject(request, RequestBody.fromBytes(rom))));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get(1, TimeUnit.MINUTES);
+            }
+            return REQUESTS / seconds(start);
+        } finally {
+            requestThreads.shutdownNow();
+        }
+    }
+
+    private double measureAsync(S3AsyncClient s3AsyncClient) throws Exception {
+        // Bounded like the Netty pool so pending acquires never time out
+        Semaphore inFlight = new Semaphore(256);
+        List<CompletableFuture<?>> uploads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            uploads.add(s3AsyncClient.putObject(putRequest(i), AsyncRequestBody.fromBytes(rom))
+                    .whenComplete((response, error) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        double throughput = REQUESTS / seconds(start);
+
+        assertEquals(REQUESTS, uploads.stream().filter(upload -> !upload.isCompletedExceptionally()).count());
+        return throughput;
+    }
+
+    private static PutObjectRequest putRequest(int i) {
+        return PutObjectRequest.builder()
+                .bucket("chip8-roms")
+                .key("benchmark/Rom" + i + ".ch8")
+                .build();
+    }
+
+    private static StaticCredentialsProvider credentials() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create("benchmark", "benchmark"));
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            byte[] content = body.readAllBytes();
+            Thread.sleep(S3_LATENCY_MS);
+
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                // The SDK checks the returned ETag against the MD5 of what it sent
+                String md5 = HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+                exchange.getResponseHeaders().add("ETag", "\"" + md5 + "\"");
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(204, -1);
+            }
+        } catch (Exception e) {
+            exchange.sendResponseHeaders(500, -1);
+        }
+    }
+}
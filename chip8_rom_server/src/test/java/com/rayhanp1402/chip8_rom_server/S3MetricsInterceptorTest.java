@@ -0,0 +1,65 @@
+package com.rayhanp1402.chip8_rom_server;
+
+import com.rayhanp1402.chip8_rom_server.metrics.S3MetricsInterceptor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class S3MetricsInterceptorTest {
+    private SimpleMeterRegistry registry;
+    private S3MetricsInterceptor interceptor;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new S3MetricsInterceptor(registry);
+    }
+
+    @Test
+    void shouldTimeSuccessfulCallsByOperation() {
+        ExecutionAttributes attributes = execution("PutObject");
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+        interceptor.afterExecution(mock(Context.AfterExecution.class), attributes);
+
+        Timer timer = registry.get("rom.s3.requests")
+                .tags("operation", "PutObject", "outcome", "SUCCESS", "endpoint", "none")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void shouldTagFailedCallsWithException() {
+        ExecutionAttributes attributes = execution("GetObject");
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+
+        Context.FailedExecution failure = mock(Context.FailedExecution.class);
+        when(failure.exception()).thenReturn(NoSuchKeyException.builder().build());
+        interceptor.onExecutionFailure(failure, attributes);
+
+        Timer timer = registry.get("rom.s3.requests")
+                .tags("operation", "GetObject", "outcome", "ERROR", "exception", "NoSuchKeyException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void shouldIgnoreCallsThatNeverStarted() {
+        interceptor.onExecutionFailure(mock(Context.FailedExecution.class), execution("DeleteObject"));
+
+        assertTrue(registry.find("rom.s3.requests").timers().isEmpty());
+    }
+
+    private static ExecutionAttributes execution(String operation) {
+        ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, operation);
+        return attributes;
+    }
+}